@@ -0,0 +1,47 @@
+package io.hypertrack.smart_scheduler.benchmark;
+
+import android.content.Context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hypertrack.smart_scheduler.Job;
+import io.hypertrack.smart_scheduler.SmartScheduler;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JobBuilderBenchmark {
+
+    private final SmartScheduler.JobScheduledCallback callback = new NoOpCallback();
+    private int jobId;
+
+    @Benchmark
+    public Job buildOneTimeJob() {
+        return new Job.Builder(++jobId, callback)
+                .setRequiredNetworkType(Job.NetworkType.NETWORK_TYPE_CONNECTED)
+                .setIntervalMillis(30000)
+                .build();
+    }
+
+    @Benchmark
+    public Job buildPeriodicJob() {
+        return new Job.Builder(++jobId, callback, Job.Type.JOB_TYPE_ALARM)
+                .setPeriodic(15 * 60 * 1000, 60000)
+                .setFlex(60000)
+                .build();
+    }
+
+    private static class NoOpCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            // do nothing
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package io.hypertrack.smart_scheduler.benchmark;
+
+import android.content.Context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hypertrack.smart_scheduler.Job;
+import io.hypertrack.smart_scheduler.SmartScheduler;
+
+/**
+ * Benchmark of moving jobs between the Handler and Alarm backends when the power saver mode
+ * changes. Half of the scheduled jobs change their backend in power saver mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PowerSaverMigrationBenchmark {
+
+    private static final int FIRST_JOB_ID = 1;
+
+    // Same as Job.JOB_TYPE_HANDLER_THRESHOLD, which is not visible outside of the library
+    private static final long HANDLER_THRESHOLD_MILLIS = 60000;
+
+    @Param({"100", "10000"})
+    public int scheduledJobCount;
+
+    private FakeContext context;
+    private SmartScheduler smartScheduler;
+    private boolean powerSaveMode;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new FakeContext();
+        smartScheduler = SmartScheduler.getInstance(context);
+
+        for (int jobId = FIRST_JOB_ID; jobId < FIRST_JOB_ID + scheduledJobCount; jobId++) {
+            Job.Builder builder;
+            if (jobId % 2 == 0) {
+                builder = new Job.Builder(jobId, new NoOpCallback(), Job.Type.JOB_TYPE_HANDLER)
+                        .setPeriodic(HANDLER_THRESHOLD_MILLIS * 2);
+            } else {
+                builder = new Job.Builder(jobId, new NoOpCallback(), Job.Type.JOB_TYPE_ALARM)
+                        .setPeriodic(HANDLER_THRESHOLD_MILLIS / 2, HANDLER_THRESHOLD_MILLIS);
+            }
+            smartScheduler.addJob(builder.build());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (int jobId = FIRST_JOB_ID; jobId < FIRST_JOB_ID + scheduledJobCount; jobId++) {
+            smartScheduler.removeJob(jobId);
+        }
+        smartScheduler.onPowerSaverModeChanged(false);
+        context.deleteFiles();
+    }
+
+    /**
+     * Toggles the power saver mode, so that every invocation migrates half of the scheduled jobs
+     */
+    @Benchmark
+    public void togglePowerSaverMode() {
+        powerSaveMode = !powerSaveMode;
+        smartScheduler.onPowerSaverModeChanged(powerSaveMode);
+    }
+
+    private static class NoOpCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            // do nothing
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package io.hypertrack.smart_scheduler.benchmark;
+
+import android.content.Context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+import io.hypertrack.smart_scheduler.Job;
+import io.hypertrack.smart_scheduler.SmartScheduler;
+
+/**
+ * Benchmarks of the SmartScheduler's public API with a given number of jobs already scheduled.
+ * Half of the scheduled jobs are Handler type jobs, the other half are Alarm type jobs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SmartSchedulerBenchmark {
+
+    // Scheduled jobs take the ids from here on, the ids above them are used for adding and removing jobs
+    private static final int FIRST_JOB_ID = 1;
+
+    @Param({"100", "10000"})
+    public int scheduledJobCount;
+
+    private FakeContext context;
+    private SmartScheduler smartScheduler;
+
+    private Job[] handlerJobs;
+    private Job[] alarmJobs;
+    private Job[] addedJobs;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new FakeContext();
+        smartScheduler = SmartScheduler.getInstance(context);
+
+        handlerJobs = new Job[scheduledJobCount / 2];
+        alarmJobs = new Job[scheduledJobCount / 2];
+        for (int i = 0; i < handlerJobs.length; i++) {
+            handlerJobs[i] = new Job.Builder(FIRST_JOB_ID + i, new NoOpCallback(), Job.Type.JOB_TYPE_HANDLER)
+                    .setPeriodic(30000)
+                    .build();
+            alarmJobs[i] = new Job.Builder(FIRST_JOB_ID + handlerJobs.length + i, new NoOpCallback(),
+                    Job.Type.JOB_TYPE_ALARM)
+                    .setPeriodic(15 * 60 * 1000, 15 * 60 * 1000)
+                    .build();
+            smartScheduler.addJob(handlerJobs[i]);
+            smartScheduler.addJob(alarmJobs[i]);
+        }
+
+        addedJobs = new Job[1024];
+        for (int i = 0; i < addedJobs.length; i++) {
+            addedJobs[i] = new Job.Builder(FIRST_JOB_ID + scheduledJobCount + i, new NoOpCallback())
+                    .setIntervalMillis(i % 2 == 0 ? 30000 : 15 * 60 * 1000)
+                    .build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (int jobId = FIRST_JOB_ID; jobId < FIRST_JOB_ID + scheduledJobCount + addedJobs.length; jobId++) {
+            smartScheduler.removeJob(jobId);
+        }
+        context.deleteFiles();
+    }
+
+    private int nextIndex(int length) {
+        int index = next;
+        next = index + 1 < length ? index + 1 : 0;
+        return index;
+    }
+
+    /**
+     * Adds a job replacing the one added with the same jobID before, so that the number of jobs
+     * stays the same
+     */
+    @Benchmark
+    public boolean addJob() {
+        return smartScheduler.addJob(addedJobs[nextIndex(addedJobs.length)]);
+    }
+
+    @Benchmark
+    public boolean addAndRemoveJob() {
+        Job job = addedJobs[nextIndex(addedJobs.length)];
+        smartScheduler.addJob(job);
+        return smartScheduler.removeJob(job.getJobId());
+    }
+
+    @Benchmark
+    public boolean removeMissingJob() {
+        return smartScheduler.removeJob(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public boolean containsJob() {
+        return smartScheduler.contains(handlerJobs[nextIndex(handlerJobs.length)]);
+    }
+
+    /**
+     * Fires a periodic Handler type job with an inline callback
+     */
+    @Benchmark
+    public void fireHandlerJob() {
+        smartScheduler.onHandlerJobScheduled(handlerJobs[nextIndex(handlerJobs.length)].getJobId());
+    }
+
+    /**
+     * Fires a periodic Alarm type job with an inline callback
+     */
+    @Benchmark
+    public void fireAlarmJob() {
+        smartScheduler.onAlarmJobScheduled(alarmJobs[nextIndex(alarmJobs.length)].getJobId());
+    }
+
+    private static class NoOpCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            // do nothing
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package android.app;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM. Counts the alarms set,
+ * without ever firing them.
+ */
+public class AlarmManager {
+
+    public static final int RTC_WAKEUP = 0;
+    public static final int RTC = 1;
+    public static final int ELAPSED_REALTIME_WAKEUP = 2;
+    public static final int ELAPSED_REALTIME = 3;
+
+    private volatile long setCount;
+
+    public void set(int type, long triggerAtMillis, PendingIntent operation) {
+        setCount++;
+    }
+
+    public void setExact(int type, long triggerAtMillis, PendingIntent operation) {
+        setCount++;
+    }
+
+    public void setExactAndAllowWhileIdle(int type, long triggerAtMillis, PendingIntent operation) {
+        setCount++;
+    }
+
+    public void cancel(PendingIntent operation) {
+    }
+
+    public long getSetCount() {
+        return setCount;
+    }
+}
@@ -0,0 +1,20 @@
+package android.app;
+
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public final class PendingIntent {
+
+    public static final int FLAG_NO_CREATE = 1 << 29;
+    public static final int FLAG_UPDATE_CURRENT = 1 << 27;
+
+    public static PendingIntent getBroadcast(Context context, int requestCode, Intent intent, int flags) {
+        return (flags & FLAG_NO_CREATE) != 0 ? null : new PendingIntent();
+    }
+
+    public void cancel() {
+    }
+}
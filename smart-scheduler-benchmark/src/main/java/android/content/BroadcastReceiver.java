@@ -0,0 +1,9 @@
+package android.content;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public abstract class BroadcastReceiver {
+
+    public abstract void onReceive(Context context, Intent intent);
+}
@@ -0,0 +1,21 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public abstract class Context {
+
+    public static final String ALARM_SERVICE = "alarm";
+    public static final String CONNECTIVITY_SERVICE = "connectivity";
+    public static final String POWER_SERVICE = "power";
+
+    public abstract Context getApplicationContext();
+
+    public abstract Object getSystemService(String name);
+
+    public abstract Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter);
+
+    public abstract File getFilesDir();
+}
@@ -0,0 +1,48 @@
+package android.content;
+
+import android.os.Bundle;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public class Intent {
+
+    public static final String ACTION_BATTERY_CHANGED = "android.intent.action.BATTERY_CHANGED";
+    public static final String ACTION_BOOT_COMPLETED = "android.intent.action.BOOT_COMPLETED";
+    public static final String ACTION_MY_PACKAGE_REPLACED = "android.intent.action.MY_PACKAGE_REPLACED";
+
+    private String action;
+    private Bundle extras;
+
+    public Intent() {
+    }
+
+    public Intent(String action) {
+        this.action = action;
+    }
+
+    public Intent(Context packageContext, Class<?> cls) {
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public Intent setAction(String action) {
+        this.action = action;
+        return this;
+    }
+
+    public Bundle getExtras() {
+        return extras;
+    }
+
+    public Intent putExtras(Bundle extras) {
+        this.extras = extras;
+        return this;
+    }
+
+    public int getIntExtra(String name, int defaultValue) {
+        return extras != null ? extras.getInt(name, defaultValue) : defaultValue;
+    }
+}
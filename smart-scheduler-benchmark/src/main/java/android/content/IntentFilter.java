@@ -0,0 +1,27 @@
+package android.content;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public class IntentFilter {
+
+    private final List<String> actions = new ArrayList<>();
+
+    public IntentFilter() {
+    }
+
+    public IntentFilter(String action) {
+        addAction(action);
+    }
+
+    public final void addAction(String action) {
+        actions.add(action);
+    }
+
+    public final boolean hasAction(String action) {
+        return actions.contains(action);
+    }
+}
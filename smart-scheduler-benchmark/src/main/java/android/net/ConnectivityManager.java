@@ -0,0 +1,22 @@
+package android.net;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM. Always connected to WiFi.
+ */
+public class ConnectivityManager {
+
+    public static final String CONNECTIVITY_ACTION = "android.net.conn.CONNECTIVITY_CHANGE";
+
+    public static final int TYPE_MOBILE = 0;
+    public static final int TYPE_WIFI = 1;
+
+    private final NetworkInfo activeNetworkInfo = new NetworkInfo(TYPE_WIFI, true);
+
+    public NetworkInfo getActiveNetworkInfo() {
+        return activeNetworkInfo;
+    }
+
+    public boolean isActiveNetworkMetered() {
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package android.net;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public class NetworkInfo {
+
+    private final int type;
+    private final boolean connected;
+
+    public NetworkInfo(int type, boolean connected) {
+        this.type = type;
+        this.connected = connected;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public boolean isConnectedOrConnecting() {
+        return connected;
+    }
+}
@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public class BatteryManager {
+
+    public static final String EXTRA_STATUS = "status";
+
+    public static final int BATTERY_STATUS_UNKNOWN = 1;
+    public static final int BATTERY_STATUS_CHARGING = 2;
+    public static final int BATTERY_STATUS_DISCHARGING = 3;
+    public static final int BATTERY_STATUS_NOT_CHARGING = 4;
+    public static final int BATTERY_STATUS_FULL = 5;
+}
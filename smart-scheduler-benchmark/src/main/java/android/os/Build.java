@@ -0,0 +1,19 @@
+package android.os;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public class Build {
+
+    public static class VERSION {
+        public static final int SDK_INT = VERSION_CODES.O_MR1;
+    }
+
+    public static class VERSION_CODES {
+        public static final int JELLY_BEAN = 16;
+        public static final int KITKAT = 19;
+        public static final int LOLLIPOP = 21;
+        public static final int M = 23;
+        public static final int O_MR1 = 27;
+    }
+}
@@ -0,0 +1,24 @@
+package android.os;
+
+import java.util.HashMap;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public final class Bundle {
+
+    private final HashMap<String, Object> values = new HashMap<>();
+
+    public void putInt(String key, int value) {
+        values.put(key, value);
+    }
+
+    public int getInt(String key) {
+        return getInt(key, 0);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = values.get(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+}
@@ -0,0 +1,47 @@
+package android.os;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM. Accepts all messages and
+ * runnables without ever running them.
+ */
+public class Handler {
+
+    public interface Callback {
+        boolean handleMessage(Message msg);
+    }
+
+    public Handler() {
+    }
+
+    public Handler(Looper looper) {
+    }
+
+    public Handler(Looper looper, Callback callback) {
+    }
+
+    public final boolean post(Runnable r) {
+        return true;
+    }
+
+    public final boolean postAtTime(Runnable r, long uptimeMillis) {
+        return true;
+    }
+
+    public final boolean postDelayed(Runnable r, long delayMillis) {
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable r) {
+    }
+
+    public final Message obtainMessage(int what, Object obj) {
+        Message message = new Message();
+        message.what = what;
+        message.obj = obj;
+        return message;
+    }
+
+    public final boolean sendMessage(Message msg) {
+        return true;
+    }
+}
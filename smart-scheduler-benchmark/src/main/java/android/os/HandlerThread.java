@@ -0,0 +1,28 @@
+package android.os;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public class HandlerThread extends Thread {
+
+    public HandlerThread(String name) {
+        super(name);
+    }
+
+    public HandlerThread(String name, int priority) {
+        super(name);
+    }
+
+    @Override
+    public void run() {
+        // No messages are ever run
+    }
+
+    public Looper getLooper() {
+        return Looper.getMainLooper();
+    }
+
+    public boolean quit() {
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package android.os;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM. All threads share a single
+ * Looper which never runs any messages.
+ */
+public final class Looper {
+
+    private static final Looper MAIN_LOOPER = new Looper();
+
+    public static Looper myLooper() {
+        return MAIN_LOOPER;
+    }
+
+    public static Looper getMainLooper() {
+        return MAIN_LOOPER;
+    }
+}
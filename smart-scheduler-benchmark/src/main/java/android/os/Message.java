@@ -0,0 +1,11 @@
+package android.os;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public final class Message {
+    public int what;
+    public int arg1;
+    public int arg2;
+    public Object obj;
+}
@@ -0,0 +1,39 @@
+package android.os;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public final class PowerManager {
+
+    public static final String ACTION_POWER_SAVE_MODE_CHANGED = "android.os.action.POWER_SAVE_MODE_CHANGED";
+
+    public static final int PARTIAL_WAKE_LOCK = 0x00000001;
+
+    public boolean isPowerSaveMode() {
+        return false;
+    }
+
+    public WakeLock newWakeLock(int levelAndFlags, String tag) {
+        return new WakeLock();
+    }
+
+    public final class WakeLock {
+
+        private boolean held;
+
+        public void setReferenceCounted(boolean value) {
+        }
+
+        public void acquire(long timeout) {
+            held = true;
+        }
+
+        public void release() {
+            held = false;
+        }
+
+        public boolean isHeld() {
+            return held;
+        }
+    }
+}
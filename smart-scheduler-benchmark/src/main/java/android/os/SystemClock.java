@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM.
+ */
+public final class SystemClock {
+
+    public static long uptimeMillis() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    public static long elapsedRealtime() {
+        return System.nanoTime() / 1000000L;
+    }
+}
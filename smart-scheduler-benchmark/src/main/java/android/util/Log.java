@@ -0,0 +1,27 @@
+package android.util;
+
+/**
+ * Fake of the Android class for running the scheduler on a plain JVM. Drops all messages.
+ */
+public final class Log {
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int i(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+}
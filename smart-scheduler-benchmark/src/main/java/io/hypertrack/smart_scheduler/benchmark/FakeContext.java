@@ -0,0 +1,80 @@
+package io.hypertrack.smart_scheduler.benchmark;
+
+import android.app.AlarmManager;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.os.PowerManager;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Application context backed by local fakes of the system services, with its files directory in
+ * a fresh temporary directory.
+ */
+public class FakeContext extends Context {
+
+    private final File filesDir;
+    private final AlarmManager alarmManager = new AlarmManager();
+    private final ConnectivityManager connectivityManager = new ConnectivityManager();
+    private final PowerManager powerManager = new PowerManager();
+
+    public FakeContext() throws IOException {
+        filesDir = File.createTempFile("smart-scheduler-benchmark", "");
+        if (!filesDir.delete() || !filesDir.mkdirs())
+            throw new IOException("Unable to create files directory: " + filesDir);
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public Object getSystemService(String name) {
+        switch (name) {
+            case ALARM_SERVICE:
+                return alarmManager;
+
+            case CONNECTIVITY_SERVICE:
+                return connectivityManager;
+
+            case POWER_SERVICE:
+                return powerManager;
+
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
+        // No broadcasts are ever sent, and there is no sticky battery broadcast
+        return null;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return filesDir;
+    }
+
+    public AlarmManager getAlarmManager() {
+        return alarmManager;
+    }
+
+    /**
+     * Method to delete the files directory along with all files written to it
+     */
+    public void deleteFiles() {
+        File[] files = filesDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        filesDir.delete();
+    }
+}
@@ -0,0 +1,114 @@
+package io.hypertrack.smart_scheduler;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Multiplexes all Alarm type jobs onto a single wakeup of the {@link WakeupBackend}, which is
+ * always set for the earliest deadline in an in-process {@link AlarmQueue}.
+ */
+final class AlarmMultiplexer {
+
+    private static final String TAG = AlarmMultiplexer.class.getSimpleName();
+
+    private final WakeupBackend wakeupBackend;
+    private final MetricsRecorder metrics;
+    private final AlarmQueue alarmQueue = new AlarmQueue();
+
+    // Deadline (in millis) for which the wakeup alarm is currently set, -1 if none is set
+    private long armedDeadline = -1;
+
+    // Re-arming is deferred till the outermost batch ends
+    private int batchDepth;
+
+    AlarmMultiplexer(WakeupBackend wakeupBackend, MetricsRecorder metrics) {
+        this.wakeupBackend = wakeupBackend;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Method to schedule an entry at the given deadline, moving it in case it is already scheduled
+     *
+     * @param entry    Entry which needs to be scheduled
+     * @param deadline Elapsed realtime (in millis) at which the entry is due
+     */
+    synchronized void schedule(AlarmQueue.Entry entry, long deadline) {
+        alarmQueue.add(entry, deadline);
+        rearm();
+    }
+
+    /**
+     * Method to cancel a scheduled entry
+     *
+     * @param entry Entry which needs to be cancelled
+     * @return Returns true in case the entry was scheduled and is now cancelled, false otherwise
+     */
+    synchronized boolean cancel(AlarmQueue.Entry entry) {
+        if (!alarmQueue.remove(entry))
+            return false;
+
+        rearm();
+        return true;
+    }
+
+    /**
+     * Method to remove all entries which are due. Call this between {@link #beginBatch()} and
+     * {@link #endBatch()} so that the alarm is re-armed only once for the whole firing window.
+     *
+     * @param now Current elapsed realtime (in millis)
+     * @return Returns the due entries in order of their deadlines
+     */
+    synchronized List<AlarmQueue.Entry> pollDue(long now) {
+        List<AlarmQueue.Entry> dueEntries = new ArrayList<>();
+        AlarmQueue.Entry entry;
+        while ((entry = alarmQueue.pollDue(now)) != null) {
+            dueEntries.add(entry);
+        }
+
+        // The alarm for these entries has fired already
+        armedDeadline = -1;
+        return dueEntries;
+    }
+
+    /**
+     * Method to re-arm the wakeup alarm after the system has cleared all alarms of the app
+     */
+    synchronized void onAlarmsCleared() {
+        armedDeadline = -1;
+        rearm();
+    }
+
+    synchronized void beginBatch() {
+        batchDepth++;
+    }
+
+    synchronized void endBatch() {
+        if (batchDepth > 0 && --batchDepth == 0) {
+            rearm();
+        }
+    }
+
+    private void rearm() {
+        if (batchDepth > 0)
+            return;
+
+        AlarmQueue.Entry head = alarmQueue.peek();
+        long deadline = head != null ? head.getDeadline() : -1;
+        if (deadline == armedDeadline)
+            return;
+
+        try {
+            if (head == null) {
+                wakeupBackend.cancelWakeup();
+            } else {
+                wakeupBackend.setWakeup(deadline);
+                metrics.recordAlarmArm();
+            }
+            armedDeadline = deadline;
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while rearm: " + e);
+        }
+    }
+}
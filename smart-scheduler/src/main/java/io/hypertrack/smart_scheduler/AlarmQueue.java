@@ -0,0 +1,142 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of alarm deadlines. Entries keep track of their position in the heap, so
+ * removing an arbitrary entry is O(log n) and looking up the earliest deadline is O(1).
+ * This class is not thread-safe.
+ */
+final class AlarmQueue {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Heap entry for a scheduled alarm. Subclass this to attach job specific data to the entry.
+     */
+    static class Entry {
+        private long deadline;
+        private int index = -1;
+
+        long getDeadline() {
+            return deadline;
+        }
+    }
+
+    private Entry[] heap = new Entry[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Method to add an entry with the given deadline. An entry which is already queued is moved
+     * to the new deadline.
+     *
+     * @param entry    Entry which needs to be added
+     * @param deadline Time (in millis) at which the entry is due
+     */
+    void add(Entry entry, long deadline) {
+        if (entry.index >= 0) {
+            long previousDeadline = entry.deadline;
+            entry.deadline = deadline;
+            if (deadline < previousDeadline) {
+                siftUp(entry.index, entry);
+            } else {
+                siftDown(entry.index, entry);
+            }
+            return;
+        }
+
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+
+        entry.deadline = deadline;
+        siftUp(size++, entry);
+    }
+
+    /**
+     * Method to remove an entry from the queue
+     *
+     * @param entry Entry which needs to be removed
+     * @return Returns true in case the entry was queued and is now removed, false otherwise
+     */
+    boolean remove(Entry entry) {
+        int index = entry.index;
+        if (index < 0 || index >= size || heap[index] != entry)
+            return false;
+
+        entry.index = -1;
+        Entry last = heap[--size];
+        heap[size] = null;
+
+        if (index != size) {
+            siftDown(index, last);
+            if (heap[index] == last) {
+                siftUp(index, last);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Returns the entry with the earliest deadline, null if the queue is empty
+     */
+    Entry peek() {
+        return size > 0 ? heap[0] : null;
+    }
+
+    /**
+     * Method to remove and return the entry with the earliest deadline in case it is due
+     *
+     * @param now Current time (in millis)
+     * @return Returns the earliest entry if its deadline is not after now, null otherwise
+     */
+    Entry pollDue(long now) {
+        Entry head = peek();
+        if (head == null || head.deadline > now)
+            return null;
+
+        remove(head);
+        return head;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void siftUp(int index, Entry entry) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Entry parentEntry = heap[parent];
+            if (entry.deadline >= parentEntry.deadline)
+                break;
+
+            heap[index] = parentEntry;
+            parentEntry.index = index;
+            index = parent;
+        }
+
+        heap[index] = entry;
+        entry.index = index;
+    }
+
+    private void siftDown(int index, Entry entry) {
+        int half = size >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < size && heap[right].deadline < heap[child].deadline) {
+                child = right;
+            }
+
+            if (entry.deadline <= heap[child].deadline)
+                break;
+
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+
+        heap[index] = entry;
+        entry.index = index;
+    }
+}
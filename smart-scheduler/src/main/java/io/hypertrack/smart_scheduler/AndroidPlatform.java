@@ -0,0 +1,98 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Platform backed by the Android framework.
+ */
+final class AndroidPlatform implements Platform, Clock {
+
+    private static final String TIMER_THREAD_NAME = "SmartScheduler-Timer";
+
+    private final WakeupBackend wakeupBackend;
+    private final DeviceState deviceState;
+    private final Dispatcher timerDispatcher;
+    private final Dispatcher mainDispatcher;
+    private final HashMap<Looper, Dispatcher> callerDispatchers = new HashMap<>();
+    private final Executor workerPool;
+
+    AndroidPlatform(Context context) {
+        wakeupBackend = new AndroidWakeupBackend(context);
+        deviceState = new DeviceStateMonitor(context);
+        timerDispatcher = new HandlerDispatcher(TIMER_THREAD_NAME, Process.THREAD_PRIORITY_DEFAULT);
+        mainDispatcher = new HandlerDispatcher(Looper.getMainLooper());
+        workerPool = new JobWorkerPool();
+    }
+
+    @Override
+    public Clock getClock() {
+        return this;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return SystemClock.uptimeMillis();
+    }
+
+    @Override
+    public long elapsedRealtime() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    @Override
+    public WakeupBackend getWakeupBackend() {
+        return wakeupBackend;
+    }
+
+    @Override
+    public DeviceState getDeviceState() {
+        return deviceState;
+    }
+
+    @Override
+    public Dispatcher getTimerDispatcher() {
+        return timerDispatcher;
+    }
+
+    /**
+     * @return Returns the dispatcher for the caller's Looper, or for the main Looper if the caller has none
+     */
+    @Override
+    public Dispatcher getCallerDispatcher() {
+        Looper looper = Looper.myLooper() != null ? Looper.myLooper() : Looper.getMainLooper();
+
+        synchronized (callerDispatchers) {
+            Dispatcher dispatcher = callerDispatchers.get(looper);
+            if (dispatcher == null) {
+                dispatcher = new HandlerDispatcher(looper);
+                callerDispatchers.put(looper, dispatcher);
+            }
+
+            return dispatcher;
+        }
+    }
+
+    /**
+     * @return Returns the dispatcher for the main Looper, which broadcast receivers are called on
+     */
+    @Override
+    public Dispatcher getMainDispatcher() {
+        return mainDispatcher;
+    }
+
+    @Override
+    public Executor getWorkerPool() {
+        return workerPool;
+    }
+}
@@ -0,0 +1,127 @@
+package io.hypertrack.smart_scheduler;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.PowerManager;
+import android.util.Log;
+
+/**
+ * Sets the shared wakeup as a single exact AlarmManager alarm delivered to
+ * {@link SmartSchedulerAlarmReceiver}. The alarm is set on the elapsed realtime clock, so that it
+ * doesn't move when the user or the network changes the wall clock time. The AlarmManager and the
+ * PendingIntent of the alarm are resolved once, so re-arming the alarm doesn't allocate. The wake
+ * lock is a single partial wake lock, which is not reference counted.
+ */
+final class AndroidWakeupBackend implements WakeupBackend {
+
+    private static final String TAG = AndroidWakeupBackend.class.getSimpleName();
+
+    static final String ACTION_ALARM_WAKEUP = "io.hypertrack.smart_scheduler.ACTION_ALARM_WAKEUP";
+
+    // Job ids are always positive, so this can never clash with a per-job alarm of older versions
+    private static final int WAKEUP_REQUEST_CODE = 0;
+
+    private static final String WAKE_LOCK_TAG = "SmartScheduler:AlarmWakeup";
+
+    private final Context mContext;
+
+    // Resolved on first use, guarded by this
+    private AlarmManager alarmManager;
+    private PendingIntent wakeupIntent;
+    private PowerManager.WakeLock wakeLock;
+
+    AndroidWakeupBackend(Context context) {
+        mContext = context;
+    }
+
+    @Override
+    public synchronized void setWakeup(long triggerAtMillis) {
+        AlarmManager alarm = getAlarmManager();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            alarm.setExactAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerAtMillis, getWakeupIntent());
+
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            alarm.setExact(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerAtMillis, getWakeupIntent());
+
+        } else {
+            alarm.set(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerAtMillis, getWakeupIntent());
+        }
+    }
+
+    @Override
+    public synchronized void cancelWakeup() {
+        getAlarmManager().cancel(getWakeupIntent());
+    }
+
+    @Override
+    public synchronized void cancelLegacyWakeup(int jobId) {
+        try {
+            Intent intent = new Intent(mContext, SmartSchedulerAlarmReceiver.class);
+            PendingIntent pendingIntent = PendingIntent.getBroadcast(mContext, jobId, intent,
+                    PendingIntent.FLAG_NO_CREATE);
+
+            //check if any alarm is set or no, if yes then remove
+            if (pendingIntent != null) {
+                getAlarmManager().cancel(pendingIntent);
+                pendingIntent.cancel();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while cancelLegacyWakeup: " + e);
+        }
+    }
+
+    @Override
+    public synchronized void acquireWakeLock(long timeoutMillis) {
+        try {
+            getWakeLock().acquire(timeoutMillis);
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while acquireWakeLock: " + e);
+        }
+    }
+
+    @Override
+    public synchronized void releaseWakeLock() {
+        try {
+            if (wakeLock != null && wakeLock.isHeld()) {
+                wakeLock.release();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while releaseWakeLock: " + e);
+        }
+    }
+
+    private PowerManager.WakeLock getWakeLock() {
+        if (wakeLock == null) {
+            PowerManager powerManager = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
+            wakeLock = powerManager.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, WAKE_LOCK_TAG);
+            // Callers count the work holding the wake lock themselves
+            wakeLock.setReferenceCounted(false);
+        }
+
+        return wakeLock;
+    }
+
+    private AlarmManager getAlarmManager() {
+        if (alarmManager == null) {
+            alarmManager = (AlarmManager) mContext.getSystemService(Context.ALARM_SERVICE);
+        }
+
+        return alarmManager;
+    }
+
+    private PendingIntent getWakeupIntent() {
+        // The intent never changes, so the PendingIntent stays valid for the lifetime of the process
+        if (wakeupIntent == null) {
+            Intent intent = new Intent(mContext, SmartSchedulerAlarmReceiver.class);
+            intent.setAction(ACTION_ALARM_WAKEUP);
+            wakeupIntent = PendingIntent.getBroadcast(mContext, WAKEUP_REQUEST_CODE, intent,
+                    PendingIntent.FLAG_UPDATE_CURRENT);
+        }
+
+        return wakeupIntent;
+    }
+}
@@ -0,0 +1,24 @@
+package io.hypertrack.smart_scheduler;
+
+/**
+ * Source of time for the SmartScheduler. Elapsed realtime is used for Alarm type jobs, uptime for
+ * Handler type jobs and for measuring callbacks. Wall clock time is only used for stored jobs, as
+ * it is the only one which survives a reboot.
+ */
+interface Clock {
+
+    /**
+     * @return Returns the current wall clock time (in millis)
+     */
+    long currentTimeMillis();
+
+    /**
+     * @return Returns the time (in millis) since boot, not counting time spent in deep sleep
+     */
+    long uptimeMillis();
+
+    /**
+     * @return Returns the time (in millis) since boot, including time spent in deep sleep
+     */
+    long elapsedRealtime();
+}
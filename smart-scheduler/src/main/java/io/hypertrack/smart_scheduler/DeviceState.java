@@ -0,0 +1,70 @@
+package io.hypertrack.smart_scheduler;
+
+/**
+ * State of the device jobs can be constrained on, i.e. connectivity, charging and power saver mode.
+ */
+interface DeviceState {
+
+    /**
+     * Immutable state of the device at one point in time.
+     */
+    final class Snapshot {
+        final boolean connected;
+        final boolean unmetered;
+        final boolean charging;
+        final boolean powerSaveMode;
+
+        Snapshot(boolean connected, boolean unmetered, boolean charging, boolean powerSaveMode) {
+            this.connected = connected;
+            this.unmetered = connected && unmetered;
+            this.charging = charging;
+            this.powerSaveMode = powerSaveMode;
+        }
+
+        /**
+         * Method to check if the job's constraints are met in this state
+         *
+         * @param job Job whose constraints need to be checked
+         * @return Returns true in case the job can be run in this state, false otherwise
+         */
+        boolean meetsConstraints(Job job) {
+            if (job.getRequiresCharging() && !charging)
+                return false;
+
+            switch (job.getNetworkType()) {
+                case Job.NetworkType.NETWORK_TYPE_CONNECTED:
+                    return connected;
+
+                case Job.NetworkType.NETWORK_TYPE_UNMETERED:
+                    return unmetered;
+
+                default:
+                    return true;
+            }
+        }
+
+        boolean sameAs(boolean connected, boolean unmetered, boolean charging, boolean powerSaveMode) {
+            return this.connected == connected && this.unmetered == (connected && unmetered)
+                    && this.charging == charging && this.powerSaveMode == powerSaveMode;
+        }
+    }
+
+    /**
+     * Implement this callback to be notified once the device state has changed.
+     */
+    interface Listener {
+        void onDeviceStateChanged(Snapshot previous, Snapshot current);
+    }
+
+    /**
+     * Method to read the current device state and start notifying the listener of changes
+     *
+     * @param listener Listener which needs to be notified
+     */
+    void start(Listener listener);
+
+    /**
+     * @return Returns the latest state of the device
+     */
+    Snapshot getSnapshot();
+}
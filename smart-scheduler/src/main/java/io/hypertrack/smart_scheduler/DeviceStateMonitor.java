@@ -0,0 +1,176 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.PowerManager;
+import android.util.Log;
+
+/**
+ * Keeps track of the device state jobs can be constrained on, i.e. connectivity, charging and
+ * power saver mode. The state is read from the system once on start and then updated from
+ * broadcasts only, so that checking the constraints of a job is a single volatile read. The
+ * listener is called on the main thread.
+ */
+final class DeviceStateMonitor implements DeviceState {
+
+    private static final String TAG = DeviceStateMonitor.class.getSimpleName();
+
+    private final Context mContext;
+    private volatile Listener listener;
+
+    // Resolved once on start, before any broadcast is received
+    private ConnectivityManager connectivityManager;
+
+    private volatile Snapshot snapshot = new Snapshot(false, false, false, false);
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            onDeviceStateBroadcast(intent);
+        }
+    };
+
+    DeviceStateMonitor(Context context) {
+        mContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+    }
+
+    /**
+     * Method to read the current device state and subscribe to all broadcasts changing it. In case
+     * the state can't be read, all constraints are assumed to be met, so that no job is held back
+     * forever.
+     */
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+        try {
+            connectivityManager = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+
+            IntentFilter filter = new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION);
+            filter.addAction(Intent.ACTION_BATTERY_CHANGED);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                filter.addAction(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED);
+            }
+            mContext.registerReceiver(receiver, filter);
+
+            Intent batteryIntent = mContext.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+            Snapshot current = snapshot;
+            update(readConnected(), readUnmetered(), batteryIntent != null ? readCharging(batteryIntent) : current.charging,
+                    readPowerSaveMode());
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while start: " + e);
+            update(true, true, true, false);
+        }
+    }
+
+    /**
+     * @return Returns the latest state of the device
+     */
+    @Override
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void onDeviceStateBroadcast(Intent intent) {
+        if (intent == null || intent.getAction() == null)
+            return;
+
+        try {
+            Snapshot current = snapshot;
+            switch (intent.getAction()) {
+                case ConnectivityManager.CONNECTIVITY_ACTION:
+                    update(readConnected(), readUnmetered(), current.charging, current.powerSaveMode);
+                    break;
+
+                case Intent.ACTION_BATTERY_CHANGED:
+                    update(current.connected, current.unmetered, readCharging(intent), current.powerSaveMode);
+                    break;
+
+                case PowerManager.ACTION_POWER_SAVE_MODE_CHANGED:
+                    update(current.connected, current.unmetered, current.charging, readPowerSaveMode());
+                    break;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while onDeviceStateBroadcast: " + e);
+        }
+    }
+
+    private void update(boolean connected, boolean unmetered, boolean charging, boolean powerSaveMode) {
+        Snapshot previous;
+        Snapshot current;
+        synchronized (this) {
+            previous = snapshot;
+            if (previous.sameAs(connected, unmetered, charging, powerSaveMode))
+                return;
+
+            current = new Snapshot(connected, unmetered, charging, powerSaveMode);
+            snapshot = current;
+        }
+
+        Listener listener = this.listener;
+        if (listener != null) {
+            listener.onDeviceStateChanged(previous, current);
+        }
+    }
+
+    /**
+     * Method to check if the device is connected to network.
+     *
+     * @return Returns true if device has net connectivity, false otherwise
+     */
+    private boolean readConnected() {
+        NetworkInfo activeNetwork = connectivityManager.getActiveNetworkInfo();
+        return activeNetwork != null && activeNetwork.isConnectedOrConnecting();
+    }
+
+    /**
+     * Method to check if the device is connected to an un-metered network like WiFi etc.
+     *
+     * @return Returns true if device is connected to un-metered network, false otherwise
+     */
+    private boolean readUnmetered() {
+        // Checks if the device is on a metered network
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return !connectivityManager.isActiveNetworkMetered();
+        } else {
+            NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+            return (networkInfo != null && networkInfo.getType() == ConnectivityManager.TYPE_WIFI);
+        }
+    }
+
+    /**
+     * Method to check if the device is in power saver mode.
+     *
+     * @return Returns true if power saver mode is enabled, false otherwise
+     */
+    private boolean readPowerSaveMode() {
+        return Utils.checkIfPowerSaverModeEnabled(mContext);
+    }
+
+    /**
+     * Method to check if the device is charging.
+     *
+     * @param batteryIntent Intent of the latest ACTION_BATTERY_CHANGED broadcast
+     * @return Returns true if device is either charging or full, false otherwise
+     */
+    private static boolean readCharging(Intent batteryIntent) {
+        int batteryPowerStatus = batteryIntent.getIntExtra(BatteryManager.EXTRA_STATUS, 0);
+
+        switch (batteryPowerStatus) {
+            case BatteryManager.BATTERY_STATUS_CHARGING:
+            case BatteryManager.BATTERY_STATUS_FULL:
+                return true;
+
+            case BatteryManager.BATTERY_STATUS_UNKNOWN:
+            case BatteryManager.BATTERY_STATUS_DISCHARGING:
+            case BatteryManager.BATTERY_STATUS_NOT_CHARGING:
+            default:
+                return false;
+        }
+    }
+}
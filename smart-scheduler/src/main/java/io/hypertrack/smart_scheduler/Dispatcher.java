@@ -0,0 +1,29 @@
+package io.hypertrack.smart_scheduler;
+
+/**
+ * Runs tasks one at a time on a single thread, either right away or at a given uptime.
+ */
+interface Dispatcher {
+
+    /**
+     * Method to run a task as soon as possible
+     *
+     * @param task Task which needs to be run
+     */
+    void dispatch(Runnable task);
+
+    /**
+     * Method to run a task at the given time
+     *
+     * @param task         Task which needs to be run
+     * @param uptimeMillis Uptime (in millis) at which the task should be run
+     */
+    void dispatchAt(Runnable task, long uptimeMillis);
+
+    /**
+     * Method to remove all pending runs of a task
+     *
+     * @param task Task which needs to be removed
+     */
+    void cancel(Runnable task);
+}
@@ -0,0 +1,101 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Plans the fire times of jobs with a flex window, so that jobs whose windows overlap may share a
+ * single wakeup. Each job is due in the window [deadline - flex, deadline]. Jobs are planned
+ * greedily, one at a time as they are armed: a job is planned for the latest wakeup already
+ * planned inside its window, or for its deadline in case there is none. Jobs already planned are
+ * never moved, so the number of wakeups depends on the order in which jobs are armed and is not
+ * necessarily the least needed to cover all windows.
+ */
+final class FlexPlanner {
+
+    /**
+     * Wakeup time currently held by a job. Guarded by the planner it was planned with.
+     */
+    static final class Reservation {
+        private long time = -1;
+
+        long getTime() {
+            return time;
+        }
+    }
+
+    // Number of jobs planned for each wakeup time
+    private final TreeMap<Long, Integer> wakeups = new TreeMap<>();
+
+    /**
+     * Method to plan the fire time for a job, releasing the time it held before
+     *
+     * @param reservation Reservation of the job
+     * @param deadline    Latest time at which the job is due
+     * @param flex        Length of the window (in millis) before the deadline in which the job may fire
+     * @return Returns the planned fire time
+     */
+    synchronized long plan(Reservation reservation, long deadline, long flex) {
+        release(reservation);
+
+        long time = deadline;
+        if (flex > 0) {
+            Map.Entry<Long, Integer> wakeup = wakeups.floorEntry(deadline);
+            if (wakeup != null && wakeup.getKey() >= deadline - flex) {
+                time = wakeup.getKey();
+            }
+        }
+
+        Integer count = wakeups.get(time);
+        wakeups.put(time, count != null ? count + 1 : 1);
+        reservation.time = time;
+        return time;
+    }
+
+    /**
+     * Method to release the time held by a job once it has fired or has been cancelled
+     *
+     * @param reservation Reservation of the job
+     */
+    synchronized void release(Reservation reservation) {
+        if (reservation.time < 0)
+            return;
+
+        Integer count = wakeups.get(reservation.time);
+        if (count != null) {
+            if (count > 1) {
+                wakeups.put(reservation.time, count - 1);
+            } else {
+                wakeups.remove(reservation.time);
+            }
+        }
+        reservation.time = -1;
+    }
+
+    /**
+     * Method to check if a job could share a wakeup planned for other jobs
+     *
+     * @param reservation Reservation of the job, null if the job was not planned with this planner
+     * @param deadline    Latest time at which the job is due
+     * @param flex        Length of the window (in millis) before the deadline in which the job may fire
+     * @return Returns true in case a wakeup held by another job is planned within the job's window
+     */
+    synchronized boolean hasSharedWakeup(Reservation reservation, long deadline, long flex) {
+        long ownTime = reservation != null ? reservation.time : -1;
+        Map.Entry<Long, Integer> wakeup = wakeups.floorEntry(deadline);
+        while (wakeup != null && wakeup.getKey() >= deadline - Math.max(0, flex)) {
+            if (wakeup.getValue() > (wakeup.getKey() == ownTime ? 1 : 0))
+                return true;
+
+            wakeup = wakeups.lowerEntry(wakeup.getKey());
+        }
+        return false;
+    }
+
+    /**
+     * @return Returns the number of distinct wakeup times currently planned
+     */
+    synchronized int wakeupCount() {
+        return wakeups.size();
+    }
+}
@@ -0,0 +1,52 @@
+package io.hypertrack.smart_scheduler;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+
+/**
+ * Dispatcher running tasks on a Looper, either an existing one or the one of a dedicated thread
+ * which is only started once the first task is dispatched.
+ */
+final class HandlerDispatcher implements Dispatcher {
+
+    private final String threadName;
+    private final int threadPriority;
+    private Handler handler;
+
+    HandlerDispatcher(Looper looper) {
+        this.threadName = null;
+        this.threadPriority = 0;
+        this.handler = new Handler(looper);
+    }
+
+    HandlerDispatcher(String threadName, int threadPriority) {
+        this.threadName = threadName;
+        this.threadPriority = threadPriority;
+    }
+
+    @Override
+    public void dispatch(Runnable task) {
+        getHandler().post(task);
+    }
+
+    @Override
+    public void dispatchAt(Runnable task, long uptimeMillis) {
+        getHandler().postAtTime(task, uptimeMillis);
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+        getHandler().removeCallbacks(task);
+    }
+
+    private synchronized Handler getHandler() {
+        if (handler == null) {
+            HandlerThread thread = new HandlerThread(threadName, threadPriority);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+
+        return handler;
+    }
+}
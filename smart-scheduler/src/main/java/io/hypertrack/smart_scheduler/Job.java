@@ -10,16 +10,34 @@ public class Job {
      */
     private final int jobId;
     private final int jobType;
+    private final boolean defaultJobType;
     private final SmartScheduler.JobScheduledCallback jobScheduledCallback;
     private final int networkType;
+    private final boolean requiresCharging;
     private final boolean isPeriodic;
     private final long intervalMillis;
     private final long initialDelayInMillis;
     private final Long flexInMillis;
+    private final int executionPolicy;
+    private final int periodicMode;
+    private final int catchUpPolicy;
+    private final int priority;
+    private final Long deadlineInMillis;
+    private final int overlapPolicy;
+    private final int retryMaxAttempts;
+    private final long retryBaseDelayInMillis;
+    private final long retryMaxDelayInMillis;
+    private final Long executionTimeoutInMillis;
+    private final String coalescingKey;
+    private final int coalescingPolicy;
 
     // Threshold to schedule via Handlers
     protected static final long JOB_TYPE_HANDLER_THRESHOLD = 60000;
 
+    // Default retry delays, used once a retry policy is set with max attempts only
+    static final long DEFAULT_RETRY_BASE_DELAY_MILLIS = 30000;
+    static final long DEFAULT_RETRY_MAX_DELAY_MILLIS = 5 * 60 * 60 * 1000;
+
     /**
      * Network Types
      */
@@ -38,6 +56,130 @@ public class Job {
         public static final int NETWORK_TYPE_UNMETERED = 1;
     }
 
+    /**
+     * Execution Policies, i.e. the thread a job's callback is run on
+     */
+    public abstract class ExecutionPolicy {
+        /**
+         * Default, use the policy set via {@link SmartScheduler#setDefaultExecutionPolicy(int)}
+         */
+        public static final int EXECUTION_POLICY_DEFAULT = 0;
+        /**
+         * Run the callback on the Looper the job was added from for Handler type jobs, or on the
+         * thread receiving the alarm for Alarm type jobs. Use this only for callbacks which return
+         * right away.
+         */
+        public static final int EXECUTION_POLICY_INLINE = 1;
+        /**
+         * Run the callback on a worker pool shared by all jobs, bounded by the number of cores
+         */
+        public static final int EXECUTION_POLICY_POOL = 2;
+        /**
+         * Run the callback on the shared worker pool, but never concurrently with another run of a
+         * job with the same jobID
+         */
+        public static final int EXECUTION_POLICY_SERIAL = 3;
+    }
+
+    /**
+     * Periodic Modes, i.e. what the next occurrence of a periodic job is measured from
+     */
+    public abstract class PeriodicMode {
+        /**
+         * Occurrences are due at fixed multiples of the interval after the first one, so that
+         * neither late fires nor callback time accumulate as drift
+         */
+        public static final int PERIODIC_MODE_FIXED_RATE = 0;
+        /**
+         * Default, the next occurrence is due one interval after the callback of the previous one
+         * has returned
+         */
+        public static final int PERIODIC_MODE_FIXED_DELAY = 1;
+    }
+
+    /**
+     * Catch-up Policies, i.e. how occurrences of a fixed rate job are handled once the job has
+     * fired so late that later occurrences are due as well. Jobs restored after a process restart
+     * always resume at their next occurrence.
+     */
+    public abstract class CatchUpPolicy {
+        /**
+         * Default, fire once for all missed occurrences and resume at the next one due
+         */
+        public static final int CATCH_UP_POLICY_FIRE_ONCE = 0;
+        /**
+         * Fire every missed occurrence, one after another
+         */
+        public static final int CATCH_UP_POLICY_FIRE_ALL = 1;
+        /**
+         * Don't fire missed occurrences at all and resume at the next one due
+         */
+        public static final int CATCH_UP_POLICY_SKIP = 2;
+    }
+
+    /**
+     * Overlap Policies, i.e. what happens when a fixed rate job is due while a previous run of it is
+     * still queued or running. A fixed delay job is never due before its previous run has ended. A run ends once the job's callback has returned, or for an
+     * {@link SmartScheduler.AsyncJobScheduledCallback} once its {@link JobRun} has been completed.
+     */
+    public abstract class OverlapPolicy {
+        /**
+         * Default, skip the occurrence
+         */
+        public static final int OVERLAP_POLICY_SKIP = 0;
+        /**
+         * Run the occurrence once the previous run has ended. Further occurrences due in the
+         * meantime are skipped, so that at most one run is queued.
+         */
+        public static final int OVERLAP_POLICY_QUEUE_ONE = 1;
+        /**
+         * Run the occurrence right away, concurrently with the previous run. Use this only for
+         * jobs run on the worker pool whose callback is safe to be called concurrently.
+         */
+        public static final int OVERLAP_POLICY_ALLOW_CONCURRENT = 2;
+    }
+
+    /**
+     * Coalescing Policies, i.e. what happens when a one time job is added while a job with the
+     * same coalescing key is pending. The pending run keeps its due time in any case.
+     */
+    public abstract class CoalescingPolicy {
+        /**
+         * Default, keep the pending job and drop the added one
+         */
+        public static final int COALESCING_POLICY_KEEP_EARLIEST = 0;
+        /**
+         * Run the added job in place of the pending one, at the pending job's due time. The
+         * pending job is removed, unless it has the same JobID.
+         */
+        public static final int COALESCING_POLICY_KEEP_LATEST = 1;
+        /**
+         * Run the added job with a callback merged from both jobs' callbacks in place of the
+         * pending one, see {@link SmartScheduler.MergeableJobScheduledCallback}. Jobs whose
+         * callbacks can't be merged are coalesced as per {@link #COALESCING_POLICY_KEEP_LATEST}.
+         */
+        public static final int COALESCING_POLICY_MERGE = 2;
+    }
+
+    /**
+     * Priorities, i.e. the order in which jobs due with the same deadline are run. Any value in
+     * between may be used as well, higher priorities are run first.
+     */
+    public abstract class Priority {
+        /**
+         * Run after jobs of the default priority, e.g. for bulk housekeeping jobs
+         */
+        public static final int PRIORITY_LOW = -100;
+        /**
+         * Default
+         */
+        public static final int PRIORITY_DEFAULT = 0;
+        /**
+         * Run before jobs of the default priority, e.g. for latency critical jobs
+         */
+        public static final int PRIORITY_HIGH = 100;
+    }
+
     /**
      * Job Types
      */
@@ -86,6 +228,14 @@ public class Job {
         return jobType;
     }
 
+    /**
+     * @return Returns true in case the type of the job was not set but picked by the builder from
+     * the job's interval, in which case the SmartScheduler may place the job on either backend
+     */
+    boolean hasDefaultJobType() {
+        return defaultJobType;
+    }
+
     /**
      * Name of the callback class that will be called when Job is scheduled by the SmartScheduler.
      *
@@ -106,6 +256,15 @@ public class Job {
         return networkType;
     }
 
+    /**
+     * Track whether this job requires the device to be charging.
+     *
+     * @return Returns if the job requiresCharging
+     */
+    public boolean getRequiresCharging() {
+        return requiresCharging;
+    }
+
     /**
      * Track whether this job will repeat with a given period.
      *
@@ -146,15 +305,188 @@ public class Job {
         return flexInMillis;
     }
 
+    /**
+     * One of {@link Job.ExecutionPolicy#EXECUTION_POLICY_DEFAULT},
+     * {@link Job.ExecutionPolicy#EXECUTION_POLICY_INLINE},
+     * {@link Job.ExecutionPolicy#EXECUTION_POLICY_POOL}, or
+     * {@link Job.ExecutionPolicy#EXECUTION_POLICY_SERIAL}.
+     *
+     * @return Returns the ExecutionPolicy assigned to the job
+     */
+    public int getExecutionPolicy() {
+        return executionPolicy;
+    }
+
+    /**
+     * One of {@link Job.PeriodicMode#PERIODIC_MODE_FIXED_RATE}, or
+     * {@link Job.PeriodicMode#PERIODIC_MODE_FIXED_DELAY}.
+     *
+     * @return Returns the PeriodicMode assigned to the job
+     */
+    public int getPeriodicMode() {
+        return periodicMode;
+    }
+
+    /**
+     * One of {@link Job.CatchUpPolicy#CATCH_UP_POLICY_FIRE_ONCE},
+     * {@link Job.CatchUpPolicy#CATCH_UP_POLICY_FIRE_ALL}, or
+     * {@link Job.CatchUpPolicy#CATCH_UP_POLICY_SKIP}.
+     *
+     * @return Returns the CatchUpPolicy assigned to the job
+     */
+    public int getCatchUpPolicy() {
+        return catchUpPolicy;
+    }
+
+    /**
+     * The priority of the job among jobs due with the same deadline, see {@link Job.Priority}.
+     *
+     * @return Returns the Priority assigned to the job
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * The Deadline for the job (how soon after it is due the job's callback is supposed to be
+     * called). This value is <b>not</b> set if the job has no deadline.
+     *
+     * @return Returns the Deadline (in millis) assigned to the job
+     */
+    public Long getDeadlineInMillis() {
+        return deadlineInMillis;
+    }
+
+    /**
+     * One of {@link Job.OverlapPolicy#OVERLAP_POLICY_SKIP},
+     * {@link Job.OverlapPolicy#OVERLAP_POLICY_QUEUE_ONE}, or
+     * {@link Job.OverlapPolicy#OVERLAP_POLICY_ALLOW_CONCURRENT}.
+     *
+     * @return Returns the OverlapPolicy assigned to the job
+     */
+    public int getOverlapPolicy() {
+        return overlapPolicy;
+    }
+
+    /**
+     * The maximum number of runs of an occurrence of the job, including the first one. A value
+     * of 1 means failed runs are not retried.
+     *
+     * @return Returns the Retry Max Attempts assigned to the job
+     */
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    /**
+     * The delay before the first retry of a failed run, doubled for each further retry.
+     *
+     * @return Returns the Retry Base Delay (in millis) assigned to the job
+     */
+    public long getRetryBaseDelayInMillis() {
+        return retryBaseDelayInMillis;
+    }
+
+    /**
+     * The upper bound for the delay before a retry of a failed run.
+     *
+     * @return Returns the Retry Max Delay (in millis) assigned to the job
+     */
+    public long getRetryMaxDelayInMillis() {
+        return retryMaxDelayInMillis;
+    }
+
+    /**
+     * The Execution Timeout for the job (how long a run of the job may take before it is ended
+     * as failed). This value is <b>not</b> set if the job's runs may take any time.
+     *
+     * @return Returns the Execution Timeout (in millis) assigned to the job
+     */
+    public Long getExecutionTimeoutInMillis() {
+        return executionTimeoutInMillis;
+    }
+
+    /**
+     * The Coalescing Key for the job (which logical work the job does). This value is <b>not</b>
+     * set if the job is never coalesced with other jobs.
+     *
+     * @return Returns the Coalescing Key assigned to the job
+     */
+    public String getCoalescingKey() {
+        return coalescingKey;
+    }
+
+    /**
+     * One of {@link Job.CoalescingPolicy#COALESCING_POLICY_KEEP_EARLIEST},
+     * {@link Job.CoalescingPolicy#COALESCING_POLICY_KEEP_LATEST}, or
+     * {@link Job.CoalescingPolicy#COALESCING_POLICY_MERGE}.
+     *
+     * @return Returns the CoalescingPolicy assigned to the job
+     */
+    public int getCoalescingPolicy() {
+        return coalescingPolicy;
+    }
+
     private Job(Job.Builder b) {
         jobId = b.mJobId;
         jobType = b.mJobType;
+        defaultJobType = b.mDefaultJobType;
         jobScheduledCallback = b.mJobScheduledCallback;
         networkType = b.mNetworkType;
+        requiresCharging = b.mRequiresCharging;
         isPeriodic = b.mIsPeriodic;
         intervalMillis = b.mIntervalMillis;
         initialDelayInMillis = b.mInitialDelayInMillis;
         flexInMillis = b.mFlexInMillis;
+        executionPolicy = b.mExecutionPolicy;
+        periodicMode = b.mPeriodicMode;
+        catchUpPolicy = b.mCatchUpPolicy;
+        priority = b.mPriority;
+        deadlineInMillis = b.mDeadlineInMillis;
+        overlapPolicy = b.mOverlapPolicy;
+        retryMaxAttempts = b.mRetryMaxAttempts;
+        retryBaseDelayInMillis = b.mRetryBaseDelayInMillis;
+        retryMaxDelayInMillis = b.mRetryMaxDelayInMillis;
+        executionTimeoutInMillis = b.mExecutionTimeoutInMillis;
+        coalescingKey = b.mCoalescingKey;
+        coalescingPolicy = b.mCoalescingPolicy;
+    }
+
+    /**
+     * Creates a copy of the given job with another callback, e.g. one merged from the callbacks
+     * of coalesced jobs
+     */
+    private Job(Job job, SmartScheduler.JobScheduledCallback callback) {
+        jobId = job.jobId;
+        jobType = job.jobType;
+        defaultJobType = job.defaultJobType;
+        jobScheduledCallback = callback;
+        networkType = job.networkType;
+        requiresCharging = job.requiresCharging;
+        isPeriodic = job.isPeriodic;
+        intervalMillis = job.intervalMillis;
+        initialDelayInMillis = job.initialDelayInMillis;
+        flexInMillis = job.flexInMillis;
+        executionPolicy = job.executionPolicy;
+        periodicMode = job.periodicMode;
+        catchUpPolicy = job.catchUpPolicy;
+        priority = job.priority;
+        deadlineInMillis = job.deadlineInMillis;
+        overlapPolicy = job.overlapPolicy;
+        retryMaxAttempts = job.retryMaxAttempts;
+        retryBaseDelayInMillis = job.retryBaseDelayInMillis;
+        retryMaxDelayInMillis = job.retryMaxDelayInMillis;
+        executionTimeoutInMillis = job.executionTimeoutInMillis;
+        coalescingKey = job.coalescingKey;
+        coalescingPolicy = job.coalescingPolicy;
+    }
+
+    /**
+     * @param callback Callback to be called in place of the job's callback
+     * @return Returns a copy of this job with the given callback
+     */
+    Job withJobScheduledCallback(SmartScheduler.JobScheduledCallback callback) {
+        return new Job(this, callback);
     }
 
     /**
@@ -163,9 +495,11 @@ public class Job {
     public static final class Builder {
         private int mJobId;
         private int mJobType = Job.Type.JOB_TYPE_NONE;
+        private boolean mDefaultJobType;
         private SmartScheduler.JobScheduledCallback mJobScheduledCallback;
 
         private int mNetworkType = Job.NetworkType.NETWORK_TYPE_ANY;
+        private boolean mRequiresCharging = false;
 
         // Time interval parameter.Nullable
         private long mIntervalMillis = 60000;
@@ -176,6 +510,27 @@ public class Job {
 
         private Long mFlexInMillis = null;
 
+        private int mExecutionPolicy = Job.ExecutionPolicy.EXECUTION_POLICY_DEFAULT;
+
+        private int mPeriodicMode = Job.PeriodicMode.PERIODIC_MODE_FIXED_DELAY;
+        private int mCatchUpPolicy = Job.CatchUpPolicy.CATCH_UP_POLICY_FIRE_ONCE;
+
+        private int mPriority = Job.Priority.PRIORITY_DEFAULT;
+        private Long mDeadlineInMillis = null;
+
+        private int mOverlapPolicy = Job.OverlapPolicy.OVERLAP_POLICY_SKIP;
+
+        // Retry parameters.
+        private int mRetryMaxAttempts = 1;
+        private long mRetryBaseDelayInMillis = DEFAULT_RETRY_BASE_DELAY_MILLIS;
+        private long mRetryMaxDelayInMillis = DEFAULT_RETRY_MAX_DELAY_MILLIS;
+
+        private Long mExecutionTimeoutInMillis = null;
+
+        // Coalescing parameters.
+        private String mCoalescingKey = null;
+        private int mCoalescingPolicy = Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST;
+
         /**
          * @param jobScheduledCallback The endpoint that you implement that will receive the callback from the
          *                             SmartScheduler.
@@ -227,7 +582,7 @@ public class Job {
          * Not calling this function means the network is not necessary, as the default is
          * {@link Job.NetworkType#NETWORK_TYPE_ANY}.
          * Bear in mind that calling this function defines network as a strict requirement for your
-         * job. If the network requested is not available your job will never run.
+         * job. If the network requested is not available your job will wait till it is.
          *
          * @param networkType NetworkType to be set for the job.
          * @return Returns the Builder class for currently configured Job params
@@ -237,6 +592,185 @@ public class Job {
             return this;
         }
 
+        /**
+         * Specify that to run this job, the device needs to be plugged in. Defaults to false.
+         * A job whose requirements are not met when it is due is run as soon as they are met.
+         *
+         * @param requiresCharging Whether or not the device needs to be plugged in.
+         * @return Returns the Builder class for currently configured Job params
+         */
+        public Builder setRequiresCharging(boolean requiresCharging) {
+            mRequiresCharging = requiresCharging;
+            return this;
+        }
+
+        /**
+         * Set the thread the job's callback is run on. Not calling this function means the policy
+         * set on the SmartScheduler is used, as the default is
+         * {@link Job.ExecutionPolicy#EXECUTION_POLICY_DEFAULT}.
+         *
+         * @param executionPolicy ExecutionPolicy to be set for the job.
+         * @return Returns the Builder class for currently configured Job params
+         */
+        public Builder setExecutionPolicy(int executionPolicy) {
+            mExecutionPolicy = executionPolicy;
+            return this;
+        }
+
+        /**
+         * Set what the next occurrence of a periodic job is measured from. Not calling this
+         * function means the next occurrence is due one interval after the previous callback has
+         * returned, as the default is {@link Job.PeriodicMode#PERIODIC_MODE_FIXED_DELAY}.
+         *
+         * @param periodicMode PeriodicMode to be set for the job.
+         * @return Returns the Builder class for currently configured Job params
+         */
+        public Builder setPeriodicMode(int periodicMode) {
+            mPeriodicMode = periodicMode;
+            return this;
+        }
+
+        /**
+         * Set how missed occurrences of a fixed rate job are handled. Not calling this function
+         * means missed occurrences are fired once, as the default is
+         * {@link Job.CatchUpPolicy#CATCH_UP_POLICY_FIRE_ONCE}.
+         *
+         * @param catchUpPolicy CatchUpPolicy to be set for the job.
+         * @return Returns the Builder class for currently configured Job params
+         */
+        public Builder setCatchUpPolicy(int catchUpPolicy) {
+            mCatchUpPolicy = catchUpPolicy;
+            return this;
+        }
+
+        /**
+         * Set what happens when a fixed rate job is due while a previous run of it has not ended
+         * yet. Not calling this function means the occurrence is skipped, as the default is
+         * {@link Job.OverlapPolicy#OVERLAP_POLICY_SKIP}.
+         *
+         * @param overlapPolicy OverlapPolicy to be set for the job.
+         * @return Returns the Builder class for currently configured Job params
+         */
+        public Builder setOverlapPolicy(int overlapPolicy) {
+            mOverlapPolicy = overlapPolicy;
+            return this;
+        }
+
+        /**
+         * Specify that a failed run of this job should be retried, i.e. a run whose callback has
+         * thrown an exception or whose {@link JobRun} has been failed. The delay before the n-th
+         * retry is drawn at random between 0 and baseDelayInMillis * 2^(n-1), at most
+         * maxDelayInMillis, so that clients failing at the same time don't retry in lockstep.
+         * A one time job is removed only once a run has succeeded or all attempts have failed. A
+         * periodic job resumes at its next occurrence, retries due after that are dropped.
+         *
+         * @param maxAttempts       Maximum number of runs of an occurrence, including the first one.
+         * @param baseDelayInMillis Millisecond delay bound for the first retry.
+         * @param maxDelayInMillis  Millisecond upper bound for the delay of any retry.
+         * @return Returns the Builder class for currently configured Job params
+         * @throws IllegalArgumentException in case maxAttempts is less than 1, a delay is negative
+         *                                  or maxDelayInMillis is less than baseDelayInMillis
+         */
+        public Builder setRetryPolicy(int maxAttempts, long baseDelayInMillis, long maxDelayInMillis) {
+            if (maxAttempts < 1)
+                throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+
+            if (baseDelayInMillis < 0 || maxDelayInMillis < 0)
+                throw new IllegalArgumentException("Retry delays must not be negative");
+
+            if (maxDelayInMillis < baseDelayInMillis)
+                throw new IllegalArgumentException("maxDelayInMillis must not be less than baseDelayInMillis");
+
+            mRetryMaxAttempts = maxAttempts;
+            mRetryBaseDelayInMillis = baseDelayInMillis;
+            mRetryMaxDelayInMillis = maxDelayInMillis;
+            return this;
+        }
+
+        /**
+         * Specify that a failed run of this job should be retried with the default delays, i.e.
+         * starting at 30 seconds up to 5 hours. See {@link #setRetryPolicy(int, long, long)}.
+         *
+         * @param maxAttempts Maximum number of runs of an occurrence, including the first one.
+         * @return Returns the Builder class for currently configured Job params
+         * @throws IllegalArgumentException in case maxAttempts is less than 1
+         */
+        public Builder setRetryPolicy(int maxAttempts) {
+            return setRetryPolicy(maxAttempts, DEFAULT_RETRY_BASE_DELAY_MILLIS, DEFAULT_RETRY_MAX_DELAY_MILLIS);
+        }
+
+        /**
+         * Set how long a run of this job may take. Once a run exceeds it, the run is ended as
+         * failed and retried as per the job's retry policy. A callback run on the worker pool is
+         * interrupted, any other callback should stop once {@link JobRun#isCancelled()} returns
+         * true. Not calling this function means the job's runs may take any time.
+         *
+         * @param executionTimeoutInMillis Millisecond duration a run of the job may take.
+         * @return Returns the Builder class for currently configured Job params
+         * @throws IllegalArgumentException in case executionTimeoutInMillis is not positive
+         */
+        public Builder setExecutionTimeout(long executionTimeoutInMillis) {
+            if (executionTimeoutInMillis <= 0)
+                throw new IllegalArgumentException("executionTimeoutInMillis must be positive: " + executionTimeoutInMillis);
+
+            mExecutionTimeoutInMillis = executionTimeoutInMillis;
+            return this;
+        }
+
+        /**
+         * Set which logical work this one time job does, so that jobs added in a burst for the
+         * same work collapse into one pending run. Adding a job while a job with the same key is
+         * pending, i.e. scheduled and not fired yet, doesn't push the pending run later, the
+         * added job is coalesced as per its CoalescingPolicy instead. Ignored for periodic jobs.
+         *
+         * @param coalescingKey Key of the work done by the job.
+         * @return Returns the Builder class for currently configured Job params
+         */
+        public Builder setCoalescingKey(String coalescingKey) {
+            mCoalescingKey = coalescingKey;
+            return this;
+        }
+
+        /**
+         * Set how this job is coalesced into a pending job with the same coalescing key. Not
+         * calling this function means this job is dropped, as the default is
+         * {@link Job.CoalescingPolicy#COALESCING_POLICY_KEEP_EARLIEST}.
+         *
+         * @param coalescingPolicy CoalescingPolicy to be set for the job.
+         * @return Returns the Builder class for currently configured Job params
+         */
+        public Builder setCoalescingPolicy(int coalescingPolicy) {
+            mCoalescingPolicy = coalescingPolicy;
+            return this;
+        }
+
+        /**
+         * Set the priority of the job among jobs due with the same deadline, higher priorities
+         * are run first. Not calling this function means the job is run in the order it became
+         * due, as the default is {@link Job.Priority#PRIORITY_DEFAULT}.
+         *
+         * @param priority Priority to be set for the job.
+         * @return Returns the Builder class for currently configured Job params
+         */
+        public Builder setPriority(int priority) {
+            mPriority = priority;
+            return this;
+        }
+
+        /**
+         * Specify how soon after it is due the job's callback has to be called. Whenever several
+         * jobs are due at once, e.g. after an alarm wakeup or once the device is connected again,
+         * they are run earliest deadline first. Jobs without a deadline are run after all jobs
+         * with one.
+         *
+         * @param deadlineInMillis Millisecond interval after the due time within which this job has to be run.
+         * @return Returns the Builder class for currently configured Job params
+         */
+        public Builder setDeadline(long deadlineInMillis) {
+            this.mDeadlineInMillis = deadlineInMillis;
+            return this;
+        }
+
         /**
          * Specify that this job should happen only once after the provided interval has elapsed.
          *
@@ -252,6 +786,8 @@ public class Job {
         /**
          * Specify that how close to the end of the period should this job be executed
          * in a recur with the provided interval, not more than once per period.
+         * The job may be fired this much earlier than it is due, so that it shares a wakeup with
+         * other jobs.
          *
          * @param flexInMillis Millisecond interval for which this job will repeat.
          * @return Returns the Builder class for currently configured Job params
@@ -295,6 +831,7 @@ public class Job {
          */
         public Job build() {
             if (mJobType == Job.Type.JOB_TYPE_NONE) {
+                mDefaultJobType = true;
 
                 // Schedule via Handlers if mIntervalMillis is less than JOB_TYPE_HANDLER_THRESHOLD
                 if (mIntervalMillis < JOB_TYPE_HANDLER_THRESHOLD) {
@@ -313,12 +850,26 @@ public class Job {
         return "Job{" +
                 "jobId=" + jobId +
                 ", jobType=" + jobType +
+                ", defaultJobType=" + defaultJobType +
                 ", jobScheduledCallback=" + (jobScheduledCallback != null ? jobScheduledCallback : " null") +
                 ", networkType=" + networkType +
+                ", requiresCharging=" + requiresCharging +
                 ", isPeriodic=" + isPeriodic +
                 ", intervalMillis=" + intervalMillis +
                 ", initialDelayInMillis=" + initialDelayInMillis +
                 ", flexInMillis=" + (flexInMillis != null ? flexInMillis : " null") +
+                ", executionPolicy=" + executionPolicy +
+                ", periodicMode=" + periodicMode +
+                ", catchUpPolicy=" + catchUpPolicy +
+                ", priority=" + priority +
+                ", deadlineInMillis=" + (deadlineInMillis != null ? deadlineInMillis : " null") +
+                ", overlapPolicy=" + overlapPolicy +
+                ", retryMaxAttempts=" + retryMaxAttempts +
+                ", retryBaseDelayInMillis=" + retryBaseDelayInMillis +
+                ", retryMaxDelayInMillis=" + retryMaxDelayInMillis +
+                ", executionTimeoutInMillis=" + (executionTimeoutInMillis != null ? executionTimeoutInMillis : " null") +
+                ", coalescingKey=" + (coalescingKey != null ? coalescingKey : " null") +
+                ", coalescingPolicy=" + coalescingPolicy +
                 '}';
     }
 
@@ -331,10 +882,27 @@ public class Job {
 
         if (jobId != job.jobId) return false;
         if (jobType != job.jobType) return false;
+        if (defaultJobType != job.defaultJobType) return false;
         if (networkType != job.networkType) return false;
+        if (requiresCharging != job.requiresCharging) return false;
         if (isPeriodic != job.isPeriodic) return false;
         if (intervalMillis != job.intervalMillis) return false;
         if (initialDelayInMillis != job.initialDelayInMillis) return false;
+        if (executionPolicy != job.executionPolicy) return false;
+        if (periodicMode != job.periodicMode) return false;
+        if (catchUpPolicy != job.catchUpPolicy) return false;
+        if (priority != job.priority) return false;
+        if (overlapPolicy != job.overlapPolicy) return false;
+        if (retryMaxAttempts != job.retryMaxAttempts) return false;
+        if (retryBaseDelayInMillis != job.retryBaseDelayInMillis) return false;
+        if (retryMaxDelayInMillis != job.retryMaxDelayInMillis) return false;
+        if (coalescingPolicy != job.coalescingPolicy) return false;
+        if (deadlineInMillis != null ? !deadlineInMillis.equals(job.deadlineInMillis) : job.deadlineInMillis != null)
+            return false;
+        if (executionTimeoutInMillis != null ? !executionTimeoutInMillis.equals(job.executionTimeoutInMillis) : job.executionTimeoutInMillis != null)
+            return false;
+        if (coalescingKey != null ? !coalescingKey.equals(job.coalescingKey) : job.coalescingKey != null)
+            return false;
         if (!jobScheduledCallback.equals(job.jobScheduledCallback)) return false;
         return true;
     }
@@ -343,11 +911,25 @@ public class Job {
     public int hashCode() {
         int result = jobId;
         result = 31 * result + jobType;
+        result = 31 * result + (defaultJobType ? 1 : 0);
         result = 31 * result + jobScheduledCallback.hashCode();
         result = 31 * result + networkType;
+        result = 31 * result + (requiresCharging ? 1 : 0);
         result = 31 * result + (isPeriodic ? 1 : 0);
         result = 31 * result + (int) (intervalMillis ^ (intervalMillis >>> 32));
         result = 31 * result + (int) (initialDelayInMillis ^ (initialDelayInMillis >>> 32));
+        result = 31 * result + executionPolicy;
+        result = 31 * result + periodicMode;
+        result = 31 * result + catchUpPolicy;
+        result = 31 * result + priority;
+        result = 31 * result + (deadlineInMillis != null ? deadlineInMillis.hashCode() : 0);
+        result = 31 * result + overlapPolicy;
+        result = 31 * result + retryMaxAttempts;
+        result = 31 * result + (int) (retryBaseDelayInMillis ^ (retryBaseDelayInMillis >>> 32));
+        result = 31 * result + (int) (retryMaxDelayInMillis ^ (retryMaxDelayInMillis >>> 32));
+        result = 31 * result + (executionTimeoutInMillis != null ? executionTimeoutInMillis.hashCode() : 0);
+        result = 31 * result + (coalescingKey != null ? coalescingKey.hashCode() : 0);
+        result = 31 * result + coalescingPolicy;
         return result;
     }
 }
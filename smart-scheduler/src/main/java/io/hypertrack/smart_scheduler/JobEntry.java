@@ -0,0 +1,187 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Single record kept by the {@link JobRegistry} for each scheduled job. Adding, removing and
+ * firing a job race through CAS transitions on its state instead of a shared lock. The state also
+ * tracks the runs of the job in flight, as per the job's {@link Job.OverlapPolicy}.
+ */
+final class JobEntry {
+
+    /**
+     * Job is armed on its backend and waiting to fire
+     */
+    static final int STATE_SCHEDULED = 0;
+    /**
+     * Job is queued on its executor or being fired right now. Higher states count the further
+     * runs in flight, i.e. the queued run for {@link Job.OverlapPolicy#OVERLAP_POLICY_QUEUE_ONE}
+     * or the concurrent runs for {@link Job.OverlapPolicy#OVERLAP_POLICY_ALLOW_CONCURRENT}.
+     */
+    static final int STATE_FIRING = 1;
+    /**
+     * Job has been removed, replaced or has completed. This state is final.
+     */
+    static final int STATE_CANCELLED = -1;
+
+    // Results of startRun()
+    static final int RUN_STARTED = 0;
+    static final int RUN_QUEUED = 1;
+    static final int RUN_SKIPPED = 2;
+
+    // Results of endRun()
+    static final int END_IDLE = 0;
+    static final int END_QUEUED_RUN_STARTED = 1;
+    static final int END_RUNS_IN_FLIGHT = 2;
+    static final int END_CANCELLED = 3;
+
+    final Job job;
+
+    // Executor the job's callback is run on, null to run it on the thread firing the job
+    final Executor executor;
+
+    // Metrics of the job, see MetricsRecorder
+    final AtomicLongArray stats = new AtomicLongArray(MetricsRecorder.JOB_STAT_COUNT);
+
+    // Backend specific handle, i.e. the timing wheel timeout or the alarm queue entry of the job
+    volatile Object dispatchHandle;
+
+    // Task of the occurrence being fired, kept while the job is parked so that it keeps its place in the ready order
+    volatile ReadyTask readyTask;
+
+    // Number of failed runs of the current occurrence, reset once a run succeeds or is not retried
+    volatile int failedAttempts;
+
+    // Task of the occurrence queued behind the current run, see Job.OverlapPolicy#OVERLAP_POLICY_QUEUE_ONE
+    volatile ReadyTask queuedTask;
+
+    // Links the job to the rest of its JobGraph, null if the job was not added via a JobGraph
+    volatile JobGraphNode graphNode;
+
+    // Backend picked for the job's next occurrence by the PlacementPlanner, JOB_TYPE_NONE if not placed
+    volatile int placedBackendType = Job.Type.JOB_TYPE_NONE;
+
+    private final AtomicInteger state = new AtomicInteger(STATE_SCHEDULED);
+
+    // Runs of the job whose callback has been called and which have not ended yet, allocated on
+    // the first run and guarded by this
+    private ArrayList<JobRun> runs;
+
+    JobEntry(Job job, Executor executor) {
+        this.job = job;
+        this.executor = executor;
+    }
+
+    int getState() {
+        return state.get();
+    }
+
+    boolean compareAndSetState(int expect, int update) {
+        return state.compareAndSet(expect, update);
+    }
+
+    /**
+     * Method to start a run of the job as per its overlap policy
+     *
+     * @return Returns {@link #RUN_STARTED} in case the run may start right away, {@link #RUN_QUEUED}
+     * in case it has to wait for the current run to end, {@link #RUN_SKIPPED} otherwise
+     */
+    int startRun() {
+        int overlapPolicy = job.getOverlapPolicy();
+        while (true) {
+            int current = state.get();
+            int result;
+            if (current == STATE_SCHEDULED) {
+                result = RUN_STARTED;
+            } else if (current >= STATE_FIRING && overlapPolicy == Job.OverlapPolicy.OVERLAP_POLICY_ALLOW_CONCURRENT) {
+                result = RUN_STARTED;
+            } else if (current == STATE_FIRING && overlapPolicy == Job.OverlapPolicy.OVERLAP_POLICY_QUEUE_ONE) {
+                result = RUN_QUEUED;
+            } else {
+                return RUN_SKIPPED;
+            }
+
+            if (state.compareAndSet(current, current + 1))
+                return result;
+        }
+    }
+
+    /**
+     * Method to end a run of the job
+     *
+     * @return Returns {@link #END_IDLE} in case no run is in flight anymore, {@link #END_QUEUED_RUN_STARTED}
+     * in case the queued run has to be started now, {@link #END_RUNS_IN_FLIGHT} in case concurrent
+     * runs are still in flight, or {@link #END_CANCELLED} in case the entry has been cancelled
+     */
+    int endRun() {
+        while (true) {
+            int current = state.get();
+            if (current == STATE_CANCELLED)
+                return END_CANCELLED;
+
+            if (current == STATE_SCHEDULED)
+                return END_IDLE;
+
+            if (state.compareAndSet(current, current - 1)) {
+                if (current == STATE_FIRING)
+                    return END_IDLE;
+
+                return job.getOverlapPolicy() == Job.OverlapPolicy.OVERLAP_POLICY_QUEUE_ONE
+                        ? END_QUEUED_RUN_STARTED : END_RUNS_IN_FLIGHT;
+            }
+        }
+    }
+
+    /**
+     * @return Returns the number of runs of the job which are queued or running right now
+     */
+    int getRunCount() {
+        int current = state.get();
+        return current > STATE_SCHEDULED ? current : 0;
+    }
+
+    synchronized void addRun(JobRun run) {
+        if (runs == null) {
+            runs = new ArrayList<>(1);
+        }
+        runs.add(run);
+    }
+
+    synchronized void removeRun(JobRun run) {
+        if (runs != null) {
+            runs.remove(run);
+        }
+    }
+
+    /**
+     * @return Returns a copy of the runs of the job whose callback has been called and which
+     * have not ended yet
+     */
+    synchronized List<JobRun> getRuns() {
+        return runs == null ? new ArrayList<JobRun>() : new ArrayList<>(runs);
+    }
+
+    /**
+     * Method to move the entry to its final state
+     *
+     * @return Returns true in case this call cancelled the entry, false if it was cancelled already
+     */
+    boolean cancel() {
+        while (true) {
+            int current = state.get();
+            if (current == STATE_CANCELLED)
+                return false;
+
+            if (state.compareAndSet(current, STATE_CANCELLED))
+                return true;
+        }
+    }
+
+    boolean isCancelled() {
+        return state.get() == STATE_CANCELLED;
+    }
+}
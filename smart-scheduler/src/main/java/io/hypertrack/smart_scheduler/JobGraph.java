@@ -0,0 +1,141 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set of jobs with dependencies between them, scheduled as one unit via
+ * {@link SmartScheduler#addJobGraph(JobGraph)}. Jobs without prerequisites are scheduled as per
+ * their own timing. Any other job is run the moment each of its prerequisites has completed a
+ * run since its own last run, on the worker pool, so that independent branches run in parallel.
+ * Jobs need to be added after their prerequisites, so that a graph can never have a cycle.
+ */
+public final class JobGraph {
+
+    private final List<Job> jobs;
+    private final HashMap<Integer, int[]> prerequisiteJobIds;
+    private final HashMap<Integer, int[]> dependentJobIds;
+
+    private JobGraph(JobGraph.Builder b) {
+        jobs = Collections.unmodifiableList(new ArrayList<>(b.mJobs));
+        prerequisiteJobIds = new HashMap<>(b.mPrerequisiteJobIds);
+
+        // Reverse the edges once, prerequisites are added to the graph before their dependents
+        HashMap<Integer, List<Integer>> dependents = new HashMap<>();
+        for (Job job : jobs) {
+            dependents.put(job.getJobId(), new ArrayList<Integer>());
+            for (int prerequisiteJobId : prerequisiteJobIds.get(job.getJobId())) {
+                dependents.get(prerequisiteJobId).add(job.getJobId());
+            }
+        }
+
+        dependentJobIds = new HashMap<>();
+        for (Map.Entry<Integer, List<Integer>> entry : dependents.entrySet()) {
+            List<Integer> jobIds = entry.getValue();
+            int[] array = new int[jobIds.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = jobIds.get(i);
+            }
+            dependentJobIds.put(entry.getKey(), array);
+        }
+    }
+
+    /**
+     * @return Returns the jobs of the graph, each one following its prerequisites
+     */
+    public List<Job> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * @param jobId JobID of a job of the graph
+     * @return Returns the JobIDs of the jobs whose runs need to complete before the given job is
+     * run, an empty array in case it has none or is not part of the graph
+     */
+    public int[] getPrerequisiteJobIds(int jobId) {
+        int[] jobIds = prerequisiteJobIds.get(jobId);
+        return jobIds != null ? jobIds.clone() : new int[0];
+    }
+
+    /**
+     * @param jobId JobID of a job of the graph
+     * @return Returns the JobIDs of the jobs which have the given job as a prerequisite, in the
+     * order they were added to the graph, an empty array in case it has none or is not part of the graph
+     */
+    int[] getDependentJobIds(int jobId) {
+        int[] jobIds = dependentJobIds.get(jobId);
+        return jobIds != null ? jobIds.clone() : new int[0];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("JobGraph{");
+        for (int i = 0; i < jobs.size(); i++) {
+            int jobId = jobs.get(i).getJobId();
+            builder.append(i > 0 ? ", " : "").append(jobId);
+            int[] jobIds = prerequisiteJobIds.get(jobId);
+            for (int j = 0; j < jobIds.length; j++) {
+                builder.append(j > 0 ? "," : "<-").append(jobIds[j]);
+            }
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Builder class for constructing {@link JobGraph} objects.
+     */
+    public static final class Builder {
+        private final List<Job> mJobs = new ArrayList<>();
+        private final HashMap<Integer, int[]> mPrerequisiteJobIds = new HashMap<>();
+
+        /**
+         * Add a job to the graph, which is run once each of the given prerequisites has completed
+         * a run. A job without prerequisites is scheduled as per its own timing, for any other
+         * job the timing, ExecutionPolicy INLINE and retry policy are ignored.
+         *
+         * @param job                Job to be added to the graph.
+         * @param prerequisiteJobIds JobIDs of jobs added to the graph before.
+         * @return Returns the Builder class for currently configured JobGraph params
+         * @throws IllegalArgumentException in case a job with the same JobID has been added
+         *                                  already or a prerequisite has not been added yet
+         */
+        public Builder addJob(Job job, int... prerequisiteJobIds) {
+            if (job == null)
+                throw new IllegalArgumentException("job must not be null");
+
+            if (mPrerequisiteJobIds.containsKey(job.getJobId()))
+                throw new IllegalArgumentException("Job " + job.getJobId() + " has been added already");
+
+            // Duplicate prerequisites are kept once, so that each of them needs to complete once
+            LinkedHashSet<Integer> jobIds = new LinkedHashSet<>();
+            for (int prerequisiteJobId : prerequisiteJobIds) {
+                if (!mPrerequisiteJobIds.containsKey(prerequisiteJobId))
+                    throw new IllegalArgumentException("Prerequisite " + prerequisiteJobId + " of job "
+                            + job.getJobId() + " needs to be added before it");
+
+                jobIds.add(prerequisiteJobId);
+            }
+
+            int[] uniqueJobIds = new int[jobIds.size()];
+            int index = 0;
+            for (int jobId : jobIds) {
+                uniqueJobIds[index++] = jobId;
+            }
+
+            mJobs.add(job);
+            mPrerequisiteJobIds.put(job.getJobId(), uniqueJobIds);
+            return this;
+        }
+
+        /**
+         * @return Returns the JobGraph with the jobs added so far
+         */
+        public JobGraph build() {
+            return new JobGraph(this);
+        }
+    }
+}
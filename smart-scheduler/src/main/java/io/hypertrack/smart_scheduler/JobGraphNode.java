@@ -0,0 +1,61 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.Arrays;
+
+/**
+ * Links the {@link JobEntry} of a job added via a {@link JobGraph} to the rest of its graph, and
+ * tracks which prerequisites of the job have completed a run since the job was last run.
+ */
+final class JobGraphNode {
+
+    // JobIDs of the jobs whose runs need to complete before this job is run
+    final int[] prerequisiteJobIds;
+
+    // JobIDs of the jobs which have this job as a prerequisite
+    final int[] dependentJobIds;
+
+    // Prerequisites which have completed a run since the job was last run, guarded by this
+    private final boolean[] completed;
+    private int completedCount;
+
+    JobGraphNode(int[] prerequisiteJobIds, int[] dependentJobIds) {
+        this.prerequisiteJobIds = prerequisiteJobIds;
+        this.dependentJobIds = dependentJobIds;
+        this.completed = new boolean[prerequisiteJobIds.length];
+    }
+
+    /**
+     * @return Returns true in case the job has no prerequisites, i.e. it is scheduled as per its own timing
+     */
+    boolean isRoot() {
+        return prerequisiteJobIds.length == 0;
+    }
+
+    /**
+     * Method to record that a prerequisite has completed a run. Further runs of the same
+     * prerequisite before the job is run count only once.
+     *
+     * @param jobId JobID of the prerequisite whose run has completed
+     * @return Returns true in case all prerequisites have completed now, so that the job has to
+     * be run, false otherwise
+     */
+    synchronized boolean onPrerequisiteCompleted(int jobId) {
+        int index = -1;
+        for (int i = 0; i < prerequisiteJobIds.length; i++) {
+            if (prerequisiteJobIds[i] == jobId) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0 || completed[index])
+            return false;
+
+        completed[index] = true;
+        if (++completedCount < completed.length)
+            return false;
+
+        Arrays.fill(completed, false);
+        completedCount = 0;
+        return true;
+    }
+}
@@ -0,0 +1,88 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map from jobIDs to {@link JobEntry} records, shared by all threads. Lookups never block, and
+ * adding, removing and firing a job race through CAS transitions on the state of its entry
+ * instead of a shared lock.
+ */
+final class JobRegistry {
+
+    private final ConcurrentHashMap<Integer, JobEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param jobId JobID for which the entry needs to be fetched
+     * @return Returns the entry for the given jobID, null if there is none
+     */
+    JobEntry get(int jobId) {
+        return entries.get(jobId);
+    }
+
+    /**
+     * Method to map the jobID to the given entry
+     *
+     * @param jobId JobID for which the entry needs to be set
+     * @param entry Entry which needs to be set
+     * @return Returns the entry previously mapped to the jobID, null if there was none
+     */
+    JobEntry put(int jobId, JobEntry entry) {
+        return entries.put(jobId, entry);
+    }
+
+    /**
+     * Method to map the jobID to the given entry, but only if no entry is mapped to it yet
+     *
+     * @param jobId JobID for which the entry needs to be set
+     * @param entry Entry which needs to be set
+     * @return Returns the entry mapped to the jobID already, null if the given entry has been set
+     */
+    JobEntry putIfAbsent(int jobId, JobEntry entry) {
+        return entries.putIfAbsent(jobId, entry);
+    }
+
+    /**
+     * Method to remove the entry for the given jobID
+     *
+     * @param jobId JobID for which the entry needs to be removed
+     * @return Returns the removed entry, null if there was none
+     */
+    JobEntry remove(int jobId) {
+        return entries.remove(jobId);
+    }
+
+    /**
+     * Method to remove the entry for the given jobID, but only if it is still mapped to the
+     * expected entry
+     *
+     * @param jobId    JobID for which the entry needs to be removed
+     * @param expected Entry which is expected to be mapped, null to remove any entry
+     * @return Returns the removed entry, null if nothing was removed
+     */
+    JobEntry remove(int jobId, JobEntry expected) {
+        if (expected == null)
+            return remove(jobId);
+
+        return entries.remove(jobId, expected) ? expected : null;
+    }
+
+    /**
+     * @return Returns the number of entries in the registry
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Method to take a weakly consistent snapshot of all entries. Entries added or removed while
+     * the snapshot is taken may or may not be part of it, but no entry is returned which was
+     * removed before the snapshot was started.
+     *
+     * @return Returns a list of all entries in the registry
+     */
+    List<JobEntry> values() {
+        return new ArrayList<>(entries.values());
+    }
+}
@@ -0,0 +1,221 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handle of a single run of a job. An {@link SmartScheduler.AsyncJobScheduledCallback} ends its
+ * run by calling {@link #complete()} or {@link #fail()}, any other run ends once its callback has
+ * returned. Until then, the run counts as in flight for the job's {@link Job.OverlapPolicy}.
+ * A run may also end by being cancelled, e.g. via {@link SmartScheduler#cancelJobRuns(int, boolean)},
+ * or once it exceeds the job's execution timeout. Only the first way a run ends counts, later
+ * calls are ignored.
+ */
+public final class JobRun implements Future<Void> {
+
+    /**
+     * Implement this listener to be notified once a run has ended.
+     */
+    interface Listener {
+        void onJobRunEnded(JobRun run, boolean failed);
+    }
+
+    private static final int STATE_RUNNING = 0;
+    private static final int STATE_COMPLETED = 1;
+    private static final int STATE_FAILED = 2;
+    private static final int STATE_CANCELLED = 3;
+    private static final int STATE_TIMED_OUT = 4;
+
+    final JobEntry entry;
+
+    // Uptime (in millis) at which the run has started
+    final long startTime;
+
+    // Task ending the run once it exceeds the job's execution timeout, null if the job has none
+    volatile Runnable watchdog;
+
+    private final Listener listener;
+    private final AtomicInteger state = new AtomicInteger(STATE_RUNNING);
+    private volatile Throwable failure;
+
+    // Thread running the callback which may be interrupted, guarded by this
+    private Thread runner;
+
+    JobRun(JobEntry entry, long startTime, Listener listener) {
+        this.entry = entry;
+        this.startTime = startTime;
+        this.listener = listener;
+    }
+
+    /**
+     * @return Returns the JobID of the job this run belongs to
+     */
+    public int getJobId() {
+        return entry.job.getJobId();
+    }
+
+    /**
+     * Method to end the run once the job's work has been done
+     */
+    public void complete() {
+        end(STATE_COMPLETED);
+    }
+
+    /**
+     * Method to end the run once the job's work has failed. The run is retried as per the job's
+     * retry policy.
+     */
+    public void fail() {
+        end(STATE_FAILED);
+    }
+
+    void fail(Throwable cause) {
+        failure = cause;
+        end(STATE_FAILED);
+    }
+
+    /**
+     * Method to end the run right away, without waiting for the job's work. Work of an
+     * {@link SmartScheduler.AsyncJobScheduledCallback} should check {@link #isCancelled()} and
+     * stop once it returns true.
+     *
+     * @param mayInterruptIfRunning Whether or not the thread running the job's callback should be
+     *                              interrupted, which is only done for callbacks run on the worker pool
+     * @return Returns true in case this call has ended the run, false if it has ended already
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!end(STATE_CANCELLED))
+            return false;
+
+        if (mayInterruptIfRunning) {
+            interruptRunner();
+        }
+        return true;
+    }
+
+    /**
+     * Method to end the run as failed once it has exceeded the job's execution timeout,
+     * interrupting its callback if possible
+     *
+     * @return Returns true in case this call has ended the run, false if it has ended already
+     */
+    boolean timeOut() {
+        if (!end(STATE_TIMED_OUT))
+            return false;
+
+        interruptRunner();
+        return true;
+    }
+
+    /**
+     * @return Returns true in case the run has been cancelled or has timed out, false otherwise
+     */
+    @Override
+    public boolean isCancelled() {
+        int current = state.get();
+        return current == STATE_CANCELLED || current == STATE_TIMED_OUT;
+    }
+
+    /**
+     * @return Returns true in case the run has exceeded the job's execution timeout, false otherwise
+     */
+    public boolean isTimedOut() {
+        return state.get() == STATE_TIMED_OUT;
+    }
+
+    /**
+     * @return Returns true in case the run has ended, false otherwise
+     */
+    @Override
+    public boolean isDone() {
+        return state.get() != STATE_RUNNING;
+    }
+
+    /**
+     * Method to wait till the run has ended. Never call this from the thread running the job.
+     *
+     * @return Returns null once the run has completed
+     * @throws ExecutionException    in case the run has failed
+     * @throws CancellationException in case the run has been cancelled or has timed out
+     */
+    @Override
+    public Void get() throws InterruptedException, ExecutionException {
+        synchronized (this) {
+            while (!isDone()) {
+                wait();
+            }
+        }
+        return getResult();
+    }
+
+    @Override
+    public Void get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this) {
+            while (!isDone()) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0)
+                    throw new TimeoutException();
+
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+            }
+        }
+        return getResult();
+    }
+
+    private Void getResult() throws ExecutionException {
+        switch (state.get()) {
+            case STATE_COMPLETED:
+                return null;
+
+            case STATE_FAILED:
+                throw new ExecutionException("Job " + getJobId() + " has failed", failure);
+
+            default:
+                throw new CancellationException("Job " + getJobId() + " has been cancelled");
+        }
+    }
+
+    /**
+     * Method to set the thread running the callback, so that it can be interrupted
+     */
+    synchronized void attachRunner(Thread thread) {
+        runner = thread;
+    }
+
+    /**
+     * Method to be called on the thread running the callback once it has returned. Clears any
+     * interrupt meant for this run, so that it doesn't hit the next task of the thread.
+     */
+    void detachRunner() {
+        synchronized (this) {
+            if (runner == null)
+                return;
+
+            runner = null;
+        }
+        Thread.interrupted();
+    }
+
+    private synchronized void interruptRunner() {
+        if (runner != null) {
+            runner.interrupt();
+        }
+    }
+
+    private boolean end(int endState) {
+        if (!state.compareAndSet(STATE_RUNNING, endState))
+            return false;
+
+        synchronized (this) {
+            notifyAll();
+        }
+        listener.onJobRunEnded(this, endState == STATE_FAILED || endState == STATE_TIMED_OUT);
+        return true;
+    }
+}
@@ -0,0 +1,591 @@
+package io.hypertrack.smart_scheduler;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of scheduled jobs in app-private storage. Every addJob appends a PUT record and
+ * every removeJob of a stored job appends a REMOVE record. Serialized callbacks are written once
+ * to a CALLBACK record and referenced by id from the PUT records. The log is compacted to the live
+ * records once it holds more than twice as many records as there are live jobs. Records appended
+ * between {@link #beginBatch()} and {@link #endBatch()} are written to the log in one go.
+ * <p>
+ * The log starts with the version of its format, a log of any other version is dropped. The fields
+ * of a PUT record following the callback id are kept in a length-prefixed extension block, so
+ * that fields added to its end are skipped by older readers.
+ * <p>
+ * Callbacks are stored with Java serialization, which ties a stored job to the class of its
+ * callback. A job is only restored as long as that class keeps its name and serialVersionUID,
+ * otherwise the job is dropped from the log.
+ */
+final class JobStore {
+
+    private static final String TAG = JobStore.class.getSimpleName();
+
+    static final String FILE_NAME = "smart_scheduler_jobs.log";
+
+    private static final int MAGIC = 0x53534a53;
+    private static final byte VERSION = 1;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_CALLBACK = 3;
+
+    private static final int FLAG_PERIODIC = 1;
+    private static final int FLAG_HAS_FLEX = 1 << 1;
+    private static final int FLAG_REQUIRES_CHARGING = 1 << 4;
+    private static final int FLAG_FIXED_DELAY = 1 << 5;
+
+    // Execution policy is kept in the two bits above the flags, so older records read as default
+    private static final int EXECUTION_POLICY_SHIFT = 2;
+    private static final int EXECUTION_POLICY_MASK = 3;
+
+    // Catch-up policy is kept in the two topmost bits of the flags
+    private static final int CATCH_UP_POLICY_SHIFT = 6;
+    private static final int CATCH_UP_POLICY_MASK = 3;
+
+    // Flags of the record extension following the callback id
+    private static final int EXTENSION_FLAG_HAS_DEADLINE = 1;
+    private static final int EXTENSION_FLAG_HAS_RETRY_POLICY = 1 << 3;
+    private static final int EXTENSION_FLAG_HAS_EXECUTION_TIMEOUT = 1 << 4;
+    private static final int EXTENSION_FLAG_HAS_COALESCING_KEY = 1 << 5;
+
+    // Overlap policy is kept in the two bits above the extension flags
+    private static final int OVERLAP_POLICY_SHIFT = 1;
+    private static final int OVERLAP_POLICY_MASK = 3;
+
+    // Coalescing policy is kept in the two topmost bits of the extension flags
+    private static final int COALESCING_POLICY_SHIFT = 6;
+    private static final int COALESCING_POLICY_MASK = 3;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Minimum number of stale records before the log is compacted
+    private static final int COMPACTION_MIN_STALE_RECORDS = 64;
+
+    // Upper bound for a single record, anything larger is treated as a corrupt log
+    private static final int MAX_RECORD_LENGTH = 1024 * 1024;
+
+    /**
+     * Job restored from the log along with the wall clock time (in millis) of its first occurrence.
+     */
+    static final class StoredJob {
+        final Job job;
+        final long firstFireTime;
+
+        StoredJob(Job job, long firstFireTime) {
+            this.job = job;
+            this.firstFireTime = firstFireTime;
+        }
+    }
+
+    private final File file;
+
+    // Encoded PUT record for each stored jobID, used to compact the log without re-encoding jobs
+    private final LinkedHashMap<Integer, byte[]> liveRecords = new LinkedHashMap<>();
+
+    // Serialized callbacks by id and the other way round
+    private final HashMap<Integer, byte[]> callbackRecords = new HashMap<>();
+    private final HashMap<CallbackKey, Integer> callbackIds = new HashMap<>();
+    private int nextCallbackId;
+
+    private int recordCount;
+    private DataOutputStream out;
+
+    // Records appended within a batch are written with a single write once the outermost batch ends
+    private final ByteArrayOutputStream batchBytes = new ByteArrayOutputStream();
+    private final DataOutputStream batchOut = new DataOutputStream(batchBytes);
+    private int batchDepth;
+
+    JobStore(File directory) {
+        file = new File(directory, FILE_NAME);
+    }
+
+    /**
+     * Method to read all live jobs from the log. Callbacks shared between jobs are deserialized
+     * only once.
+     *
+     * @return Returns the stored jobs in the order they were added
+     */
+    synchronized List<StoredJob> load() {
+        liveRecords.clear();
+        callbackRecords.clear();
+        callbackIds.clear();
+        nextCallbackId = 0;
+        recordCount = 0;
+
+        boolean needsCompaction = false;
+        if (file.exists()) {
+            DataInputStream in = null;
+            try {
+                in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                if (in.readInt() != MAGIC)
+                    throw new IOException("Unknown log format");
+
+                byte version = in.readByte();
+                if (version != VERSION)
+                    throw new IOException("Unknown log version: " + version);
+
+                while (true) {
+                    byte op;
+                    try {
+                        op = in.readByte();
+                    } catch (EOFException e) {
+                        break;
+                    }
+
+                    int length = in.readInt();
+                    if (length < 4 || length > MAX_RECORD_LENGTH)
+                        throw new IOException("Invalid record length: " + length);
+
+                    byte[] payload = new byte[length];
+                    in.readFully(payload);
+                    recordCount++;
+
+                    // Every record starts with the jobID, or the callback id for CALLBACK records
+                    int id = readInt(payload, 0);
+                    if (op == OP_PUT) {
+                        liveRecords.put(id, payload);
+                    } else if (op == OP_REMOVE) {
+                        liveRecords.remove(id);
+                    } else if (op == OP_CALLBACK) {
+                        callbackRecords.put(id, payload);
+                        callbackIds.put(new CallbackKey(payload, 4, payload.length - 4), id);
+                        nextCallbackId = Math.max(nextCallbackId, id + 1);
+                    }
+                }
+            } catch (EOFException e) {
+                // Torn trailing record, rewrite the log without it
+                Log.e(TAG, "Truncated record found while load: " + e);
+                needsCompaction = true;
+            } catch (Exception e) {
+                Log.e(TAG, "Exception occurred while load: " + e);
+                needsCompaction = true;
+            } finally {
+                closeQuietly(in);
+            }
+        }
+
+        List<StoredJob> storedJobs = new ArrayList<>(liveRecords.size());
+        HashMap<Integer, SmartScheduler.JobScheduledCallback> callbacks = new HashMap<>();
+        for (byte[] payload : new ArrayList<>(liveRecords.values())) {
+            try {
+                storedJobs.add(decode(payload, callbacks));
+            } catch (Exception e) {
+                Log.e(TAG, "Exception occurred while decoding stored job: " + e);
+                liveRecords.remove(readInt(payload, 0));
+                needsCompaction = true;
+            }
+        }
+
+        if (needsCompaction || recordCount - liveRecords.size() - callbackRecords.size() >= COMPACTION_MIN_STALE_RECORDS) {
+            compact();
+        }
+
+        return storedJobs;
+    }
+
+    /**
+     * Method to store a job, replacing any stored job with the same jobID
+     *
+     * @param job           Job which needs to be stored
+     * @param firstFireTime Wall clock time (in millis) of the job's first occurrence
+     */
+    synchronized void put(Job job, long firstFireTime) {
+        int callbackId;
+        try {
+            callbackId = getCallbackId(job.getJobScheduledCallback());
+        } catch (IOException e) {
+            // Callback can't be serialized, so the job is kept in memory only
+            Log.e(TAG, "Exception occurred while encoding job " + job.getJobId() + ": " + e);
+            remove(job.getJobId());
+            return;
+        }
+
+        byte[] payload = encode(job, firstFireTime, callbackId);
+        liveRecords.put(job.getJobId(), payload);
+        append(OP_PUT, payload);
+    }
+
+    /**
+     * Method to remove a stored job. Nothing is written in case no job is stored for the jobID.
+     *
+     * @param jobId JobID of the job which needs to be removed
+     */
+    synchronized void remove(int jobId) {
+        if (liveRecords.remove(jobId) == null)
+            return;
+
+        byte[] payload = new byte[4];
+        writeInt(payload, 0, jobId);
+        append(OP_REMOVE, payload);
+    }
+
+    synchronized void beginBatch() {
+        batchDepth++;
+    }
+
+    synchronized void endBatch() {
+        if (batchDepth > 0 && --batchDepth == 0 && batchBytes.size() > 0) {
+            try {
+                openLog();
+                batchBytes.writeTo(out);
+            } catch (IOException e) {
+                Log.e(TAG, "Exception occurred while endBatch: " + e);
+                closeQuietly(out);
+                out = null;
+            } finally {
+                batchBytes.reset();
+            }
+        }
+    }
+
+    private int getCallbackId(SmartScheduler.JobScheduledCallback callback) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[4]);
+        ObjectOutputStream objectOut = new ObjectOutputStream(bytes);
+        objectOut.writeObject(callback);
+        objectOut.close();
+
+        byte[] payload = bytes.toByteArray();
+        CallbackKey callbackKey = new CallbackKey(payload, 4, payload.length - 4);
+        Integer callbackId = callbackIds.get(callbackKey);
+        if (callbackId != null)
+            return callbackId;
+
+        callbackId = nextCallbackId++;
+        writeInt(payload, 0, callbackId);
+        callbackRecords.put(callbackId, payload);
+        callbackIds.put(callbackKey, callbackId);
+        append(OP_CALLBACK, payload);
+        return callbackId;
+    }
+
+    private void openLog() throws IOException {
+        if (out == null) {
+            boolean isNewFile = !file.exists() || file.length() == 0;
+            out = new DataOutputStream(new FileOutputStream(file, true));
+            if (isNewFile) {
+                writeHeader(out);
+            }
+        }
+    }
+
+    private void append(byte op, byte[] payload) {
+        try {
+            if (batchDepth > 0) {
+                writeRecord(batchOut, op, payload);
+            } else {
+                openLog();
+                writeRecord(out, op, payload);
+            }
+            recordCount++;
+
+            int liveCount = liveRecords.size() + callbackRecords.size();
+            if (recordCount - liveCount >= COMPACTION_MIN_STALE_RECORDS && recordCount > 2 * liveCount) {
+                compact();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Exception occurred while append: " + e);
+            closeQuietly(out);
+            out = null;
+        }
+    }
+
+    private void compact() {
+        closeQuietly(out);
+        out = null;
+
+        // Live records written below already include all records of the current batch
+        batchBytes.reset();
+
+        // Drop callbacks no longer referenced by any live job
+        HashSet<Integer> liveCallbackIds = new HashSet<>();
+        for (byte[] payload : liveRecords.values()) {
+            liveCallbackIds.add(readCallbackId(payload));
+        }
+        callbackRecords.keySet().retainAll(liveCallbackIds);
+        callbackIds.values().retainAll(liveCallbackIds);
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream tempOut = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(bytes);
+            writeHeader(data);
+            for (byte[] payload : callbackRecords.values()) {
+                writeRecord(data, OP_CALLBACK, payload);
+            }
+            for (byte[] payload : liveRecords.values()) {
+                writeRecord(data, OP_PUT, payload);
+            }
+
+            tempOut = new DataOutputStream(new FileOutputStream(tempFile));
+            bytes.writeTo(tempOut);
+            tempOut.close();
+            tempOut = null;
+
+            if (!tempFile.renameTo(file))
+                throw new IOException("Unable to replace " + file);
+
+            recordCount = callbackRecords.size() + liveRecords.size();
+        } catch (IOException e) {
+            Log.e(TAG, "Exception occurred while compact: " + e);
+            closeQuietly(tempOut);
+            tempFile.delete();
+        }
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    private static void writeRecord(DataOutputStream out, byte op, byte[] payload) throws IOException {
+        // Write each record with a single write call so that a crash can only tear the last one
+        byte[] record = new byte[5 + payload.length];
+        record[0] = op;
+        writeInt(record, 1, payload.length);
+        System.arraycopy(payload, 0, record, 5, payload.length);
+        out.write(record);
+    }
+
+    private static byte[] encode(Job job, long firstFireTime, int callbackId) {
+        boolean hasFlex = job.getFlexInMillis() != null;
+        boolean hasDeadline = job.getDeadlineInMillis() != null;
+        boolean hasRetryPolicy = job.getRetryMaxAttempts() > 1;
+        boolean hasExecutionTimeout = job.getExecutionTimeoutInMillis() != null;
+        byte[] coalescingKey = job.getCoalescingKey() != null ? job.getCoalescingKey().getBytes(UTF_8) : null;
+        int extensionLength = 8 + (hasDeadline ? 8 : 0) + (hasRetryPolicy ? 20 : 0)
+                + (hasExecutionTimeout ? 8 : 0) + (coalescingKey != null ? 4 + coalescingKey.length : 0);
+        byte[] payload = new byte[(hasFlex ? 43 : 35) + 4 + extensionLength];
+
+        writeInt(payload, 0, job.getJobId());
+        // Jobs without a type of their own are stored without one, so that it is picked again on restore
+        payload[4] = (byte) (job.hasDefaultJobType() ? Job.Type.JOB_TYPE_NONE : job.getJobType());
+        payload[5] = (byte) job.getNetworkType();
+        payload[6] = (byte) ((job.isPeriodic() ? FLAG_PERIODIC : 0) | (hasFlex ? FLAG_HAS_FLEX : 0)
+                | (job.getExecutionPolicy() & EXECUTION_POLICY_MASK) << EXECUTION_POLICY_SHIFT
+                | (job.getRequiresCharging() ? FLAG_REQUIRES_CHARGING : 0)
+                | (job.getPeriodicMode() == Job.PeriodicMode.PERIODIC_MODE_FIXED_DELAY ? FLAG_FIXED_DELAY : 0)
+                | (job.getCatchUpPolicy() & CATCH_UP_POLICY_MASK) << CATCH_UP_POLICY_SHIFT);
+        writeLong(payload, 7, job.getIntervalMillis());
+        writeLong(payload, 15, job.getInitialDelayInMillis());
+        int offset = 23;
+        if (hasFlex) {
+            writeLong(payload, offset, job.getFlexInMillis());
+            offset += 8;
+        }
+        writeLong(payload, offset, firstFireTime);
+        writeInt(payload, offset + 8, callbackId);
+        offset += 12;
+
+        writeInt(payload, offset, extensionLength);
+        writeInt(payload, offset + 4, job.getPriority());
+        writeInt(payload, offset + 8, (hasDeadline ? EXTENSION_FLAG_HAS_DEADLINE : 0)
+                | (job.getOverlapPolicy() & OVERLAP_POLICY_MASK) << OVERLAP_POLICY_SHIFT
+                | (hasRetryPolicy ? EXTENSION_FLAG_HAS_RETRY_POLICY : 0)
+                | (hasExecutionTimeout ? EXTENSION_FLAG_HAS_EXECUTION_TIMEOUT : 0)
+                | (coalescingKey != null ? EXTENSION_FLAG_HAS_COALESCING_KEY : 0)
+                | (job.getCoalescingPolicy() & COALESCING_POLICY_MASK) << COALESCING_POLICY_SHIFT);
+        offset += 12;
+        if (hasDeadline) {
+            writeLong(payload, offset, job.getDeadlineInMillis());
+            offset += 8;
+        }
+        if (hasRetryPolicy) {
+            writeInt(payload, offset, job.getRetryMaxAttempts());
+            writeLong(payload, offset + 4, job.getRetryBaseDelayInMillis());
+            writeLong(payload, offset + 12, job.getRetryMaxDelayInMillis());
+            offset += 20;
+        }
+        if (hasExecutionTimeout) {
+            writeLong(payload, offset, job.getExecutionTimeoutInMillis());
+            offset += 8;
+        }
+        if (coalescingKey != null) {
+            writeInt(payload, offset, coalescingKey.length);
+            System.arraycopy(coalescingKey, 0, payload, offset + 4, coalescingKey.length);
+        }
+        return payload;
+    }
+
+    private StoredJob decode(byte[] payload, Map<Integer, SmartScheduler.JobScheduledCallback> callbacks)
+            throws IOException, ClassNotFoundException {
+        int jobId = readInt(payload, 0);
+        int jobType = payload[4];
+        int networkType = payload[5];
+        int flags = payload[6] & 0xff;
+        long intervalMillis = readLong(payload, 7);
+        long initialDelayInMillis = readLong(payload, 15);
+        int offset = 23;
+
+        Long flexInMillis = null;
+        if ((flags & FLAG_HAS_FLEX) != 0) {
+            flexInMillis = readLong(payload, offset);
+            offset += 8;
+        }
+        long firstFireTime = readLong(payload, offset);
+        int callbackId = readInt(payload, offset + 8);
+        offset += 12;
+
+        // Fields added to the end of the extension block later on are skipped
+        int extensionLength = readInt(payload, offset);
+        if (extensionLength < 8 || extensionLength > payload.length - offset - 4)
+            throw new IOException("Invalid extension length: " + extensionLength);
+
+        int priority = readInt(payload, offset + 4);
+        int extensionFlags = readInt(payload, offset + 8);
+        int overlapPolicy = (extensionFlags >> OVERLAP_POLICY_SHIFT) & OVERLAP_POLICY_MASK;
+        offset += 12;
+
+        Long deadlineInMillis = null;
+        if ((extensionFlags & EXTENSION_FLAG_HAS_DEADLINE) != 0) {
+            deadlineInMillis = readLong(payload, offset);
+            offset += 8;
+        }
+
+        SmartScheduler.JobScheduledCallback callback = callbacks.get(callbackId);
+        if (callback == null) {
+            byte[] callbackPayload = callbackRecords.get(callbackId);
+            if (callbackPayload == null)
+                throw new IOException("Unknown callback id: " + callbackId);
+
+            ObjectInputStream objectIn = new ObjectInputStream(
+                    new ByteArrayInputStream(callbackPayload, 4, callbackPayload.length - 4));
+            callback = (SmartScheduler.JobScheduledCallback) objectIn.readObject();
+            callbacks.put(callbackId, callback);
+        }
+
+        Job.Builder builder = new Job.Builder(jobId, callback, jobType)
+                .setRequiredNetworkType(networkType)
+                .setRequiresCharging((flags & FLAG_REQUIRES_CHARGING) != 0)
+                .setExecutionPolicy((flags >> EXECUTION_POLICY_SHIFT) & EXECUTION_POLICY_MASK)
+                .setPeriodicMode((flags & FLAG_FIXED_DELAY) != 0
+                        ? Job.PeriodicMode.PERIODIC_MODE_FIXED_DELAY : Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE)
+                .setCatchUpPolicy((flags >> CATCH_UP_POLICY_SHIFT) & CATCH_UP_POLICY_MASK)
+                .setPriority(priority)
+                .setOverlapPolicy(overlapPolicy);
+        if ((flags & FLAG_PERIODIC) != 0) {
+            builder.setPeriodic(intervalMillis, initialDelayInMillis);
+        } else {
+            builder.setIntervalMillis(intervalMillis);
+        }
+        if (flexInMillis != null) {
+            builder.setFlex(flexInMillis);
+        }
+        if (deadlineInMillis != null) {
+            builder.setDeadline(deadlineInMillis);
+        }
+        if ((extensionFlags & EXTENSION_FLAG_HAS_RETRY_POLICY) != 0) {
+            builder.setRetryPolicy(readInt(payload, offset), readLong(payload, offset + 4), readLong(payload, offset + 12));
+            offset += 20;
+        }
+        if ((extensionFlags & EXTENSION_FLAG_HAS_EXECUTION_TIMEOUT) != 0) {
+            builder.setExecutionTimeout(readLong(payload, offset));
+            offset += 8;
+        }
+        if ((extensionFlags & EXTENSION_FLAG_HAS_COALESCING_KEY) != 0) {
+            builder.setCoalescingKey(new String(payload, offset + 4, readInt(payload, offset), UTF_8));
+        }
+        builder.setCoalescingPolicy((extensionFlags >> COALESCING_POLICY_SHIFT) & COALESCING_POLICY_MASK);
+
+        return new StoredJob(builder.build(), firstFireTime);
+    }
+
+    private static int readCallbackId(byte[] payload) {
+        return readInt(payload, (payload[6] & FLAG_HAS_FLEX) != 0 ? 39 : 31);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16)
+                | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        return ((long) readInt(bytes, offset) << 32) | (readInt(bytes, offset + 4) & 0xffffffffL);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        writeInt(bytes, offset, (int) (value >>> 32));
+        writeInt(bytes, offset + 4, (int) value);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null)
+            return;
+
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            Log.e(TAG, "Exception occurred while close: " + e);
+        }
+    }
+
+    /**
+     * Key to look up the id of an already stored callback by its serialized form.
+     */
+    private static final class CallbackKey {
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+        private final int hashCode;
+
+        private CallbackKey(byte[] bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            this.hashCode = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CallbackKey)) return false;
+
+            CallbackKey other = (CallbackKey) o;
+            if (hashCode != other.hashCode || length != other.length) return false;
+            for (int i = 0; i < length; i++) {
+                if (bytes[offset + i] != other.bytes[other.offset + i]) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * Timer driving a {@link TimingWheel} for all Handler type jobs on a dedicated dispatcher. The
+ * dispatcher only runs ticks which have at least one timeout in their slot. Timeouts expiring in
+ * the same tick are handed to the listener in the given order.
+ */
+final class JobTimer {
+
+    // Wheel of 512 ticks of 10ms each, i.e. one rotation every 5.12 seconds
+    static final long TICK_MILLIS = 10;
+    static final int WHEEL_SIZE = 512;
+
+    private final TimingWheel wheel;
+    private final TimingWheel.Listener listener;
+    private final MetricsRecorder metrics;
+    private final Clock clock;
+    private final Dispatcher dispatcher;
+    private final Comparator<TimingWheel.Timeout> order;
+
+    // Timeouts expired in the current tick, only touched on the dispatcher
+    private final ArrayList<TimingWheel.Timeout> expired = new ArrayList<>();
+    private final TimingWheel.Listener expiredCollector = new TimingWheel.Listener() {
+        @Override
+        public void onExpired(TimingWheel.Timeout timeout) {
+            expired.add(timeout);
+        }
+    };
+
+    // Uptime (in millis) for which the next tick is posted, -1 if no tick is posted
+    private long armedTickTime = -1;
+
+    private final Runnable tickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onTick();
+        }
+    };
+
+    JobTimer(TimingWheel.Listener listener, Comparator<TimingWheel.Timeout> order, MetricsRecorder metrics,
+             Clock clock, Dispatcher dispatcher) {
+        this.listener = listener;
+        this.order = order;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.dispatcher = dispatcher;
+        this.wheel = new TimingWheel(TICK_MILLIS, WHEEL_SIZE, clock.uptimeMillis());
+    }
+
+    /**
+     * Method to schedule a timeout after the given delay
+     *
+     * @param timeout     Timeout which needs to be scheduled
+     * @param delayMillis Delay (in millis) after which the timeout should expire
+     */
+    void schedule(TimingWheel.Timeout timeout, long delayMillis) {
+        wheel.schedule(timeout, clock.uptimeMillis() + delayMillis);
+        arm();
+    }
+
+    /**
+     * Method to cancel a scheduled timeout. A tick posted for it is left as is, since an empty
+     * tick just re-arms the timer for the next non-empty one.
+     *
+     * @param timeout Timeout which needs to be cancelled
+     * @return Returns true in case the timeout was cancelled, false otherwise
+     */
+    boolean cancel(TimingWheel.Timeout timeout) {
+        return wheel.cancel(timeout);
+    }
+
+    private void onTick() {
+        synchronized (this) {
+            armedTickTime = -1;
+        }
+
+        metrics.recordTimerTick();
+        wheel.expire(clock.uptimeMillis(), expiredCollector);
+        if (expired.size() > 1) {
+            Collections.sort(expired, order);
+        }
+
+        try {
+            for (int i = 0; i < expired.size(); i++) {
+                listener.onExpired(expired.get(i));
+            }
+        } finally {
+            expired.clear();
+        }
+        arm();
+    }
+
+    private void arm() {
+        long nextTickTime = wheel.nextTickTime();
+        if (nextTickTime < 0)
+            return;
+
+        synchronized (this) {
+            // A tick posted for an earlier time will re-arm the timer anyway
+            if (armedTickTime >= 0 && armedTickTime <= nextTickTime)
+                return;
+
+            if (armedTickTime >= 0) {
+                dispatcher.cancel(tickRunnable);
+            }
+
+            armedTickTime = nextTickTime;
+            dispatcher.dispatchAt(tickRunnable, nextTickTime);
+        }
+    }
+}
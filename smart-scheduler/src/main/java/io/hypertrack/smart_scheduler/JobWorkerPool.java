@@ -0,0 +1,63 @@
+package io.hypertrack.smart_scheduler;
+
+import android.os.Process;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker pool shared by all jobs which are not run inline. It is bounded by the number of cores
+ * and its threads exit once they have been idle for a while. Queued jobs are run earliest deadline
+ * first, see {@link ReadyTask}.
+ */
+final class JobWorkerPool extends ThreadPoolExecutor {
+
+    private static final String THREAD_NAME_PREFIX = "SmartScheduler-Worker-";
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final int INITIAL_QUEUE_CAPACITY = 16;
+
+    // Queued ready tasks run earliest deadline first, any other task after them
+    private static final Comparator<Runnable> READY_ORDER = new Comparator<Runnable>() {
+        @Override
+        public int compare(Runnable first, Runnable second) {
+            if (first instanceof ReadyTask && second instanceof ReadyTask)
+                return ((ReadyTask) first).compareTo((ReadyTask) second);
+
+            if (first instanceof ReadyTask)
+                return -1;
+
+            return second instanceof ReadyTask ? 1 : 0;
+        }
+    };
+
+    JobWorkerPool() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    private JobWorkerPool(int poolSize) {
+        // Every job is queued at most once at a time, so the queue is bounded by the number of jobs
+        super(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(INITIAL_QUEUE_CAPACITY, READY_ORDER),
+                new ThreadFactory() {
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        return new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                runnable.run();
+                            }
+                        }, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+                    }
+                });
+        allowCoreThreadTimeOut(true);
+    }
+}
@@ -0,0 +1,171 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the SmartScheduler's metrics in atomic counters and fixed bucket histograms, so that
+ * recording never allocates or locks. Per job metrics are kept in the job's {@link JobEntry}.
+ */
+final class MetricsRecorder {
+
+    // Global counters
+    static final int HANDLER_FIRES = 0;
+    static final int ALARM_FIRES = 1;
+    static final int OVERLAP_SKIPS = 2;
+    static final int CALLBACKS = 3;
+    static final int CALLBACK_FAILURES = 4;
+    static final int CONSTRAINT_DEFERRALS = 5;
+    static final int ALARM_WAKEUPS = 6;
+    static final int ALARM_ARMS = 7;
+    static final int TIMER_TICKS = 8;
+    static final int RETRIES = 9;
+    static final int TIMEOUTS = 10;
+    static final int COALESCED_JOBS = 11;
+    private static final int COUNTER_COUNT = 12;
+
+    // Per job stats
+    static final int JOB_FIRES = 0;
+    static final int JOB_CALLBACK_FAILURES = 1;
+    static final int JOB_CONSTRAINT_DEFERRALS = 2;
+    static final int JOB_TOTAL_FIRE_DELAY = 3;
+    static final int JOB_MAX_FIRE_DELAY = 4;
+    static final int JOB_CALLBACKS = 5;
+    static final int JOB_TOTAL_CALLBACK_DURATION = 6;
+    static final int JOB_MAX_CALLBACK_DURATION = 7;
+    static final int JOB_STAT_COUNT = 8;
+
+    // Inclusive upper bounds (in millis) of the histogram buckets, followed by an unbounded bucket
+    private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000};
+    private static final int BUCKET_COUNT = BUCKET_UPPER_BOUNDS_MILLIS.length + 1;
+
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTER_COUNT);
+    private final AtomicLongArray handlerFireDelay = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLongArray alarmFireDelay = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLongArray callbackDuration = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Method to record that a backend has fired a job
+     *
+     * @param entry       Entry of the job
+     * @param backendType Either {@link Job.Type#JOB_TYPE_HANDLER} or {@link Job.Type#JOB_TYPE_ALARM}
+     * @param delayMillis Delay (in millis) between the planned and the actual fire time
+     */
+    void recordFire(JobEntry entry, int backendType, long delayMillis) {
+        delayMillis = Math.max(0, delayMillis);
+        if (backendType == Job.Type.JOB_TYPE_ALARM) {
+            counters.incrementAndGet(ALARM_FIRES);
+            alarmFireDelay.incrementAndGet(bucketFor(delayMillis));
+        } else {
+            counters.incrementAndGet(HANDLER_FIRES);
+            handlerFireDelay.incrementAndGet(bucketFor(delayMillis));
+        }
+
+        entry.stats.incrementAndGet(JOB_FIRES);
+        entry.stats.addAndGet(JOB_TOTAL_FIRE_DELAY, delayMillis);
+        updateMax(entry.stats, JOB_MAX_FIRE_DELAY, delayMillis);
+    }
+
+    /**
+     * Method to record that a job's callback has returned
+     *
+     * @param entry          Entry of the job
+     * @param durationMillis Time (in millis) taken by the callback
+     * @param failed         Whether or not the callback has thrown an exception
+     */
+    void recordCallback(JobEntry entry, long durationMillis, boolean failed) {
+        durationMillis = Math.max(0, durationMillis);
+        counters.incrementAndGet(CALLBACKS);
+        callbackDuration.incrementAndGet(bucketFor(durationMillis));
+
+        entry.stats.incrementAndGet(JOB_CALLBACKS);
+        entry.stats.addAndGet(JOB_TOTAL_CALLBACK_DURATION, durationMillis);
+        updateMax(entry.stats, JOB_MAX_CALLBACK_DURATION, durationMillis);
+
+        if (failed) {
+            counters.incrementAndGet(CALLBACK_FAILURES);
+            entry.stats.incrementAndGet(JOB_CALLBACK_FAILURES);
+        }
+    }
+
+    void recordConstraintDeferral(JobEntry entry) {
+        counters.incrementAndGet(CONSTRAINT_DEFERRALS);
+        entry.stats.incrementAndGet(JOB_CONSTRAINT_DEFERRALS);
+    }
+
+    void recordOverlapSkip() {
+        counters.incrementAndGet(OVERLAP_SKIPS);
+    }
+
+    void recordAlarmWakeup() {
+        counters.incrementAndGet(ALARM_WAKEUPS);
+    }
+
+    void recordAlarmArm() {
+        counters.incrementAndGet(ALARM_ARMS);
+    }
+
+    void recordTimerTick() {
+        counters.incrementAndGet(TIMER_TICKS);
+    }
+
+    void recordRetry() {
+        counters.incrementAndGet(RETRIES);
+    }
+
+    void recordTimeout() {
+        counters.incrementAndGet(TIMEOUTS);
+    }
+
+    void recordCoalescedJob() {
+        counters.incrementAndGet(COALESCED_JOBS);
+    }
+
+    /**
+     * @return Returns a copy of the global metrics
+     */
+    SchedulerMetrics snapshot() {
+        long[] counterValues = new long[COUNTER_COUNT];
+        for (int i = 0; i < COUNTER_COUNT; i++) {
+            counterValues[i] = counters.get(i);
+        }
+
+        return new SchedulerMetrics(counterValues, snapshot(handlerFireDelay), snapshot(alarmFireDelay),
+                snapshot(callbackDuration));
+    }
+
+    /**
+     * @return Returns a copy of the metrics of the given job
+     */
+    static SchedulerMetrics.JobMetrics snapshot(JobEntry entry) {
+        long[] stats = new long[JOB_STAT_COUNT];
+        for (int i = 0; i < JOB_STAT_COUNT; i++) {
+            stats[i] = entry.stats.get(i);
+        }
+        return new SchedulerMetrics.JobMetrics(entry.job.getJobId(), stats, entry.getRunCount());
+    }
+
+    private static SchedulerMetrics.Histogram snapshot(AtomicLongArray histogram) {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = histogram.get(i);
+        }
+        return new SchedulerMetrics.Histogram(BUCKET_UPPER_BOUNDS_MILLIS, counts);
+    }
+
+    static int bucketFor(long millis) {
+        for (int bucket = 0; bucket < BUCKET_UPPER_BOUNDS_MILLIS.length; bucket++) {
+            if (millis <= BUCKET_UPPER_BOUNDS_MILLIS[bucket])
+                return bucket;
+        }
+        return BUCKET_UPPER_BOUNDS_MILLIS.length;
+    }
+
+    private static void updateMax(AtomicLongArray stats, int index, long value) {
+        long current;
+        while (value > (current = stats.get(index))) {
+            if (stats.compareAndSet(index, current, value))
+                return;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Jobs which were due while their constraints were not met. They are parked here in the order
+ * they were due, until a change of the device state releases them in one batch.
+ */
+final class PendingConstraintQueue {
+
+    private final LinkedHashSet<JobEntry> entries = new LinkedHashSet<>();
+
+    /**
+     * Method to park an entry till its constraints are met
+     *
+     * @param entry Entry which needs to be parked
+     * @return Returns true in case the entry has been parked, false if it was parked already
+     */
+    synchronized boolean park(JobEntry entry) {
+        return entries.add(entry);
+    }
+
+    /**
+     * Method to take an entry out of the queue
+     *
+     * @param entry Entry which needs to be removed
+     * @return Returns true in case the entry was parked and has been removed, false otherwise
+     */
+    synchronized boolean remove(JobEntry entry) {
+        return entries.remove(entry);
+    }
+
+    /**
+     * Method to remove all entries whose constraints are met in the given device state. Cancelled
+     * entries are dropped on the way.
+     *
+     * @param deviceState Latest state of the device
+     * @return Returns the released entries in the order they were parked
+     */
+    synchronized List<JobEntry> release(DeviceState.Snapshot deviceState) {
+        List<JobEntry> released = new ArrayList<>();
+        Iterator<JobEntry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            JobEntry entry = iterator.next();
+            if (entry.isCancelled()) {
+                iterator.remove();
+
+            } else if (deviceState.meetsConstraints(entry.job)) {
+                iterator.remove();
+                released.add(entry);
+            }
+        }
+        return released;
+    }
+
+    synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,45 @@
+package io.hypertrack.smart_scheduler;
+
+/**
+ * Stable phases for periodic jobs. Each job gets an offset within its period from a hash of its
+ * jobID, and fires whenever the wall clock time minus that offset is a multiple of its interval.
+ * Jobs with the same interval are thus spread evenly over the period instead of all firing at
+ * once, and a job keeps its phase when it is added again or restored.
+ */
+final class PhaseSpreading {
+
+    private PhaseSpreading() {
+    }
+
+    /**
+     * Method to get the phase of a job within its period
+     *
+     * @param jobId          JobID of the job
+     * @param intervalMillis Interval (in millis) of the job, greater than 0
+     * @return Returns the offset (in millis) of the job's occurrences from multiples of its interval
+     */
+    static long getPhaseOffsetInMillis(int jobId, long intervalMillis) {
+        // Finalizer of SplitMix64, so that consecutive jobIDs land far apart
+        long hash = jobId * 0x9e3779b97f4a7c15L;
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        hash = hash ^ (hash >>> 31);
+        return (hash >>> 1) % intervalMillis;
+    }
+
+    /**
+     * Method to get the delay till the next occurrence of a periodic job in its phase
+     *
+     * @param job               Periodic job with an interval greater than 0
+     * @param currentTimeMillis  Current wall clock time (in millis)
+     * @return Returns the delay (in millis), greater than 0 and at most the job's interval
+     */
+    static long getDelayInMillis(Job job, long currentTimeMillis) {
+        long intervalMillis = job.getIntervalMillis();
+        long sincePhase = (currentTimeMillis - getPhaseOffsetInMillis(job.getJobId(), intervalMillis)) % intervalMillis;
+        if (sincePhase < 0) {
+            sincePhase += intervalMillis;
+        }
+        return intervalMillis - sincePhase;
+    }
+}
@@ -0,0 +1,96 @@
+package io.hypertrack.smart_scheduler;
+
+/**
+ * Places jobs without a type of their own on the backend with the lower expected cost per
+ * occurrence:
+ * <ul>
+ * <li>An Alarm type job wakes the device up, unless another Alarm type job holds a wakeup within
+ * its flex window already. Wakeups cost more in power saver mode.</li>
+ * <li>A Handler type job needs no wakeup, but its occurrence is lost in case the process dies
+ * before it is due. The process is expected to live on for as long as it has lived so far.</li>
+ * <li>Either backend is charged in case the fires observed on it are late by more than the job
+ * tolerates, i.e. its deadline or else its interval.</li>
+ * </ul>
+ * For a process which has just started and without late fires, jobs are placed as per
+ * {@link Job#JOB_TYPE_HANDLER_THRESHOLD}.
+ */
+final class PlacementPlanner {
+
+    // Cost of a wakeup held by the job alone, and of joining a wakeup held by another job
+    static final double WAKEUP_COST = 1.0;
+    static final double SHARED_WAKEUP_COST = 0.1;
+    static final double POWER_SAVER_WAKEUP_COST_FACTOR = 1.5;
+
+    // Cost of an occurrence which is lost or fires too late
+    static final double MISSED_OCCURRENCE_COST = 2.0;
+
+    // Remaining lifetime (in millis) expected for a process which has just started
+    static final long MIN_EXPECTED_PROCESS_LIFETIME_MILLIS = Job.JOB_TYPE_HANDLER_THRESHOLD;
+
+    // Weight of a newly observed delay in the moving average of the fire delays
+    private static final double FIRE_DELAY_WEIGHT = 0.1;
+
+    // Elapsed realtime (in millis) at which the process has started
+    private final long processStartTime;
+
+    // Moving averages (in millis) of the delays between the planned and the actual fire times
+    private double handlerFireDelay;
+    private double alarmFireDelay;
+
+    PlacementPlanner(long processStartTime) {
+        this.processStartTime = processStartTime;
+    }
+
+    /**
+     * Method to record that a backend has fired a job
+     *
+     * @param backendType Either {@link Job.Type#JOB_TYPE_HANDLER} or {@link Job.Type#JOB_TYPE_ALARM}
+     * @param delayMillis Delay (in millis) between the planned and the actual fire time
+     */
+    synchronized void recordFire(int backendType, long delayMillis) {
+        delayMillis = Math.max(0, delayMillis);
+        if (backendType == Job.Type.JOB_TYPE_ALARM) {
+            alarmFireDelay += FIRE_DELAY_WEIGHT * (delayMillis - alarmFireDelay);
+        } else {
+            handlerFireDelay += FIRE_DELAY_WEIGHT * (delayMillis - handlerFireDelay);
+        }
+    }
+
+    /**
+     * Method to pick the backend for the next occurrence of a job
+     *
+     * @param job           Job which needs to be placed
+     * @param now           Current elapsed realtime (in millis)
+     * @param wakeupShared  Whether or not another Alarm type job holds a wakeup within the job's flex window
+     * @param powerSaveMode Whether or not the device is in power saver mode
+     * @return Returns either {@link Job.Type#JOB_TYPE_HANDLER} or {@link Job.Type#JOB_TYPE_ALARM}
+     */
+    synchronized int place(Job job, long now, boolean wakeupShared, boolean powerSaveMode) {
+        return getHandlerCost(job, now) < getAlarmCost(job, wakeupShared, powerSaveMode)
+                ? Job.Type.JOB_TYPE_HANDLER : Job.Type.JOB_TYPE_ALARM;
+    }
+
+    synchronized double getHandlerCost(Job job, long now) {
+        long intervalMillis = Math.max(1, job.getIntervalMillis());
+        long lifetimeMillis = Math.max(MIN_EXPECTED_PROCESS_LIFETIME_MILLIS, now - processStartTime);
+        double lossProbability = (double) intervalMillis / (intervalMillis + lifetimeMillis);
+        return MISSED_OCCURRENCE_COST * lossProbability + getLatenessCost(job, handlerFireDelay);
+    }
+
+    synchronized double getAlarmCost(Job job, boolean wakeupShared, boolean powerSaveMode) {
+        double wakeupCost = wakeupShared ? SHARED_WAKEUP_COST : WAKEUP_COST;
+        if (powerSaveMode) {
+            wakeupCost *= POWER_SAVER_WAKEUP_COST_FACTOR;
+        }
+        return wakeupCost + getLatenessCost(job, alarmFireDelay);
+    }
+
+    private static double getLatenessCost(Job job, double fireDelay) {
+        long intervalMillis = Math.max(1, job.getIntervalMillis());
+        Long deadlineInMillis = job.getDeadlineInMillis();
+        long toleranceMillis = deadlineInMillis != null ? Math.max(0, deadlineInMillis) : intervalMillis;
+
+        double lateness = Math.max(0, fireDelay - toleranceMillis) / intervalMillis;
+        return MISSED_OCCURRENCE_COST * Math.min(1, lateness);
+    }
+}
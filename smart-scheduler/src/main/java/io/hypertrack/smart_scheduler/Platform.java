@@ -0,0 +1,43 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Everything the SmartScheduler needs from the system it runs on. {@link AndroidPlatform} is
+ * used on devices, other implementations can run the scheduler on a plain JVM.
+ */
+interface Platform {
+
+    Clock getClock();
+
+    /**
+     * @return Returns the backend for the shared wakeup of Alarm type jobs
+     */
+    WakeupBackend getWakeupBackend();
+
+    /**
+     * @return Returns the device state which job constraints are checked against
+     */
+    DeviceState getDeviceState();
+
+    /**
+     * @return Returns the dispatcher driving the timer of Handler type jobs
+     */
+    Dispatcher getTimerDispatcher();
+
+    /**
+     * @return Returns the dispatcher inline Handler type jobs added on the calling thread are run on
+     */
+    Dispatcher getCallerDispatcher();
+
+    /**
+     * @return Returns the dispatcher of the thread the wakeup alarm is delivered on, which inline
+     * Alarm type jobs are run on
+     */
+    Dispatcher getMainDispatcher();
+
+    /**
+     * @return Returns the executor callbacks of jobs which are not run inline are run on
+     */
+    Executor getWorkerPool();
+}
@@ -0,0 +1,59 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Task of a job which has become due. Ready tasks are run earliest deadline first, tasks with the
+ * same deadline in the order of their job's priority, and tasks with the same priority in the
+ * order they have become ready.
+ */
+abstract class ReadyTask implements Runnable, Comparable<ReadyTask> {
+
+    private static final AtomicLong nextSequence = new AtomicLong();
+
+    // Uptime (in millis) by which the task has to run, Long.MAX_VALUE if it has no deadline
+    final long readyDeadline;
+    final int priority;
+    private final long sequence;
+
+    ReadyTask(long readyDeadline, int priority) {
+        this.readyDeadline = readyDeadline;
+        this.priority = priority;
+        this.sequence = nextSequence.getAndIncrement();
+    }
+
+    /**
+     * Creates a task taking the place of the given one in the ready order, e.g. to wrap it
+     */
+    ReadyTask(ReadyTask task) {
+        this.readyDeadline = task.readyDeadline;
+        this.priority = task.priority;
+        this.sequence = task.sequence;
+    }
+
+    /**
+     * Method to get the ready deadline of an occurrence of a job
+     *
+     * @param job           Job which has become due
+     * @param dueTimeUptime Uptime (in millis) at which the occurrence was due
+     * @return Returns the uptime by which the job has to run, Long.MAX_VALUE if it has no deadline
+     */
+    static long getReadyDeadline(Job job, long dueTimeUptime) {
+        Long deadlineInMillis = job.getDeadlineInMillis();
+        if (deadlineInMillis == null || deadlineInMillis > Long.MAX_VALUE - Math.max(0, dueTimeUptime))
+            return Long.MAX_VALUE;
+
+        return dueTimeUptime + Math.max(0, deadlineInMillis);
+    }
+
+    @Override
+    public int compareTo(ReadyTask other) {
+        if (readyDeadline != other.readyDeadline)
+            return readyDeadline < other.readyDeadline ? -1 : 1;
+
+        if (priority != other.priority)
+            return priority > other.priority ? -1 : 1;
+
+        return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+    }
+}
@@ -0,0 +1,44 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.Random;
+
+/**
+ * Delays before retries of failed job runs. The bound for the delay doubles with every retry,
+ * from the job's base delay up to its max delay, and the delay itself is drawn uniformly between
+ * zero and that bound ("full jitter"), so that clients failing at once don't retry in lockstep.
+ */
+final class RetryBackoff {
+
+    private final Random random;
+
+    RetryBackoff(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Method to get the bound for the delay before a retry
+     *
+     * @param job     Job which needs to be retried
+     * @param attempt Number of the retry, starting at 1
+     * @return Returns the upper bound (in millis) for the delay
+     */
+    static long getMaxDelayInMillis(Job job, int attempt) {
+        long maxDelayInMillis = Math.max(0, job.getRetryMaxDelayInMillis());
+        long delayInMillis = Math.max(0, Math.min(job.getRetryBaseDelayInMillis(), maxDelayInMillis));
+        for (int i = 1; i < attempt && delayInMillis < maxDelayInMillis; i++) {
+            delayInMillis = delayInMillis > maxDelayInMillis / 2 ? maxDelayInMillis : delayInMillis * 2;
+        }
+        return delayInMillis;
+    }
+
+    /**
+     * Method to draw the delay before a retry
+     *
+     * @param job     Job which needs to be retried
+     * @param attempt Number of the retry, starting at 1
+     * @return Returns the delay (in millis) before the retry
+     */
+    long getDelayInMillis(Job job, int attempt) {
+        return (long) (random.nextDouble() * getMaxDelayInMillis(job, attempt));
+    }
+}
@@ -0,0 +1,314 @@
+package io.hypertrack.smart_scheduler;
+
+/**
+ * Point in time copy of the metrics recorded by the SmartScheduler since the process started.
+ * Use {@link SmartScheduler#getMetrics()} to get the metrics of all jobs and
+ * {@link SmartScheduler#getJobMetrics(int)} to get the metrics of a single job.
+ */
+public final class SchedulerMetrics {
+
+    /**
+     * Histogram of durations (in millis) with fixed buckets.
+     */
+    public static final class Histogram {
+        private final long[] upperBoundsMillis;
+        private final long[] counts;
+        private final long totalCount;
+
+        Histogram(long[] upperBoundsMillis, long[] counts) {
+            this.upperBoundsMillis = upperBoundsMillis;
+            this.counts = counts;
+
+            long totalCount = 0;
+            for (long count : counts) {
+                totalCount += count;
+            }
+            this.totalCount = totalCount;
+        }
+
+        /**
+         * @return Returns the number of buckets in the histogram
+         */
+        public int getBucketCount() {
+            return counts.length;
+        }
+
+        /**
+         * @param bucket Index of the bucket
+         * @return Returns the inclusive upper bound (in millis) of the bucket, Long.MAX_VALUE for the last one
+         */
+        public long getUpperBoundMillis(int bucket) {
+            return bucket < upperBoundsMillis.length ? upperBoundsMillis[bucket] : Long.MAX_VALUE;
+        }
+
+        /**
+         * @param bucket Index of the bucket
+         * @return Returns the number of values recorded in the bucket
+         */
+        public long getCount(int bucket) {
+            return counts[bucket];
+        }
+
+        /**
+         * @return Returns the number of values recorded in the histogram
+         */
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * Method to get the upper bound of the bucket the given percentile falls into
+         *
+         * @param percentile Percentile between 0 and 100
+         * @return Returns the upper bound (in millis) of the bucket, 0 if the histogram is empty
+         */
+        public long getPercentileMillis(double percentile) {
+            if (totalCount == 0)
+                return 0;
+
+            long rank = (long) Math.ceil(totalCount * Math.max(0, Math.min(100, percentile)) / 100);
+            long count = 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                count += counts[bucket];
+                if (count >= rank && count > 0)
+                    return getUpperBoundMillis(bucket);
+            }
+            return getUpperBoundMillis(counts.length - 1);
+        }
+    }
+
+    /**
+     * Metrics of a single job.
+     */
+    public static final class JobMetrics {
+        private final int jobId;
+        private final long fireCount;
+        private final long callbackFailureCount;
+        private final long constraintDeferralCount;
+        private final long totalFireDelayMillis;
+        private final long maxFireDelayMillis;
+        private final long callbackCount;
+        private final long totalCallbackMillis;
+        private final long maxCallbackMillis;
+        private final int runCount;
+
+        JobMetrics(int jobId, long[] stats, int runCount) {
+            this.jobId = jobId;
+            this.fireCount = stats[MetricsRecorder.JOB_FIRES];
+            this.callbackFailureCount = stats[MetricsRecorder.JOB_CALLBACK_FAILURES];
+            this.constraintDeferralCount = stats[MetricsRecorder.JOB_CONSTRAINT_DEFERRALS];
+            this.totalFireDelayMillis = stats[MetricsRecorder.JOB_TOTAL_FIRE_DELAY];
+            this.maxFireDelayMillis = stats[MetricsRecorder.JOB_MAX_FIRE_DELAY];
+            this.callbackCount = stats[MetricsRecorder.JOB_CALLBACKS];
+            this.totalCallbackMillis = stats[MetricsRecorder.JOB_TOTAL_CALLBACK_DURATION];
+            this.maxCallbackMillis = stats[MetricsRecorder.JOB_MAX_CALLBACK_DURATION];
+            this.runCount = runCount;
+        }
+
+        public int getJobId() {
+            return jobId;
+        }
+
+        /**
+         * @return Returns the number of times the job's backend has fired it
+         */
+        public long getFireCount() {
+            return fireCount;
+        }
+
+        /**
+         * @return Returns the number of times the job's callback has thrown an exception
+         */
+        public long getCallbackFailureCount() {
+            return callbackFailureCount;
+        }
+
+        /**
+         * @return Returns the number of times the job was parked as its constraints were not met
+         */
+        public long getConstraintDeferralCount() {
+            return constraintDeferralCount;
+        }
+
+        /**
+         * @return Returns the average delay (in millis) between the planned and the actual fire time
+         */
+        public long getAverageFireDelayMillis() {
+            return fireCount > 0 ? totalFireDelayMillis / fireCount : 0;
+        }
+
+        /**
+         * @return Returns the maximum delay (in millis) between the planned and the actual fire time
+         */
+        public long getMaxFireDelayMillis() {
+            return maxFireDelayMillis;
+        }
+
+        /**
+         * @return Returns the number of times the job's callback has been called
+         */
+        public long getCallbackCount() {
+            return callbackCount;
+        }
+
+        /**
+         * @return Returns the average time (in millis) taken by the job's callback
+         */
+        public long getAverageCallbackMillis() {
+            return callbackCount > 0 ? totalCallbackMillis / callbackCount : 0;
+        }
+
+        /**
+         * @return Returns the maximum time (in millis) taken by the job's callback
+         */
+        public long getMaxCallbackMillis() {
+            return maxCallbackMillis;
+        }
+
+        /**
+         * @return Returns the number of runs of the job which were queued or running at the time of the snapshot
+         */
+        public int getRunCount() {
+            return runCount;
+        }
+    }
+
+    private final long handlerFireCount;
+    private final long alarmFireCount;
+    private final long overlapSkipCount;
+    private final long callbackCount;
+    private final long callbackFailureCount;
+    private final long constraintDeferralCount;
+    private final long alarmWakeupCount;
+    private final long alarmArmCount;
+    private final long timerTickCount;
+    private final long retryCount;
+    private final long timeoutCount;
+    private final long coalescedJobCount;
+    private final Histogram handlerFireDelay;
+    private final Histogram alarmFireDelay;
+    private final Histogram callbackDuration;
+
+    SchedulerMetrics(long[] counters, Histogram handlerFireDelay, Histogram alarmFireDelay, Histogram callbackDuration) {
+        this.handlerFireCount = counters[MetricsRecorder.HANDLER_FIRES];
+        this.alarmFireCount = counters[MetricsRecorder.ALARM_FIRES];
+        this.overlapSkipCount = counters[MetricsRecorder.OVERLAP_SKIPS];
+        this.callbackCount = counters[MetricsRecorder.CALLBACKS];
+        this.callbackFailureCount = counters[MetricsRecorder.CALLBACK_FAILURES];
+        this.constraintDeferralCount = counters[MetricsRecorder.CONSTRAINT_DEFERRALS];
+        this.alarmWakeupCount = counters[MetricsRecorder.ALARM_WAKEUPS];
+        this.alarmArmCount = counters[MetricsRecorder.ALARM_ARMS];
+        this.timerTickCount = counters[MetricsRecorder.TIMER_TICKS];
+        this.retryCount = counters[MetricsRecorder.RETRIES];
+        this.timeoutCount = counters[MetricsRecorder.TIMEOUTS];
+        this.coalescedJobCount = counters[MetricsRecorder.COALESCED_JOBS];
+        this.handlerFireDelay = handlerFireDelay;
+        this.alarmFireDelay = alarmFireDelay;
+        this.callbackDuration = callbackDuration;
+    }
+
+    /**
+     * @return Returns the number of times Handler type jobs have been fired
+     */
+    public long getHandlerFireCount() {
+        return handlerFireCount;
+    }
+
+    /**
+     * @return Returns the number of times Alarm type jobs have been fired
+     */
+    public long getAlarmFireCount() {
+        return alarmFireCount;
+    }
+
+    /**
+     * @return Returns the number of occurrences skipped as the job was still queued or running
+     */
+    public long getOverlapSkipCount() {
+        return overlapSkipCount;
+    }
+
+    /**
+     * @return Returns the number of job callbacks called
+     */
+    public long getCallbackCount() {
+        return callbackCount;
+    }
+
+    /**
+     * @return Returns the number of job callbacks which have thrown an exception
+     */
+    public long getCallbackFailureCount() {
+        return callbackFailureCount;
+    }
+
+    /**
+     * @return Returns the number of times jobs were parked as their constraints were not met
+     */
+    public long getConstraintDeferralCount() {
+        return constraintDeferralCount;
+    }
+
+    /**
+     * @return Returns the number of times the device has been woken up by the SmartScheduler's alarm
+     */
+    public long getAlarmWakeupCount() {
+        return alarmWakeupCount;
+    }
+
+    /**
+     * @return Returns the number of times the SmartScheduler's alarm has been set with the AlarmManager
+     */
+    public long getAlarmArmCount() {
+        return alarmArmCount;
+    }
+
+    /**
+     * @return Returns the number of times the timer thread of Handler type jobs has woken up
+     */
+    public long getTimerTickCount() {
+        return timerTickCount;
+    }
+
+    /**
+     * @return Returns the number of retries scheduled for failed job runs
+     */
+    public long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * @return Returns the number of job runs which have exceeded their job's execution timeout
+     */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * @return Returns the number of added jobs which were coalesced into a pending job with the same coalescing key
+     */
+    public long getCoalescedJobCount() {
+        return coalescedJobCount;
+    }
+
+    /**
+     * @return Returns the delay between the planned and the actual fire time of Handler type jobs
+     */
+    public Histogram getHandlerFireDelay() {
+        return handlerFireDelay;
+    }
+
+    /**
+     * @return Returns the delay between the planned and the actual fire time of Alarm type jobs
+     */
+    public Histogram getAlarmFireDelay() {
+        return alarmFireDelay;
+    }
+
+    /**
+     * @return Returns the time taken by job callbacks
+     */
+    public Histogram getCallbackDuration() {
+        return callbackDuration;
+    }
+}
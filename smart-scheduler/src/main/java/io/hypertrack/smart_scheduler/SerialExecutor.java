@@ -0,0 +1,58 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks one at a time, in the order they were submitted, on an underlying executor. No
+ * thread is held while the queue is empty. A {@link ReadyTask} keeps its place in the ready order
+ * of the underlying executor.
+ */
+final class SerialExecutor implements Executor {
+
+    private final Executor executor;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private Runnable active;
+
+    SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void execute(final Runnable task) {
+        if (task instanceof ReadyTask) {
+            tasks.offer(new ReadyTask((ReadyTask) task) {
+                @Override
+                public void run() {
+                    runAndScheduleNext(task);
+                }
+            });
+        } else {
+            tasks.offer(new Runnable() {
+                @Override
+                public void run() {
+                    runAndScheduleNext(task);
+                }
+            });
+        }
+
+        if (active == null) {
+            scheduleNext();
+        }
+    }
+
+    private void runAndScheduleNext(Runnable task) {
+        try {
+            task.run();
+        } finally {
+            scheduleNext();
+        }
+    }
+
+    private synchronized void scheduleNext() {
+        active = tasks.poll();
+        if (active != null) {
+            executor.execute(active);
+        }
+    }
+}
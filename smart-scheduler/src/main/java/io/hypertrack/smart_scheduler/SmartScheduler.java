@@ -1,22 +1,20 @@
 package io.hypertrack.smart_scheduler;
 
-import android.app.AlarmManager;
-import android.app.PendingIntent;
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
-import android.os.BatteryManager;
-import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 
 import java.io.Serializable;
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import static io.hypertrack.smart_scheduler.Job.JOB_TYPE_HANDLER_THRESHOLD;
 
@@ -31,433 +29,1770 @@ public class SmartScheduler {
 
     private static SmartScheduler smartScheduler;
 
+    // Upper bound for keeping the device awake till the runs fired by a wakeup have started
+    private static final long WAKE_LOCK_TIMEOUT_MILLIS = 60 * 1000;
+
+    // Handler type jobs expiring in the same tick are fired earliest deadline first, then by priority
+    private static final Comparator<TimingWheel.Timeout> HANDLER_JOB_ORDER = new Comparator<TimingWheel.Timeout>() {
+        @Override
+        public int compare(TimingWheel.Timeout first, TimingWheel.Timeout second) {
+            HandlerJobTimeout firstTimeout = (HandlerJobTimeout) first;
+            HandlerJobTimeout secondTimeout = (HandlerJobTimeout) second;
+
+            long firstDeadline = ReadyTask.getReadyDeadline(firstTimeout.entry.job, firstTimeout.deadline);
+            long secondDeadline = ReadyTask.getReadyDeadline(secondTimeout.entry.job, secondTimeout.deadline);
+            if (firstDeadline != secondDeadline)
+                return firstDeadline < secondDeadline ? -1 : 1;
+
+            int firstPriority = firstTimeout.entry.job.getPriority();
+            int secondPriority = secondTimeout.entry.job.getPriority();
+            return firstPriority > secondPriority ? -1 : (firstPriority == secondPriority ? 0 : 1);
+        }
+    };
+
     private Context mContext;
-    private HashMap<Integer, Job> scheduledJobs;
 
-    // For Handler type jobs
-    private HashMap<Integer, Handler> jobHandlers;
-    private HashMap<Integer, Runnable> jobRunnables;
+    // Time, wakeups, threads and device state are all taken from the platform
+    private Platform platform;
+    private Clock clock;
+
+    // Single record per scheduled job, shared by all threads without a global lock
+    private JobRegistry registry;
+
+    // Entries of the one time jobs with a coalescing key, by their key
+    private ConcurrentHashMap<String, JobEntry> coalescingEntries;
+
+    private MetricsRecorder metrics;
+
+    // For Handler type jobs
+    private JobTimer jobTimer;
+    private FlexPlanner handlerFlexPlanner;
+
+    // For Alarm type jobs
+    private AlarmMultiplexer alarmMultiplexer;
+    private FlexPlanner alarmFlexPlanner;
+
+    // Runs fired by the wakeup alarm which are queued on an executor and have not started yet,
+    // guarded by itself. The device is kept awake till all of them have started.
+    private final HashSet<JobTask> wakeLockTasks = new HashSet<>();
+
+    // Constraints of jobs are checked against the latest device state
+    private DeviceState deviceState;
+
+    // Jobs which were due while their constraints were not met
+    private PendingConstraintQueue pendingJobs;
+
+    // Backend of a job depends on whether the device is in power saver mode
+    private volatile boolean powerSaverModeEnabled;
+
+    // Jobs without a type of their own are placed on a backend by their expected cost, while enabled
+    private PlacementPlanner placementPlanner;
+    private volatile boolean adaptivePlacementEnabled;
+
+    // Failed runs of jobs are retried after a randomized, exponentially growing delay
+    private RetryBackoff retryBackoff;
+
+    // Callbacks of jobs which are not run inline are run on this pool
+    private Executor jobWorkerPool;
+    private volatile int defaultExecutionPolicy = Job.ExecutionPolicy.EXECUTION_POLICY_INLINE;
+
+    // Periodic jobs added while enabled fire at a stable, hash based phase within their period
+    private volatile boolean phaseSpreadingEnabled;
+
+    // Stored jobs are restored lazily on first access after a process start
+    private JobStore jobStore;
+    private volatile boolean jobsRestored;
+
+    public static SmartScheduler getInstance(Context context) {
+        if (smartScheduler == null) {
+            synchronized (SmartScheduler.class) {
+                if (smartScheduler == null) {
+                    smartScheduler = new SmartScheduler(context);
+                }
+            }
+        }
+
+        return smartScheduler;
+    }
+
+    private SmartScheduler(Context context) {
+        this(context, new AndroidPlatform(context));
+    }
+
+    SmartScheduler(Context context, Platform platform) {
+        mContext = context;
+        this.platform = platform;
+        clock = platform.getClock();
+        registry = new JobRegistry();
+        coalescingEntries = new ConcurrentHashMap<>();
+        metrics = new MetricsRecorder();
+        handlerFlexPlanner = new FlexPlanner();
+        alarmMultiplexer = new AlarmMultiplexer(platform.getWakeupBackend(), metrics);
+        alarmFlexPlanner = new FlexPlanner();
+        placementPlanner = new PlacementPlanner(clock.elapsedRealtime());
+        jobWorkerPool = platform.getWorkerPool();
+        pendingJobs = new PendingConstraintQueue();
+        retryBackoff = new RetryBackoff(new Random());
+        deviceState = platform.getDeviceState();
+        jobStore = new JobStore(context.getFilesDir());
+        jobTimer = new JobTimer(new TimingWheel.Listener() {
+            @Override
+            public void onExpired(TimingWheel.Timeout timeout) {
+                HandlerJobTimeout handlerJobTimeout = (HandlerJobTimeout) timeout;
+
+                // Jobs run on an executor are only enqueued from the timer thread
+                if (handlerJobTimeout.entry.executor != null) {
+                    onHandlerJobTimeout(handlerJobTimeout);
+                    return;
+                }
+
+                // Hand the expired job over to the thread it was added from
+                handlerJobTimeout.dispatcher.dispatch(handlerJobTimeout);
+            }
+        }, HANDLER_JOB_ORDER, metrics, clock, platform.getTimerDispatcher());
+
+        // Start listening last, the listener may be called right away and needs all fields set
+        deviceState.start(new DeviceState.Listener() {
+            @Override
+            public void onDeviceStateChanged(DeviceState.Snapshot previous, DeviceState.Snapshot current) {
+                if (previous.powerSaveMode != current.powerSaveMode) {
+                    onPowerSaverModeChanged(current.powerSaveMode);
+                }
+
+                releasePendingJobs(current);
+            }
+        });
+    }
+
+    /**
+     * Timing wheel entry for a Handler type job, delivered to the dispatcher of the thread the job
+     * was added from.
+     */
+    private final class HandlerJobTimeout extends TimingWheel.Timeout implements Runnable {
+        private final JobEntry entry;
+        private final Dispatcher dispatcher;
+        private final FlexPlanner.Reservation reservation = new FlexPlanner.Reservation();
+
+        // Uptime (in millis) at which the current occurrence is due, the planned time may be earlier
+        private long deadline;
+        private long fireTime;
+
+        // Deadline of the occurrence a fixed rate job resumes at after a retry, -1 if not retrying
+        private long resumeDeadline = -1;
+
+        private HandlerJobTimeout(JobEntry entry, Dispatcher dispatcher) {
+            this.entry = entry;
+            this.dispatcher = dispatcher;
+        }
+
+        @Override
+        public void run() {
+            onHandlerJobTimeout(this);
+        }
+    }
+
+    /**
+     * Alarm queue entry for an Alarm type job.
+     */
+    private static final class AlarmJobEntry extends AlarmQueue.Entry {
+        private final JobEntry entry;
+        private final FlexPlanner.Reservation reservation = new FlexPlanner.Reservation();
+
+        // Elapsed realtime (in millis) at which the current occurrence is due, the queued one may be earlier
+        private long deadline;
+
+        // Deadline of the occurrence a fixed rate job resumes at after a retry, -1 if not retrying
+        private long resumeDeadline = -1;
+
+        private AlarmJobEntry(JobEntry entry) {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Task firing an occurrence of a job which has become due.
+     */
+    private final class JobTask extends ReadyTask {
+        private final JobEntry entry;
+
+        // Whether the task keeps the device awake till it starts, see holdWakeLock
+        private volatile boolean holdsWakeLock;
+
+        private JobTask(JobEntry entry, long dueTimeUptime) {
+            super(getReadyDeadline(entry.job, dueTimeUptime), entry.job.getPriority());
+            this.entry = entry;
+        }
+
+        @Override
+        public void run() {
+            if (holdsWakeLock) {
+                releaseWakeLock(this);
+            }
+            runJob(entry);
+        }
+    }
+
+    /**
+     * Implement this callback to receive onJobScheduled callback.
+     */
+    public interface JobScheduledCallback extends Serializable {
+        void onJobScheduled(Context context, Job job);
+    }
+
+    /**
+     * Extend this callback instead, in case the job's work goes on after onJobScheduled has
+     * returned, e.g. on a thread of its own. The run of the job only ends once the given
+     * {@link JobRun} has been completed, so that the job's {@link Job.OverlapPolicy} covers all
+     * of its work. Work which may run for long should stop once {@link JobRun#isCancelled()}
+     * returns true, i.e. once the run has been cancelled or has exceeded the job's execution timeout.
+     * <p>
+     * The completion handle is handed to the callback instead of being returned by it: a
+     * {@link java.util.concurrent.Future} returned by the callback offers no way to be notified
+     * once it is done below API level 24, so the scheduler would have to poll it. The given
+     * {@link JobRun} is a Future itself, which callers get hold of via {@link #getJobRuns(int)}.
+     */
+    public static abstract class AsyncJobScheduledCallback implements JobScheduledCallback {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Method called once the job is due, which starts a run of the job
+         *
+         * @param context Application context
+         * @param job     Job which is due
+         * @param run     Run which has started, to be ended via {@link JobRun#complete()} or
+         *                {@link JobRun#fail()} once the job's work is done
+         */
+        public abstract void onJobScheduled(Context context, Job job, JobRun run);
+
+        @Override
+        public final void onJobScheduled(Context context, Job job) {
+            // Runs are only started via onJobScheduled(Context, Job, JobRun)
+        }
+    }
+
+    /**
+     * Implement this callback in case the work of jobs coalesced as per
+     * {@link Job.CoalescingPolicy#COALESCING_POLICY_MERGE} can be merged, e.g. by uniting the sets
+     * of items both callbacks need to sync.
+     */
+    public interface MergeableJobScheduledCallback extends JobScheduledCallback {
+        /**
+         * Method to merge the work of a job added later into the work of this pending job
+         *
+         * @param callback Callback of the job added later
+         * @return Returns the callback doing the work of both jobs
+         */
+        JobScheduledCallback merge(JobScheduledCallback callback);
+    }
+
+    private final JobRun.Listener jobRunListener = new JobRun.Listener() {
+        @Override
+        public void onJobRunEnded(JobRun run, boolean failed) {
+            if (run.watchdog != null) {
+                platform.getTimerDispatcher().cancel(run.watchdog);
+            }
+            final JobEntry entry = run.entry;
+            entry.removeRun(run);
+            metrics.recordCallback(entry, clock.uptimeMillis() - run.startTime, failed);
+
+            if (run.isTimedOut()) {
+                // Ended by the watchdog on the timer thread, which must not do the job's follow-up work
+                try {
+                    dispatchOnJobThread(entry, new Runnable() {
+                        @Override
+                        public void run() {
+                            finishJob(entry, true);
+                        }
+                    });
+                } catch (Exception e) {
+                    Log.e(TAG, "Exception occurred while dispatching job " + entry.job.getJobId() + ": " + e);
+                    finishJob(entry, true);
+                }
+                return;
+            }
+
+            // Dependents learn about the completed run before the job may be removed, see removeOrphanedDependentJobs
+            if (!failed && !run.isCancelled() && entry.graphNode != null) {
+                runDependentJobs(entry);
+            }
+            finishJob(entry, failed);
+        }
+    };
+
+    /**
+     * Method to set the ExecutionPolicy for jobs which don't specify one. Defaults to
+     * {@link Job.ExecutionPolicy#EXECUTION_POLICY_INLINE}. Applies to jobs added afterwards.
+     *
+     * @param executionPolicy One of {@link Job.ExecutionPolicy#EXECUTION_POLICY_INLINE},
+     *                        {@link Job.ExecutionPolicy#EXECUTION_POLICY_POOL}, or
+     *                        {@link Job.ExecutionPolicy#EXECUTION_POLICY_SERIAL}
+     */
+    public void setDefaultExecutionPolicy(int executionPolicy) {
+        if (executionPolicy == Job.ExecutionPolicy.EXECUTION_POLICY_INLINE
+                || executionPolicy == Job.ExecutionPolicy.EXECUTION_POLICY_POOL
+                || executionPolicy == Job.ExecutionPolicy.EXECUTION_POLICY_SERIAL) {
+            defaultExecutionPolicy = executionPolicy;
+        }
+    }
+
+    /**
+     * Method to spread periodic jobs evenly over their period. Once enabled, each periodic job
+     * fires at a stable offset within its period, derived from a hash of its jobID, instead of one
+     * interval after it was added. This keeps jobs added at once with the same interval from
+     * firing at the same instant forever. Jobs which set an initial delay other than their
+     * interval keep it. Applies to jobs added afterwards.
+     *
+     * @param phaseSpreadingEnabled Whether or not periodic jobs need to be spread over their period
+     */
+    public void setPhaseSpreadingEnabled(boolean phaseSpreadingEnabled) {
+        this.phaseSpreadingEnabled = phaseSpreadingEnabled;
+    }
+
+    /**
+     * Method to place jobs which don't set a type of their own on the cheaper backend, instead of
+     * by their interval only. Once enabled, the backend of such a job is picked again for each
+     * occurrence, weighing the cost of a wakeup against the risk of the process dying before a
+     * Handler type job is due, taking into account Alarm type jobs firing nearby, power saver mode
+     * and the fire delays observed on either backend. Applies to jobs added afterwards and to the
+     * next occurrence of scheduled jobs.
+     *
+     * @param adaptivePlacementEnabled Whether or not jobs without a type need to be placed by their cost
+     */
+    public void setAdaptivePlacementEnabled(boolean adaptivePlacementEnabled) {
+        this.adaptivePlacementEnabled = adaptivePlacementEnabled;
+    }
+
+    /**
+     * Method to get the metrics recorded for all jobs since the process started
+     *
+     * @return Returns a copy of the current metrics
+     */
+    public SchedulerMetrics getMetrics() {
+        return metrics.snapshot();
+    }
+
+    /**
+     * Method to get the metrics recorded for a scheduled job. Metrics are reset once the job is
+     * replaced by another job with the same jobID.
+     *
+     * @param jobId JobID for which the metrics need to be fetched
+     * @return Returns a copy of the metrics of the given job in case one is currently scheduled, null otherwise
+     */
+    public SchedulerMetrics.JobMetrics getJobMetrics(int jobId) {
+        restoreJobs();
+        JobEntry entry = registry.get(jobId);
+        return entry != null ? MetricsRecorder.snapshot(entry) : null;
+    }
+
+    /**
+     * Method to get Job for a given jobID
+     *
+     * @param jobId JobID for which scheduled job needs to be fetched
+     * @return Returns Job object for the given jobID in case one is currently scheduled, null otherwise
+     */
+    public Job get(int jobId) {
+        restoreJobs();
+        JobEntry entry = registry.get(jobId);
+        return entry != null ? entry.job : null;
+    }
+
+    /**
+     * Method to check if Job with give JobId exists in the SmartScheduler or not
+     *
+     * @param jobId JobID for which scheduled job needs to be checked
+     * @return Returns true in case a job is currently scheduled with the given jobID, false otherwise
+     */
+    public boolean contains(int jobId) {
+        restoreJobs();
+        return registry.get(jobId) != null;
+    }
+
+    /**
+     * Method to check if Job exists in the SmartScheduler or not
+     *
+     * @param job Job which needs to be checked if it is scheduled or not
+     * @return Returns true in case given job is scheduled currently, false otherwise
+     */
+    public boolean contains(Job job) {
+        restoreJobs();
+        if (job == null)
+            return false;
+
+        JobEntry entry = registry.get(job.getJobId());
+        return entry != null && entry.job.equals(job);
+    }
+
+    /**
+     * Method to get the runs of a scheduled job which are in flight right now, e.g. to wait for
+     * them via {@link JobRun#get()}
+     *
+     * @param jobId JobID for which the runs need to be fetched
+     * @return Returns the runs of the given job whose callback has been called and which have not
+     * ended yet, an empty list in case no job is currently scheduled with the given jobID
+     */
+    public List<JobRun> getJobRuns(int jobId) {
+        restoreJobs();
+        JobEntry entry = registry.get(jobId);
+        return entry != null ? entry.getRuns() : new ArrayList<JobRun>();
+    }
+
+    /**
+     * Method to cancel the runs of a scheduled job which are in flight right now. Cancelled runs
+     * end right away, so that the job is scheduled as if they had completed. The job itself stays
+     * scheduled.
+     *
+     * @param jobId                 JobID for which the runs need to be cancelled
+     * @param mayInterruptIfRunning Whether or not callbacks run on the worker pool should be interrupted
+     * @return Returns true in case a run has been cancelled, false otherwise
+     */
+    public boolean cancelJobRuns(int jobId, boolean mayInterruptIfRunning) {
+        boolean cancelled = false;
+        for (JobRun run : getJobRuns(jobId)) {
+            cancelled |= run.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+
+    /**
+     * Method to schedule Job based on the specified JobParams. The job is stored on the calling
+     * thread before this method returns, i.e. its callback is serialized and a record is written
+     * to disk. Use {@link #addJobs(Collection)} to add many jobs with a single write.
+     *
+     * @param job Job which needs to be added
+     * @return Returns true in case given job was added successfully, false otherwise
+     */
+    public boolean addJob(Job job) {
+        if (!canBeAdded(job))
+            return false;
+
+        restoreJobs();
+        return addValidJob(job);
+    }
+
+    /**
+     * Method to schedule multiple Jobs in one pass. The wakeup alarm is re-armed and the JobStore
+     * is written at most once for the whole batch. In case a jobID occurs more than once, only the
+     * last Job with that jobID is added.
+     *
+     * @param jobs Jobs which need to be added
+     * @return Returns for each given job, in iteration order, true in case it was added successfully, false otherwise
+     */
+    public boolean[] addJobs(Collection<Job> jobs) {
+        if (jobs == null)
+            return new boolean[0];
+
+        boolean[] results = new boolean[jobs.size()];
+        restoreJobs();
+
+        // Index of the last valid job for each jobID
+        HashMap<Integer, Integer> lastIndices = new HashMap<>();
+        int index = 0;
+        for (Job job : jobs) {
+            if (canBeAdded(job)) {
+                lastIndices.put(job.getJobId(), index);
+            }
+            index++;
+        }
+
+        alarmMultiplexer.beginBatch();
+        jobStore.beginBatch();
+        try {
+            index = 0;
+            for (Job job : jobs) {
+                if (canBeAdded(job) && lastIndices.get(job.getJobId()) == index) {
+                    results[index] = addValidJob(job);
+                }
+                index++;
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while addJobs: " + e);
+        } finally {
+            jobStore.endBatch();
+            alarmMultiplexer.endBatch();
+        }
+
+        return results;
+    }
+
+    /**
+     * Method to schedule the jobs of a JobGraph as one unit. Jobs without prerequisites are
+     * scheduled as per their own timing, any other job is run on the worker pool the moment all
+     * of its prerequisites have completed a run. Dependent jobs are kept as long as any of their
+     * prerequisites is scheduled, and are not stored, so the graph needs to be added again once
+     * the process has been restarted. Any scheduled job with the same jobID as a job of the graph
+     * is replaced.
+     *
+     * @param graph JobGraph which needs to be added
+     * @return Returns true in case all jobs of the graph were added successfully, false otherwise
+     */
+    public boolean addJobGraph(JobGraph graph) {
+        if (graph == null)
+            return false;
+
+        List<Job> jobs = graph.getJobs();
+        for (Job job : jobs) {
+            if (!canBeAdded(job))
+                return false;
+        }
+
+        restoreJobs();
+        boolean result = true;
+        alarmMultiplexer.beginBatch();
+        jobStore.beginBatch();
+        try {
+            // Add dependent jobs before their prerequisites, so that they are in place once a prerequisite completes
+            for (int i = jobs.size() - 1; i >= 0 && result; i--) {
+                Job job = jobs.get(i);
+                JobGraphNode node = new JobGraphNode(graph.getPrerequisiteJobIds(job.getJobId()),
+                        graph.getDependentJobIds(job.getJobId()));
+                result = node.isRoot() ? addValidJob(job, node) : addDependentJob(job, node);
+            }
+
+            if (!result) {
+                for (Job job : jobs) {
+                    removeRestoredJob(job.getJobId());
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while addJobGraph: " + e);
+            result = false;
+        } finally {
+            jobStore.endBatch();
+            alarmMultiplexer.endBatch();
+        }
+
+        return result;
+    }
+
+    /**
+     * Method to remove all jobs of a JobGraph in one pass
+     *
+     * @param graph JobGraph which needs to be removed
+     * @return Returns true in case any job of the graph was removed, false otherwise
+     */
+    public boolean removeJobGraph(JobGraph graph) {
+        if (graph == null)
+            return false;
+
+        List<Job> jobs = graph.getJobs();
+        int[] jobIds = new int[jobs.size()];
+        for (int i = 0; i < jobIds.length; i++) {
+            jobIds[i] = jobs.get(i).getJobId();
+        }
+
+        boolean removed = false;
+        for (boolean result : removeJobs(jobIds)) {
+            removed |= result;
+        }
+        return removed;
+    }
+
+    /**
+     * Method to add a job of a JobGraph which has prerequisites. It is not armed on any backend,
+     * nor stored, as it is only run by its prerequisites.
+     */
+    private boolean addDependentJob(Job job, JobGraphNode graphNode) {
+        JobEntry previous = registry.get(job.getJobId());
+        JobEntry entry = newJobEntry(job, previous);
+        if (entry.executor == null) {
+            // Run on the worker pool instead of the prerequisite's thread, so that independent branches run in parallel
+            entry = new JobEntry(job, jobWorkerPool);
+        }
+        entry.graphNode = graphNode;
+
+        previous = registerJob(entry, null);
+        if (previous != null) {
+            cancelJobEntry(previous);
+        }
+        return true;
+    }
+
+    private static boolean canBeAdded(Job job) {
+        return job != null && job.getJobId() > 0 && job.getJobScheduledCallback() != null;
+    }
+
+    private boolean addValidJob(Job job) {
+        return coalesceJob(job) || addValidJob(job, null);
+    }
+
+    /**
+     * Method to coalesce a one time job into the pending job with the same coalescing key, if
+     * any, as per the added job's CoalescingPolicy. The pending job's due time is kept. A job
+     * replacing the pending one is scheduled and stored under its own jobID, the pending job is
+     * removed.
+     *
+     * @param job Job which needs to be added
+     * @return Returns true in case the job has been coalesced, false in case it needs to be added
+     */
+    private boolean coalesceJob(Job job) {
+        String coalescingKey = job.getCoalescingKey();
+        if (coalescingKey == null || job.isPeriodic())
+            return false;
+
+        JobEntry pending = coalescingEntries.get(coalescingKey);
+        if (!isJobValid(pending) || pending.getState() != JobEntry.STATE_SCHEDULED)
+            return false;
+
+        if (job.getCoalescingPolicy() == Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST) {
+            metrics.recordCoalescedJob();
+            return true;
+        }
+
+        // Claim the pending job, so that it can't start firing once it has been replaced
+        long delayInMillis = getRemainingDelayInMillis(pending);
+        if (!pending.compareAndSetState(JobEntry.STATE_SCHEDULED, JobEntry.STATE_CANCELLED))
+            return false;
+
+        Job coalescedJob = job.getCoalescingPolicy() == Job.CoalescingPolicy.COALESCING_POLICY_MERGE
+                ? mergeJobs(pending.job, job) : job;
+        if (pending.job.getJobId() != job.getJobId()) {
+            unregisterJob(pending.job.getJobId(), pending);
+        }
+        cancelJobEntry(pending);
+
+        metrics.recordCoalescedJob();
+        return addValidJob(coalescedJob, null, delayInMillis);
+    }
+
+    /**
+     * @return Returns the time (in millis) till the current occurrence of the given job is due
+     */
+    private long getRemainingDelayInMillis(JobEntry entry) {
+        Object dispatchHandle = entry.dispatchHandle;
+        if (dispatchHandle instanceof HandlerJobTimeout)
+            return Math.max(0, ((HandlerJobTimeout) dispatchHandle).deadline - clock.uptimeMillis());
+
+        if (dispatchHandle instanceof AlarmJobEntry)
+            return Math.max(0, ((AlarmJobEntry) dispatchHandle).deadline - clock.elapsedRealtime());
+
+        return getFirstDelayInMillis(entry.job);
+    }
+
+    private static Job mergeJobs(Job pendingJob, Job job) {
+        if (!(pendingJob.getJobScheduledCallback() instanceof MergeableJobScheduledCallback))
+            return job;
+
+        try {
+            JobScheduledCallback callback = ((MergeableJobScheduledCallback) pendingJob.getJobScheduledCallback())
+                    .merge(job.getJobScheduledCallback());
+            return callback != null ? job.withJobScheduledCallback(callback) : job;
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while merging job " + job.getJobId() + ": " + e);
+            return job;
+        }
+    }
+
+    /**
+     * Method to index the entry of a one time job by its coalescing key, so that later jobs with
+     * the same key are coalesced into it
+     */
+    private void indexCoalescingKey(JobEntry entry) {
+        if (entry.job.getCoalescingKey() != null && !entry.job.isPeriodic()) {
+            coalescingEntries.put(entry.job.getCoalescingKey(), entry);
+        }
+    }
+
+    /**
+     * @param graphNode Node linking the job to its JobGraph, null if the job is added on its own
+     */
+    private boolean addValidJob(Job job, JobGraphNode graphNode) {
+        return addValidJob(job, graphNode, getFirstDelayInMillis(job));
+    }
+
+    /**
+     * @param graphNode          Node linking the job to its JobGraph, null if the job is added on its own
+     * @param firstDelayInMillis Time (in millis) till the job's first occurrence is due
+     */
+    private boolean addValidJob(Job job, JobGraphNode graphNode, long firstDelayInMillis) {
+        // Replace any currently scheduled and stored job
+        JobEntry previous = registry.get(job.getJobId());
+        JobEntry entry = newJobEntry(job, previous);
+        entry.graphNode = graphNode;
+        previous = registerJob(entry, clock.currentTimeMillis() + firstDelayInMillis);
+        if (previous != null) {
+            cancelJobEntry(previous);
+        }
+
+        boolean result = scheduleJob(entry, firstDelayInMillis);
+        if (result) {
+            indexCoalescingKey(entry);
+        } else {
+            unregisterJob(job.getJobId(), entry);
+            entry.cancel();
+        }
+
+        return result;
+    }
+
+    /**
+     * Method to map the jobID of the given entry to it and to store or unstore its job, in one
+     * critical section with any other change of the registry and the JobStore. Racing adds and
+     * removes of the same jobID thus leave both with the same job.
+     *
+     * @param entry         Entry which needs to be registered
+     * @param firstFireTime Wall clock time (in millis) of the job's first occurrence, null in case
+     *                      the job is not stored
+     * @return Returns the entry previously mapped to the jobID, null if there was none
+     */
+    private JobEntry registerJob(JobEntry entry, Long firstFireTime) {
+        Job job = entry.job;
+        synchronized (jobStore) {
+            JobEntry previous = registry.put(job.getJobId(), entry);
+            if (firstFireTime != null) {
+                jobStore.put(job, firstFireTime);
+            } else {
+                jobStore.remove(job.getJobId());
+            }
+            return previous;
+        }
+    }
+
+    /**
+     * Method to remove the entry for the given jobID along with its stored job, in one critical
+     * section with any other change of the registry and the JobStore
+     *
+     * @param jobId    JobID for which the entry needs to be removed
+     * @param expected Entry which is expected to be mapped, null to remove any entry
+     * @return Returns the removed entry, null if nothing was removed
+     */
+    private JobEntry unregisterJob(int jobId, JobEntry expected) {
+        synchronized (jobStore) {
+            JobEntry entry = registry.remove(jobId, expected);
+            if (entry != null) {
+                jobStore.remove(jobId);
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Method to be called once the device has booted or the app has been updated, since the
+     * system clears all alarms in both cases. Restores all stored jobs and re-arms them in one batch.
+     */
+    public void onBootCompleted() {
+        restoreJobs();
+        alarmMultiplexer.onAlarmsCleared();
+    }
+
+    /**
+     * Method to create the entry for a job, resolving the executor its callback is run on
+     *
+     * @param job      Job for which the entry needs to be created
+     * @param previous Entry currently scheduled for the same jobID, if any
+     * @return Returns the new entry
+     */
+    private JobEntry newJobEntry(Job job, JobEntry previous) {
+        int executionPolicy = job.getExecutionPolicy();
+        if (executionPolicy == Job.ExecutionPolicy.EXECUTION_POLICY_DEFAULT) {
+            executionPolicy = defaultExecutionPolicy;
+        }
+
+        switch (executionPolicy) {
+            case Job.ExecutionPolicy.EXECUTION_POLICY_POOL:
+                return new JobEntry(job, jobWorkerPool);
+
+            case Job.ExecutionPolicy.EXECUTION_POLICY_SERIAL:
+                // Keep the serial executor of a replaced job, so that the old and the new job never overlap
+                Executor serialExecutor = previous != null && previous.executor instanceof SerialExecutor
+                        ? previous.executor : new SerialExecutor(jobWorkerPool);
+                return new JobEntry(job, serialExecutor);
+
+            default:
+                return new JobEntry(job, null);
+        }
+    }
+
+    private boolean scheduleJob(JobEntry entry, long delayInMillis) {
+        placeJob(entry, clock.elapsedRealtime() + delayInMillis);
+        switch (getBackendType(entry)) {
+            case Job.Type.JOB_TYPE_HANDLER:
+                return addHandlerJob(entry, delayInMillis);
+
+            case Job.Type.JOB_TYPE_ALARM:
+                return addAlarmJob(entry, clock.elapsedRealtime() + delayInMillis);
+
+            default:
+                Log.e(TAG, "Error occurred while addJob: JobType is INVALID");
+                return false;
+        }
+    }
+
+    /**
+     * Method to get the backend a job entry is scheduled with, i.e. the backend the job has been
+     * placed on in case adaptive placement is enabled, otherwise as per {@link #getBackendType(Job)}.
+     *
+     * @param entry Job entry for which the backend needs to be fetched
+     * @return Returns either {@link Job.Type#JOB_TYPE_HANDLER} or {@link Job.Type#JOB_TYPE_ALARM}
+     */
+    private int getBackendType(JobEntry entry) {
+        int placedBackendType = entry.placedBackendType;
+        if (adaptivePlacementEnabled && placedBackendType != Job.Type.JOB_TYPE_NONE)
+            return placedBackendType;
+
+        return getBackendType(entry.job);
+    }
+
+    /**
+     * Method to pick the backend for the next occurrence of a job without a type of its own, in
+     * case adaptive placement is enabled
+     *
+     * @param entry    Job entry which needs to be placed
+     * @param deadline Elapsed realtime (in millis) at which the next occurrence is due
+     */
+    private void placeJob(JobEntry entry, long deadline) {
+        Job job = entry.job;
+        if (!adaptivePlacementEnabled || !job.hasDefaultJobType())
+            return;
+
+        // The job's own wakeup, if any, doesn't count as one it could share
+        Object dispatchHandle = entry.dispatchHandle;
+        FlexPlanner.Reservation reservation = dispatchHandle instanceof AlarmJobEntry
+                ? ((AlarmJobEntry) dispatchHandle).reservation : null;
+        boolean wakeupShared = alarmFlexPlanner.hasSharedWakeup(reservation, deadline, getFlexInMillis(job));
+        entry.placedBackendType = placementPlanner.place(job, clock.elapsedRealtime(), wakeupShared,
+                powerSaverModeEnabled);
+    }
+
+    /**
+     * Method to get the backend a job is scheduled with. In power saver mode, it is chosen by the
+     * interval of the job only, otherwise by the type of the job.
+     *
+     * @param job Job for which the backend needs to be fetched
+     * @return Returns either {@link Job.Type#JOB_TYPE_HANDLER} or {@link Job.Type#JOB_TYPE_ALARM}
+     */
+    private int getBackendType(Job job) {
+        if (powerSaverModeEnabled) {
+            // Schedule via handlers if mIntervalMillis is less than JOB_TYPE_HANDLER_THRESHOLD
+            return job.getIntervalMillis() < JOB_TYPE_HANDLER_THRESHOLD ? Job.Type.JOB_TYPE_HANDLER : Job.Type.JOB_TYPE_ALARM;
+        }
+
+        return job.getJobType();
+    }
+
+    private long getFirstDelayInMillis(Job job) {
+        if (!job.isPeriodic())
+            return job.getIntervalMillis();
+
+        // Only periodic jobs without an initial delay of their own are moved to their phase
+        if (phaseSpreadingEnabled && job.getIntervalMillis() > 0
+                && job.getInitialDelayInMillis() == job.getIntervalMillis()) {
+            return PhaseSpreading.getDelayInMillis(job, clock.currentTimeMillis());
+        }
+
+        return job.getInitialDelayInMillis();
+    }
+
+    /**
+     * Method to restore the jobs stored by a previous process, in case not done already. Periodic
+     * jobs resume at their next occurrence, overdue one time jobs are scheduled right away. Other
+     * callers wait till the restore has finished, so that a job they add is never replaced by a
+     * stored one.
+     */
+    private void restoreJobs() {
+        if (jobsRestored)
+            return;
+
+        synchronized (this) {
+            if (jobsRestored)
+                return;
+
+            long now = clock.currentTimeMillis();
+
+            alarmMultiplexer.beginBatch();
+            try {
+                for (JobStore.StoredJob storedJob : jobStore.load()) {
+                    Job job = storedJob.job;
+
+                    long fireTime = storedJob.firstFireTime;
+                    if (fireTime < now) {
+                        if (job.isPeriodic() && job.getIntervalMillis() > 0) {
+                            fireTime += ((now - fireTime) / job.getIntervalMillis() + 1) * job.getIntervalMillis();
+                        } else {
+                            fireTime = now;
+                        }
+                    }
+
+                    // Jobs which have been registered already are newer than the stored ones
+                    JobEntry entry = newJobEntry(job, null);
+                    if (registry.putIfAbsent(job.getJobId(), entry) != null)
+                        continue;
+
+                    if (scheduleJob(entry, fireTime - now)) {
+                        indexCoalescingKey(entry);
+                    } else {
+                        registry.remove(job.getJobId(), entry);
+                    }
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Exception occurred while restoreJobs: " + e);
+            } finally {
+                alarmMultiplexer.endBatch();
+                jobsRestored = true;
+            }
+        }
+    }
+
+    /**
+     * Method to remove a job
+     *
+     * @param jobId Job which needs to be removed
+     * @return Returns true in case given job was removed successfully, false otherwise
+     */
+    public boolean removeJob(int jobId) {
+        restoreJobs();
+        return removeRestoredJob(jobId);
+    }
+
+    /**
+     * Method to remove multiple jobs in one pass. The wakeup alarm is re-armed and the JobStore is
+     * written at most once for the whole batch.
+     *
+     * @param jobIds Jobs which need to be removed
+     * @return Returns for each given jobID true in case its job was removed successfully, false otherwise
+     */
+    public boolean[] removeJobs(int[] jobIds) {
+        if (jobIds == null)
+            return new boolean[0];
+
+        boolean[] results = new boolean[jobIds.length];
+        restoreJobs();
+
+        alarmMultiplexer.beginBatch();
+        jobStore.beginBatch();
+        try {
+            for (int i = 0; i < jobIds.length; i++) {
+                results[i] = removeRestoredJob(jobIds[i]);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while removeJobs: " + e);
+        } finally {
+            jobStore.endBatch();
+            alarmMultiplexer.endBatch();
+        }
+
+        return results;
+    }
+
+    private boolean removeRestoredJob(int jobId) {
+        JobEntry entry = unregisterJob(jobId, null);
+        if (entry == null)
+            return false;
+
+        cancelJobEntry(entry);
+        removeOrphanedDependentJobs(entry);
+        return true;
+    }
+
+    /**
+     * Method to cancel a job entry which is no longer mapped in the registry
+     */
+    private void cancelJobEntry(JobEntry entry) {
+        entry.cancel();
+        pendingJobs.remove(entry);
+        if (entry.job.getCoalescingKey() != null) {
+            coalescingEntries.remove(entry.job.getCoalescingKey(), entry);
+        }
+
+        Object dispatchHandle = entry.dispatchHandle;
+        if (dispatchHandle instanceof HandlerJobTimeout) {
+            HandlerJobTimeout timeout = (HandlerJobTimeout) dispatchHandle;
+            jobTimer.cancel(timeout);
+            handlerFlexPlanner.release(timeout.reservation);
+
+        } else if (dispatchHandle instanceof AlarmJobEntry) {
+            AlarmJobEntry alarmJobEntry = (AlarmJobEntry) dispatchHandle;
+            alarmMultiplexer.cancel(alarmJobEntry);
+            alarmFlexPlanner.release(alarmJobEntry.reservation);
+        }
+    }
+
+    /**
+     * Method to check if the Job entry is valid or not
+     *
+     * @param entry Job entry which needs to be checked to be valid or not
+     * @return Returns true in case given entry is still the scheduled one for its jobID, false otherwise
+     */
+    private boolean isJobValid(JobEntry entry) {
+        return entry != null && !entry.isCancelled() && registry.get(entry.job.getJobId()) == entry;
+    }
+
+    private void onJobScheduled(JobEntry entry) {
+        if (isJobValid(entry)) {
+            onJobScheduled(new JobTask(entry, clock.uptimeMillis()));
+        }
+    }
+
+    /**
+     * @return Returns true in case the task has been queued on the job's executor, false otherwise
+     */
+    private boolean onJobScheduled(JobTask task) {
+        // Check if the scheduled Job is valid and claim it, so that it is queued only once at a time
+        JobEntry entry = task.entry;
+        if (!isJobValid(entry))
+            return false;
+
+        switch (entry.startRun()) {
+            case JobEntry.RUN_QUEUED:
+                // Run once the current run of the Job has ended
+                entry.queuedTask = task;
+                return false;
+
+            case JobEntry.RUN_SKIPPED:
+                metrics.recordOverlapSkip();
+                return false;
+        }
+
+        entry.readyTask = task;
+        if (entry.executor == null) {
+            task.run();
+            return false;
+        }
+
+        try {
+            // Jobs queued on the worker pool are run earliest deadline first
+            entry.executor.execute(task);
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while enqueuing job " + entry.job.getJobId() + ": " + e);
+            finishJob(entry);
+            return false;
+        }
+    }
+
+    /**
+     * Method to keep the device awake till the given task has started, since the wakeup alarm
+     * only keeps it awake till {@link #onAlarmWakeup()} returns
+     *
+     * @param task Task fired by the wakeup alarm, which is about to be queued on an executor
+     */
+    private void holdWakeLock(JobTask task) {
+        synchronized (wakeLockTasks) {
+            task.holdsWakeLock = true;
+            wakeLockTasks.add(task);
+            platform.getWakeupBackend().acquireWakeLock(WAKE_LOCK_TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Method to let the device sleep again once no task fired by the wakeup alarm is waiting to
+     * start anymore
+     *
+     * @param task Task which has started or won't be run
+     */
+    private void releaseWakeLock(JobTask task) {
+        synchronized (wakeLockTasks) {
+            task.holdsWakeLock = false;
+            if (wakeLockTasks.remove(task) && wakeLockTasks.isEmpty()) {
+                platform.getWakeupBackend().releaseWakeLock();
+            }
+        }
+    }
+
+    private void runJob(JobEntry entry) {
+        Job job = entry.job;
+        boolean parked = false;
+        boolean started = false;
+        try {
+            // Job may have been removed while it was queued
+            if (entry.isCancelled())
+                return;
+
+            // Park the Job till it meets its net connectivity and charging requirements
+            if (!deviceState.getSnapshot().meetsConstraints(job)) {
+                // A concurrent run of the Job is parked already and runs once for both
+                if (!pendingJobs.park(entry))
+                    return;
 
-    public static SmartScheduler getInstance(Context context) {
-        if (smartScheduler == null) {
-            synchronized (SmartScheduler.class) {
-                if (smartScheduler == null) {
-                    smartScheduler = new SmartScheduler(context);
+                metrics.recordConstraintDeferral(entry);
+
+                // Device state may have changed before the Job was parked
+                if (!deviceState.getSnapshot().meetsConstraints(job) || !pendingJobs.remove(entry)) {
+                    parked = true;
+                    return;
                 }
             }
-        }
 
-        return smartScheduler;
-    }
+            // Schedule the Job as all its requirements are met, the run ends via its JobRun from now on
+            JobRun run = startJobRun(entry);
+            started = true;
 
-    private SmartScheduler(Context context) {
-        mContext = context;
-        scheduledJobs = new HashMap<>();
-        jobHandlers = new HashMap<>();
-        jobRunnables = new HashMap<>();
+            if (job.getJobScheduledCallback() instanceof AsyncJobScheduledCallback) {
+                // Run ends once the callback has completed its JobRun
+                try {
+                    ((AsyncJobScheduledCallback) job.getJobScheduledCallback()).onJobScheduled(mContext, job, run);
+                } catch (Exception e) {
+                    Log.e(TAG, "Exception occurred while onJobScheduled: " + e);
+                    run.fail(e);
+                }
+                return;
+            }
+
+            // Callbacks run on the worker pool are interrupted once their run is cancelled or times out
+            if (entry.executor != null) {
+                run.attachRunner(Thread.currentThread());
+            }
+            try {
+                job.getJobScheduledCallback().onJobScheduled(mContext, job);
+                run.complete();
+            } catch (Exception e) {
+                Log.e(TAG, "Exception occurred while onJobScheduled: " + e);
+                run.fail(e);
+            } finally {
+                run.detachRunner();
+                // Ends the run in case the callback has thrown an Error, no-op otherwise
+                run.fail();
+            }
+
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while onJobScheduled: " + e);
+
+        } finally {
+            // Parked Jobs stay claimed, so that a Periodic Job is parked only once
+            if (!parked && !started) {
+                finishJob(entry);
+            }
+        }
     }
 
     /**
-     * Implement this callback to receive onJobScheduled callback.
+     * Method to start a run of the given job, arming a watchdog in case the job has an execution
+     * timeout. Once the run exceeds it, the watchdog ends the run as failed and interrupts its
+     * callback if it is run on the worker pool. Callbacks run inline can't be interrupted, but
+     * their job no longer waits for them to return. Retrying or rescheduling the job is handed
+     * to the thread the job is run on, see dispatchOnJobThread.
+     *
+     * @param entry Entry of the job whose callback is about to be called
+     * @return Returns the run of the job
      */
-    public interface JobScheduledCallback extends Serializable {
-        void onJobScheduled(Context context, Job job);
+    private JobRun startJobRun(JobEntry entry) {
+        final JobRun run = new JobRun(entry, clock.uptimeMillis(), jobRunListener);
+        entry.addRun(run);
+
+        Long executionTimeout = entry.job.getExecutionTimeoutInMillis();
+        if (executionTimeout != null) {
+            run.watchdog = new Runnable() {
+                @Override
+                public void run() {
+                    if (run.timeOut()) {
+                        metrics.recordTimeout();
+                        Log.e(TAG, "Job " + run.getJobId() + " has exceeded its execution timeout");
+                    }
+                }
+            };
+            platform.getTimerDispatcher().dispatchAt(run.watchdog, run.startTime + executionTimeout);
+        }
+        return run;
     }
 
     /**
-     * Method to get Job for a given jobID
+     * Method to run all parked jobs whose constraints are met in the given device state. Released
+     * jobs keep the deadline of the occurrence they were parked for and are run earliest deadline
+     * first.
      *
-     * @param jobId JobID for which scheduled job needs to be fetched
-     * @return Returns Job object for the given jobID in case one is currently scheduled, null otherwise
+     * @param snapshot Latest state of the device
      */
-    public Job get(int jobId) {
-        return scheduledJobs.get(jobId);
+    private void releasePendingJobs(DeviceState.Snapshot snapshot) {
+        if (pendingJobs.isEmpty())
+            return;
+
+        List<JobEntry> released = pendingJobs.release(snapshot);
+        List<JobTask> tasks = new ArrayList<>(released.size());
+        for (JobEntry entry : released) {
+            ReadyTask readyTask = entry.readyTask;
+            tasks.add(readyTask instanceof JobTask ? (JobTask) readyTask : new JobTask(entry, clock.uptimeMillis()));
+        }
+        Collections.sort(tasks);
+
+        for (JobTask task : tasks) {
+            dispatchClaimedJob(task);
+        }
     }
 
     /**
-     * Method to check if Job with give JobId exists in the SmartScheduler or not
+     * Method to run a job whose run has been claimed already, e.g. once it is released or once
+     * its previous run has ended. The job is run on its executor, inline Handler type jobs on the
+     * thread they were added from, and any other inline job on the main thread, just as when
+     * fired by the wakeup alarm. It is never run on the current thread, which may be the timer
+     * thread or the thread of a caller which has ended a run.
      *
-     * @param jobId JobID for which scheduled job needs to be checked
-     * @return Returns true in case a job is currently scheduled with the given jobID, false otherwise
+     * @param task Task of the occurrence which needs to be run
      */
-    public boolean contains(int jobId) {
-        return scheduledJobs.containsKey(jobId);
+    private void dispatchClaimedJob(JobTask task) {
+        JobEntry entry = task.entry;
+        try {
+            dispatchOnJobThread(entry, task);
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while dispatching job " + entry.job.getJobId() + ": " + e);
+            finishJob(entry);
+        }
     }
 
     /**
-     * Method to check if Job exists in the SmartScheduler or not
+     * Method to run a task on the thread the given job is run on, i.e. on the job's executor, on
+     * the thread an inline Handler type job was added from, or on the main thread otherwise.
      *
-     * @param job Job which needs to be checked if it is scheduled or not
-     * @return Returns true in case given job is scheduled currently, false otherwise
+     * @param entry Entry of the job the task belongs to
+     * @param task  Task which needs to be run
      */
-    public boolean contains(Job job) {
-        return scheduledJobs.containsValue(job);
+    private void dispatchOnJobThread(JobEntry entry, Runnable task) {
+        Object dispatchHandle = entry.dispatchHandle;
+        if (entry.executor != null) {
+            entry.executor.execute(task);
+        } else if (dispatchHandle instanceof HandlerJobTimeout) {
+            ((HandlerJobTimeout) dispatchHandle).dispatcher.dispatch(task);
+        } else {
+            platform.getMainDispatcher().dispatch(task);
+        }
+    }
+
+    private void finishJob(JobEntry entry) {
+        finishJob(entry, false);
     }
 
     /**
-     * Method to schedule Job based on the specified JobParams
+     * Method to end a run of a job, rescheduling or removing the job as needed
      *
-     * @param job Job which needs to be added
-     * @return Returns true in case given job was added successfully, false otherwise
+     * @param entry  Entry of the job whose run has ended
+     * @param failed Whether or not the run has failed, so that it may need to be retried
      */
-    public boolean addJob(Job job) {
-        if (job == null || job.getJobId() <= 0 || job.getJobScheduledCallback() == null)
-            return false;
+    private void finishJob(JobEntry entry, boolean failed) {
+        Job job = entry.job;
+        if (!failed) {
+            entry.failedAttempts = 0;
+        }
+
+        if (isDependentJob(entry)) {
+            finishDependentJob(entry);
 
-        boolean result = false;
+        } else if (!job.isPeriodic()) {
+            // Keep one time Jobs till a run has succeeded or all attempts have failed
+            if (failed && entry.endRun() == JobEntry.END_IDLE && retryJob(entry))
+                return;
 
-        // Remove any currently running jobs
-        removeJob(job.getJobId());
+            // Remove one time Jobs after they have been scheduled
+            unregisterJob(job.getJobId(), entry);
+            cancelJobEntry(entry);
+            removeOrphanedDependentJobs(entry);
 
-        switch (job.getJobType()) {
-            case Job.Type.JOB_TYPE_HANDLER:
-                result = addHandlerJob(job);
+        } else {
+            switch (entry.endRun()) {
+                case JobEntry.END_CANCELLED:
+                    // Job was removed while firing
+                    cancelJobEntry(entry);
+                    break;
+
+                case JobEntry.END_QUEUED_RUN_STARTED:
+                    runQueuedJob(entry);
+                    break;
+
+                case JobEntry.END_IDLE:
+                    if (failed && retryJob(entry))
+                        break;
+
+                    if (!isFixedRate(job)) {
+                        // Fixed Delay Jobs are scheduled for the next time only once their run has ended
+                        armFixedDelayJob(entry);
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Method to run the occurrence of a job which was due while its previous run was in flight
+     */
+    private void runQueuedJob(JobEntry entry) {
+        JobTask queuedTask = entry.queuedTask instanceof JobTask
+                ? (JobTask) entry.queuedTask : new JobTask(entry, clock.uptimeMillis());
+        entry.queuedTask = null;
+        entry.readyTask = queuedTask;
+        dispatchClaimedJob(queuedTask);
+    }
+
+    /**
+     * @return Returns true in case the given job is part of a JobGraph and has prerequisites
+     */
+    private static boolean isDependentJob(JobEntry entry) {
+        JobGraphNode graphNode = entry.graphNode;
+        return graphNode != null && !graphNode.isRoot();
+    }
+
+    /**
+     * Method to end a run of a dependent job of a JobGraph. The job stays scheduled for the next
+     * runs of its prerequisites as long as any of them is scheduled, failed runs are not retried.
+     *
+     * @param entry Entry of the job whose run has ended
+     */
+    private void finishDependentJob(JobEntry entry) {
+        switch (entry.endRun()) {
+            case JobEntry.END_CANCELLED:
+                cancelJobEntry(entry);
                 break;
 
-            case Job.Type.JOB_TYPE_ALARM:
-                result = addAlarmJob(job);
+            case JobEntry.END_QUEUED_RUN_STARTED:
+                runQueuedJob(entry);
                 break;
 
-            default:
-                Log.e(TAG, "Error occurred while addJob: JobType is INVALID");
+            case JobEntry.END_IDLE:
+                if (hasScheduledPrerequisite(entry))
+                    break;
+
+                // All prerequisites have been removed, e.g. one time jobs once they have run
+                if (registry.remove(entry.job.getJobId(), entry) != null) {
+                    cancelJobEntry(entry);
+                    removeOrphanedDependentJobs(entry);
+                }
                 break;
         }
+    }
 
-        // Add Job to scheduledJobs if it is successfully scheduled
-        if (result) {
-            scheduledJobs.put(job.getJobId(), job);
+    private boolean hasScheduledPrerequisite(JobEntry entry) {
+        for (int prerequisiteJobId : entry.graphNode.prerequisiteJobIds) {
+            if (registry.get(prerequisiteJobId) != null)
+                return true;
         }
-
-        return result;
+        return false;
     }
 
     /**
-     * Method to remove a job
+     * Method to remove the dependent jobs of a JobGraph job which has been removed, which have no
+     * scheduled prerequisite left and are not firing, as they would never be run again. Their
+     * own dependents are removed likewise. Completed runs of a job are passed on to its dependents
+     * before the job is removed, so a dependent which is idle now can't be made ready anymore.
+     * Firing dependents are removed by {@link #finishDependentJob(JobEntry)} once their run has ended.
      *
-     * @param jobId Job which needs to be removed
-     * @return Returns true in case given job was removed successfully, false otherwise
+     * @param entry Entry of the job which has been removed or given up on
      */
-    public boolean removeJob(int jobId) {
+    private void removeOrphanedDependentJobs(JobEntry entry) {
+        if (entry.graphNode == null)
+            return;
 
-        // Remove Jobs if it exists
-        removeHandlerJob(jobId);
-        removeAlarmJob(jobId);
+        for (int dependentJobId : entry.graphNode.dependentJobIds) {
+            JobEntry dependent = registry.get(dependentJobId);
+            if (dependent == null || !isDependentJob(dependent) || hasScheduledPrerequisite(dependent))
+                continue;
 
-        if (scheduledJobs != null && scheduledJobs.get(jobId) != null) {
-            scheduledJobs.remove(jobId);
-            return true;
-        }
+            // Claim the idle dependent, so that it can't start firing meanwhile
+            if (!dependent.compareAndSetState(JobEntry.STATE_SCHEDULED, JobEntry.STATE_CANCELLED))
+                continue;
 
-        return false;
+            registry.remove(dependentJobId, dependent);
+            cancelJobEntry(dependent);
+            removeOrphanedDependentJobs(dependent);
+        }
     }
 
     /**
-     * Method to check if the Job is valid or not
+     * Method to run the dependent jobs of a JobGraph job whose run has completed, which have no
+     * other prerequisites left to complete. Jobs which become ready at once are run earliest
+     * deadline first.
      *
-     * @param job Job which needs to be checked to be valid or not
-     * @return Returns true in case given job is valid, false otherwise
+     * @param entry Entry of the job whose run has completed
      */
-    private boolean isJobValid(Job job) {
-        try {
-            if (job != null && scheduledJobs.get(job.getJobId()) != null
-                    && (!Utils.checkIfPowerSaverModeEnabled(mContext) ||
-                    scheduledJobs.get(job.getJobId()).getJobType() == job.getJobType())
-                    && scheduledJobs.get(job.getJobId()).getIntervalMillis() == job.getIntervalMillis()) {
-                return true;
+    private void runDependentJobs(JobEntry entry) {
+        int jobId = entry.job.getJobId();
+        long now = clock.uptimeMillis();
+        List<JobTask> tasks = new ArrayList<>();
+
+        for (int dependentJobId : entry.graphNode.dependentJobIds) {
+            JobEntry dependent = registry.get(dependentJobId);
+            JobGraphNode graphNode = dependent != null ? dependent.graphNode : null;
+            if (graphNode != null && graphNode.onPrerequisiteCompleted(jobId)) {
+                tasks.add(new JobTask(dependent, now));
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Exception occurred while isJobValid: " + e);
-            return false;
         }
+        Collections.sort(tasks);
 
-        return false;
-    }
-
-    private void onJobScheduled(Job job) {
-        // Check if a valid Job has been passed as param
-        if (job == null)
-            return;
-
-        // Check if the scheduled Job is valid or not
-        if (!isJobValid(job)) {
-            // Remove current scheduled Job
-            removeJob(job.getJobId());
-            return;
+        for (JobTask task : tasks) {
+            onJobScheduled(task);
         }
+    }
 
-        // Check if the scheduled Job meets its net connectivity requirements
-        if (job.getNetworkType() == Job.NetworkType.NETWORK_TYPE_CONNECTED && !isConnected())
-            return;
+    private static boolean isFixedRate(Job job) {
+        return job.isPeriodic() && job.getPeriodicMode() != Job.PeriodicMode.PERIODIC_MODE_FIXED_DELAY;
+    }
 
-        // Check if the scheduled Job meets its net connectivity metering requirements
-        if (job.getNetworkType() == Job.NetworkType.NETWORK_TYPE_UNMETERED && !isConnected() && !isConnectionUnMetered())
-            return;
+    /**
+     * Method to get the deadline of the occurrence following the given one of a fixed rate job.
+     * Occurrences which are due already are kept for {@link Job.CatchUpPolicy#CATCH_UP_POLICY_FIRE_ALL}
+     * only, otherwise the next occurrence after now is returned.
+     *
+     * @param job      Job for which the next deadline needs to be fetched
+     * @param deadline Deadline of the occurrence being fired
+     * @param now      Current time on the same clock as the deadline
+     * @return Returns the deadline of the next occurrence to be fired
+     */
+    private static long getNextDeadline(Job job, long deadline, long now) {
+        long intervalMillis = job.getIntervalMillis();
+        long nextDeadline = deadline + intervalMillis;
+        if (nextDeadline > now || job.getCatchUpPolicy() == Job.CatchUpPolicy.CATCH_UP_POLICY_FIRE_ALL)
+            return nextDeadline;
 
-        // Schedule the Job as all its requirements are met
-        job.getJobScheduledCallback().onJobScheduled(mContext, job);
+        if (intervalMillis <= 0)
+            return now;
 
-        // Remove one time Jobs after they have been scheduled
-        if (!job.isPeriodic()) {
-            removeJob(job.getJobId());
-        }
+        return nextDeadline + ((now - nextDeadline) / intervalMillis + 1) * intervalMillis;
     }
 
-    public void onHandlerJobScheduled(int jobID) {
-        if (scheduledJobs != null && scheduledJobs.get(jobID) != null) {
-            onJobScheduled(scheduledJobs.get(jobID));
-            return;
-        }
-
-        // Handler Job is not valid, so remove it
-        removeHandlerJob(jobID);
+    /**
+     * Method to check if an occurrence of a fixed rate job is skipped, since it fires so late that
+     * the next occurrence is due already
+     */
+    private static boolean isSkipped(Job job, long deadline, long now) {
+        return job.getCatchUpPolicy() == Job.CatchUpPolicy.CATCH_UP_POLICY_SKIP
+                && deadline + job.getIntervalMillis() <= now;
     }
 
-    public void onAlarmJobScheduled(int jobID) {
-        if (scheduledJobs != null && scheduledJobs.get(jobID) != null) {
-            onJobScheduled(scheduledJobs.get(jobID));
-            return;
-        }
+    /**
+     * Method to fire a job whose run has failed again after a backoff delay, via the job's current
+     * backend. A periodic job resumes at its next occurrence afterwards, so a retry which would be
+     * due after that occurrence is dropped.
+     *
+     * @param entry Entry of the job whose run has failed
+     * @return Returns true in case a retry has been scheduled, false otherwise
+     */
+    private boolean retryJob(JobEntry entry) {
+        Job job = entry.job;
+        int attempt = entry.failedAttempts + 1;
+        entry.failedAttempts = 0;
+        if (attempt >= job.getRetryMaxAttempts())
+            return false;
 
-        // Alarm Job is not valid, so remove it
-        removeAlarmJob(jobID);
-    }
+        long delayInMillis = retryBackoff.getDelayInMillis(job, attempt);
+        boolean fixedRate = isFixedRate(job);
+        Object dispatchHandle = entry.dispatchHandle;
+        int backendType = getBackendType(entry);
 
-    public void onPeriodicTaskJobScheduled(String periodicTaskTag, Bundle bundle) {
-        try {
-            if (bundle == null)
-                return;
+        if (backendType == Job.Type.JOB_TYPE_HANDLER && dispatchHandle instanceof HandlerJobTimeout) {
+            HandlerJobTimeout timeout = (HandlerJobTimeout) dispatchHandle;
+            long now = clock.uptimeMillis();
+            if (job.isPeriodic() && now + delayInMillis >= (fixedRate ? timeout.deadline : now + job.getIntervalMillis()))
+                return false;
 
-            int jobID = bundle.getInt(SmartScheduler.PERIODIC_TASK_JOB_ID_KEY);
+            if (fixedRate) {
+                if (!jobTimer.cancel(timeout))
+                    return false;
 
-            if (scheduledJobs != null && scheduledJobs.get(jobID) != null) {
-                onJobScheduled(scheduledJobs.get(jobID));
-                return;
+                handlerFlexPlanner.release(timeout.reservation);
+                timeout.resumeDeadline = timeout.deadline;
             }
+            armHandlerJob(entry, timeout, now + delayInMillis);
 
-        } catch (Exception e) {
-            Log.e(TAG, "Exception occurred while onPeriodicTaskJobScheduled: " + e);
-        }
-    }
+        } else if (backendType == Job.Type.JOB_TYPE_ALARM && dispatchHandle instanceof AlarmJobEntry) {
+            AlarmJobEntry alarmJobEntry = (AlarmJobEntry) dispatchHandle;
+            long now = clock.elapsedRealtime();
+            if (job.isPeriodic() && now + delayInMillis >= (fixedRate ? alarmJobEntry.deadline : now + job.getIntervalMillis()))
+                return false;
 
-    public void onPowerSaverModeChanged(boolean powerSaverModeEnabled) {
+            if (fixedRate) {
+                if (!alarmMultiplexer.cancel(alarmJobEntry))
+                    return false;
 
-        Log.i(TAG, "SmartScheduler onPowerSaverModeChanged: " + powerSaverModeEnabled);
-        if (scheduledJobs != null && scheduledJobs.size() > 0) {
+                alarmFlexPlanner.release(alarmJobEntry.reservation);
+                alarmJobEntry.resumeDeadline = alarmJobEntry.deadline;
+            }
+            armAlarmJob(entry, alarmJobEntry, now + delayInMillis);
 
-            HashMap<Integer, Job> copyScheduledJobs = new HashMap<>();
-            copyScheduledJobs.putAll(scheduledJobs);
+        } else {
+            // Power saver mode has changed while the job was firing
+            return false;
         }
-    }
-
-    private boolean updateJobsOnPowerSaverModeChanged(Job job, boolean powerSaverModeEnabled) {
 
-        // PowerSaverMode Enabled, Reset PeriodicTasks to Handlers/Alarms
-        if (powerSaverModeEnabled) {
+        entry.failedAttempts = attempt;
+        metrics.recordRetry();
+        return true;
+    }
 
-            // Schedule via handlers if mIntervalMillis is less than JOB_TYPE_HANDLER_THRESHOLD
-            if (job.getIntervalMillis() < JOB_TYPE_HANDLER_THRESHOLD) {
-                return addHandlerJob(job);
+    private void armFixedDelayJob(JobEntry entry) {
+        long intervalMillis = entry.job.getIntervalMillis();
+        Object dispatchHandle = entry.dispatchHandle;
 
-                // Else, schedule via alarms
+        placeJob(entry, clock.elapsedRealtime() + intervalMillis);
+        if (getBackendType(entry) == Job.Type.JOB_TYPE_HANDLER) {
+            if (dispatchHandle instanceof HandlerJobTimeout) {
+                armHandlerJob(entry, (HandlerJobTimeout) dispatchHandle, clock.uptimeMillis() + intervalMillis);
             } else {
-                return addAlarmJob(job);
+                // Power saver mode has changed while the job was firing
+                addHandlerJob(entry, intervalMillis);
             }
-        }
 
-        return addHandlerJob(job);
+        } else if (dispatchHandle instanceof AlarmJobEntry) {
+            armAlarmJob(entry, (AlarmJobEntry) dispatchHandle, clock.elapsedRealtime() + intervalMillis);
+
+        } else {
+            // Power saver mode has changed while the job was firing
+            addAlarmJob(entry, clock.elapsedRealtime() + intervalMillis);
+        }
     }
 
-    // Methods to add jobs
-    private boolean addHandlerJob(final Job job) {
-        if (job == null)
-            return false;
+    public void onHandlerJobScheduled(int jobID) {
+        onJobScheduled(registry.get(jobID));
+    }
 
-        final int jobID = job.getJobId();
+    public void onAlarmJobScheduled(int jobID) {
+        restoreJobs();
+        JobEntry entry = registry.get(jobID);
+        if (entry != null) {
+            onJobScheduled(entry);
+            return;
+        }
 
-        // Remove any existing Handler Job with current jobID
-        removeHandlerJob(jobID);
+        // Alarm Job is not valid, so remove any per-job alarm set by older versions
+        platform.getWakeupBackend().cancelLegacyWakeup(jobID);
+    }
 
-        // Add Handler & Runnable instance
-        jobRunnables.put(jobID, new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    // Call onJobScheduled method
-                    onHandlerJobScheduled(job.getJobId());
+    /**
+     * Method to be called when the shared wakeup alarm fires. All due Alarm type jobs are fired in
+     * one pass, earliest deadline first, and the alarm is re-armed once for the next deadline.
+     */
+    public void onAlarmWakeup() {
+        restoreJobs();
+        long now = clock.elapsedRealtime();
+        long uptimeNow = clock.uptimeMillis();
+        metrics.recordAlarmWakeup();
 
-                    if (!isJobValid(job)) {
-                        return;
+        alarmMultiplexer.beginBatch();
+        try {
+            List<AlarmQueue.Entry> dueEntries = alarmMultiplexer.pollDue(now);
+            List<JobTask> readyTasks = new ArrayList<>(dueEntries.size());
+            for (AlarmQueue.Entry dueEntry : dueEntries) {
+                AlarmJobEntry alarmJobEntry = (AlarmJobEntry) dueEntry;
+                JobEntry entry = alarmJobEntry.entry;
+                Job job = entry.job;
+                alarmFlexPlanner.release(alarmJobEntry.reservation);
+
+                // Skip entries of jobs which have been removed, replaced or moved in the meantime
+                if (entry.dispatchHandle != alarmJobEntry || !isJobValid(entry))
+                    continue;
+
+                // For Fixed Rate Jobs, Schedule Job for the next time as per its catch-up policy
+                long dueTime = alarmJobEntry.deadline;
+                if (isFixedRate(job)) {
+                    // A retry resumes the Job at the occurrence it was retried before
+                    long resumeDeadline = alarmJobEntry.resumeDeadline;
+                    alarmJobEntry.resumeDeadline = -1;
+                    boolean skipped = resumeDeadline < 0 && isSkipped(job, alarmJobEntry.deadline, now);
+                    long deadline = resumeDeadline > now ? resumeDeadline
+                            : getNextDeadline(job, resumeDeadline < 0 ? alarmJobEntry.deadline : resumeDeadline, now);
+                    placeJob(entry, deadline);
+                    if (getBackendType(entry) == Job.Type.JOB_TYPE_ALARM) {
+                        armAlarmJob(entry, alarmJobEntry, deadline);
+                    } else {
+                        // Power saver mode has changed while the job was firing
+                        addHandlerJob(entry, Math.max(0, deadline - now));
                     }
 
-                    // For Periodic Jobs, Schedule Job for the next time
-                    if (job.isPeriodic() && jobHandlers.get(jobID) != null && jobRunnables.get(jobID) != null) {
-                        jobHandlers.get(jobID)
-                                .postDelayed(jobRunnables.get(jobID), job.getIntervalMillis());
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Exception occurred while HandlerTypeJob.onRun(): " + e);
+                    if (skipped)
+                        continue;
                 }
-            }
-        });
 
-        // Initialize JobHandler
-        initializeJobHandler(jobID);
-
-        // Schedule the first instance for the job
-        long intervalInMillis = job.isPeriodic() ? job.getInitialDelayInMillis() : job.getIntervalMillis();
-        jobHandlers.get(jobID).postDelayed(jobRunnables.get(jobID), intervalInMillis);
-        return true;
-    }
-
-    private void initializeJobHandler(int jobID) {
-        if (jobHandlers.get(jobID) == null) {
-            synchronized (SmartScheduler.class) {
+                metrics.recordFire(entry, Job.Type.JOB_TYPE_ALARM, now - alarmJobEntry.getDeadline());
+                placementPlanner.recordFire(Job.Type.JOB_TYPE_ALARM, now - alarmJobEntry.getDeadline());
+                readyTasks.add(new JobTask(entry, uptimeNow - (now - dueTime)));
+            }
 
-                if (jobHandlers.get(jobID) == null) {
-                    if (Looper.myLooper() == null) {
-                        Looper.prepare();
-                    }
+            Collections.sort(readyTasks);
+            for (JobTask readyTask : readyTasks) {
+                // Inline jobs run right away, jobs run on an executor may only start once this method has returned
+                if (readyTask.entry.executor == null) {
+                    onJobScheduled(readyTask);
+                    continue;
+                }
 
-                    jobHandlers.put(jobID, new Handler(Looper.myLooper()));
+                holdWakeLock(readyTask);
+                if (!onJobScheduled(readyTask)) {
+                    releaseWakeLock(readyTask);
                 }
             }
+        } finally {
+            alarmMultiplexer.endBatch();
         }
     }
 
-    private boolean addAlarmJob(Job job) {
+    public void onPeriodicTaskJobScheduled(String periodicTaskTag, Bundle bundle) {
         try {
-            Bundle bundle = new Bundle();
-            bundle.putInt(SmartScheduler.ALARM_JOB_ID_KEY, job.getJobId());
-
-            Intent intent = new Intent(mContext, SmartSchedulerAlarmReceiver.class);
-            intent.putExtras(bundle);
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(mContext, job.getJobId(), intent,
-                    PendingIntent.FLAG_UPDATE_CURRENT);
-
-            Calendar calendar = Calendar.getInstance();
-
-            //Set the alarm for the first time and update the same in SharedPreferences
-            AlarmManager alarm = (AlarmManager) mContext.getSystemService(Context.ALARM_SERVICE);
+            if (bundle == null)
+                return;
 
-            if (job.isPeriodic()) {
-                alarm.setRepeating(AlarmManager.RTC_WAKEUP, calendar.getTimeInMillis(),
-                        job.getIntervalMillis(),
-                        pendingIntent);
+            int jobID = bundle.getInt(SmartScheduler.PERIODIC_TASK_JOB_ID_KEY);
+            onJobScheduled(registry.get(jobID));
 
-            } else {
-                long triggerInMillis = calendar.getTimeInMillis() + job.getIntervalMillis();
+        } catch (Exception e) {
+            Log.e(TAG, "Exception occurred while onPeriodicTaskJobScheduled: " + e);
+        }
+    }
 
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                    alarm.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerInMillis, pendingIntent);
+    /**
+     * Method to be called once the power saver mode of the device has changed. Moves all jobs
+     * whose backend depends on the power saver mode to their new backend in a single pass, keeping
+     * the due time of their next occurrence.
+     *
+     * @param powerSaverModeEnabled Whether or not the device is in power saver mode now
+     */
+    public synchronized void onPowerSaverModeChanged(boolean powerSaverModeEnabled) {
 
-                } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-                    alarm.setExact(AlarmManager.RTC_WAKEUP, triggerInMillis, pendingIntent);
+        Log.i(TAG, "SmartScheduler onPowerSaverModeChanged: " + powerSaverModeEnabled);
+        this.powerSaverModeEnabled = powerSaverModeEnabled;
+        if (registry.size() == 0)
+            return;
 
-                } else {
-                    alarm.set(AlarmManager.RTC_WAKEUP, triggerInMillis, pendingIntent);
-                }
+        alarmMultiplexer.beginBatch();
+        try {
+            for (JobEntry entry : registry.values()) {
+                migrateJob(entry);
             }
-
-            return true;
         } catch (Exception e) {
-            Log.e(TAG, "Exception occurred while addAlarmJob: " + e);
-            return false;
+            Log.e(TAG, "Exception occurred while onPowerSaverModeChanged: " + e);
+        } finally {
+            alarmMultiplexer.endBatch();
         }
     }
 
-    // Methods to remove jobs
-    private boolean removeHandlerJob(final int jobID) {
-        try {
-            // Clear any existing Handlers & Runnables
-            if (jobHandlers.get(jobID) != null) {
-                jobHandlers.get(jobID).removeCallbacksAndMessages(null);
+    /**
+     * Method to move a job to the backend it belongs to in the current power saver mode, or to the
+     * backend it is placed on again in case of adaptive placement. A job can only be moved while
+     * its next occurrence is pending on the old backend, jobs firing right now are moved by their
+     * firing path once they are re-armed.
+     *
+     * @param entry Job entry which needs to be moved
+     */
+    private void migrateJob(JobEntry entry) {
+        Object dispatchHandle = entry.dispatchHandle;
+        if (dispatchHandle instanceof HandlerJobTimeout) {
+            placeJob(entry, clock.elapsedRealtime() + ((HandlerJobTimeout) dispatchHandle).deadline - clock.uptimeMillis());
+        } else if (dispatchHandle instanceof AlarmJobEntry) {
+            placeJob(entry, ((AlarmJobEntry) dispatchHandle).deadline);
+        }
+
+        int backendType = getBackendType(entry);
+
+        if (backendType == Job.Type.JOB_TYPE_ALARM && dispatchHandle instanceof HandlerJobTimeout) {
+            HandlerJobTimeout timeout = (HandlerJobTimeout) dispatchHandle;
+            if (!jobTimer.cancel(timeout))
+                return;
+
+            handlerFlexPlanner.release(timeout.reservation);
+            addAlarmJob(entry, clock.elapsedRealtime() + Math.max(0, timeout.deadline - clock.uptimeMillis()));
+            if (timeout.resumeDeadline >= 0) {
+                ((AlarmJobEntry) entry.dispatchHandle).resumeDeadline =
+                        clock.elapsedRealtime() + timeout.resumeDeadline - clock.uptimeMillis();
             }
 
-            jobRunnables.remove(jobID);
-            return true;
-        } catch (Exception e) {
-            Log.e(TAG, "Exception occurred while removeHandlerJob: " + e);
-            return false;
+        } else if (backendType == Job.Type.JOB_TYPE_HANDLER && dispatchHandle instanceof AlarmJobEntry) {
+            AlarmJobEntry alarmJobEntry = (AlarmJobEntry) dispatchHandle;
+            if (!alarmMultiplexer.cancel(alarmJobEntry))
+                return;
+
+            alarmFlexPlanner.release(alarmJobEntry.reservation);
+            addHandlerJob(entry, Math.max(0, alarmJobEntry.deadline - clock.elapsedRealtime()));
+            if (alarmJobEntry.resumeDeadline >= 0) {
+                ((HandlerJobTimeout) entry.dispatchHandle).resumeDeadline =
+                        clock.uptimeMillis() + alarmJobEntry.resumeDeadline - clock.elapsedRealtime();
+            }
         }
     }
 
+    // Methods to add jobs
+    private boolean addHandlerJob(JobEntry entry, long delayInMillis) {
+        if (entry == null)
+            return false;
+
+        // Deliver the job on the caller's thread
+        HandlerJobTimeout timeout = new HandlerJobTimeout(entry, platform.getCallerDispatcher());
+        entry.dispatchHandle = timeout;
 
-    private boolean removeAlarmJob(int jobID) {
-        try {
-            //removing existing alarm
-            Intent intent = new Intent(mContext, SmartSchedulerAlarmReceiver.class);
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(mContext, jobID, intent, 0);
+        // Schedule the first instance for the job
+        armHandlerJob(entry, timeout, clock.uptimeMillis() + delayInMillis);
+        return true;
+    }
 
-            //check if any alarm is set or no, if yes then remove
-            if (pendingIntent != null) {
-                AlarmManager alarmManager = (AlarmManager) mContext.getSystemService(Context.ALARM_SERVICE);
-                alarmManager.cancel(pendingIntent);
-            }
+    private void armHandlerJob(JobEntry entry, HandlerJobTimeout timeout, long deadline) {
+        // Fire together with another Handler type job within the job's flex window, if any
+        timeout.deadline = deadline;
+        timeout.fireTime = handlerFlexPlanner.plan(timeout.reservation, deadline, getFlexInMillis(entry.job));
+        jobTimer.schedule(timeout, Math.max(0, timeout.fireTime - clock.uptimeMillis()));
 
-            return true;
-        } catch (Exception e) {
-            Log.e(TAG, "Exception occurred while removeAlarmJob: " + e);
-            return false;
+        // Job may have been removed concurrently, before its timeout was in the wheel
+        if (entry.isCancelled()) {
+            jobTimer.cancel(timeout);
+            handlerFlexPlanner.release(timeout.reservation);
         }
     }
 
     /**
-     * Method to check if the device is charging.
-     *
-     * @return Returns true if device is either charging or full, false otherwise
+     * Method to get the flex window of a job, i.e. how much earlier than its deadline the job may
+     * fire. It is at most one interval for periodic jobs, so that no occurrence is skipped.
      */
-    private boolean isCharging() {
+    private static long getFlexInMillis(Job job) {
+        Long flexInMillis = job.getFlexInMillis();
+        if (flexInMillis == null || flexInMillis <= 0)
+            return 0;
+
+        return Math.min(flexInMillis, job.getIntervalMillis());
+    }
+
+    private void onHandlerJobTimeout(HandlerJobTimeout timeout) {
+        JobEntry entry = timeout.entry;
+
         try {
-            Intent batteryIntent = mContext.getApplicationContext().registerReceiver(null,
-                    new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
-            if (batteryIntent != null) {
-                int batteryPowerStatus = batteryIntent.getIntExtra(BatteryManager.EXTRA_STATUS, 0);
-
-                switch (batteryPowerStatus) {
-                    case BatteryManager.BATTERY_STATUS_CHARGING:
-                    case BatteryManager.BATTERY_STATUS_FULL:
-                        return true;
-
-                    case BatteryManager.BATTERY_STATUS_UNKNOWN:
-                    case BatteryManager.BATTERY_STATUS_DISCHARGING:
-                    case BatteryManager.BATTERY_STATUS_NOT_CHARGING:
-                    default:
-                        return false;
+            // Ignore timeouts of jobs which have been removed or replaced in the meantime
+            handlerFlexPlanner.release(timeout.reservation);
+            if (entry.dispatchHandle != timeout || !isJobValid(entry))
+                return;
+
+            // For Fixed Rate Jobs, Schedule Job for the next time, measured from the due time of this one
+            long now = clock.uptimeMillis();
+            long dueTime = timeout.deadline;
+            if (isFixedRate(entry.job)) {
+                // A retry resumes the Job at the occurrence it was retried before
+                long resumeDeadline = timeout.resumeDeadline;
+                timeout.resumeDeadline = -1;
+                boolean skipped = resumeDeadline < 0 && isSkipped(entry.job, timeout.deadline, now);
+                long deadline = resumeDeadline > now ? resumeDeadline
+                        : getNextDeadline(entry.job, resumeDeadline < 0 ? timeout.deadline : resumeDeadline, now);
+                placeJob(entry, clock.elapsedRealtime() + deadline - now);
+                if (getBackendType(entry) == Job.Type.JOB_TYPE_HANDLER) {
+                    armHandlerJob(entry, timeout, deadline);
+                } else {
+                    // Power saver mode has changed while the job was firing
+                    addAlarmJob(entry, clock.elapsedRealtime() + deadline - now);
                 }
+
+                if (skipped)
+                    return;
             }
+
+            metrics.recordFire(entry, Job.Type.JOB_TYPE_HANDLER, now - timeout.fireTime);
+            placementPlanner.recordFire(Job.Type.JOB_TYPE_HANDLER, now - timeout.fireTime);
+
+            // Call onJobScheduled method
+            onJobScheduled(new JobTask(entry, dueTime));
         } catch (Exception e) {
-            Log.e(TAG, "Exception occurred while isCharging: " + e);
+            Log.e(TAG, "Exception occurred while HandlerTypeJob.onRun(): " + e);
         }
-
-        return false;
     }
 
-    /**
-     * Method to check if the device is connected to network.
-     *
-     * @return Returns true if device has net connectivity, false otherwise
-     */
-    private boolean isConnected() {
-        ConnectivityManager cm = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+    private boolean addAlarmJob(JobEntry entry, long deadline) {
+        if (entry == null)
+            return false;
 
-        NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
-        return activeNetwork != null && activeNetwork.isConnectedOrConnecting();
+        AlarmJobEntry alarmJobEntry = new AlarmJobEntry(entry);
+        entry.dispatchHandle = alarmJobEntry;
+        armAlarmJob(entry, alarmJobEntry, deadline);
+        return true;
     }
 
-    /**
-     * Method to check if the device is connected to an un-metered network like WiFi etc.
-     *
-     * @return Returns true if device is connected to un-metered network, false otherwise
-     */
-    private boolean isConnectionUnMetered() {
-        ConnectivityManager cm = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+    private void armAlarmJob(JobEntry entry, AlarmJobEntry alarmJobEntry, long deadline) {
+        // Share the wakeup of another Alarm type job within the job's flex window, if any
+        alarmJobEntry.deadline = deadline;
+        alarmMultiplexer.schedule(alarmJobEntry,
+                alarmFlexPlanner.plan(alarmJobEntry.reservation, deadline, getFlexInMillis(entry.job)));
 
-        // Checks if the device is on a metered network
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
-            return !cm.isActiveNetworkMetered();
-        } else {
-            NetworkInfo networkInfo = cm.getActiveNetworkInfo();
-            return (networkInfo != null && networkInfo.getType() == ConnectivityManager.TYPE_WIFI);
+        // Job may have been removed concurrently, before its entry was in the alarm queue
+        if (entry.isCancelled()) {
+            alarmMultiplexer.cancel(alarmJobEntry);
+            alarmFlexPlanner.release(alarmJobEntry.reservation);
         }
     }
 }
@@ -18,6 +18,11 @@ public class SmartSchedulerAlarmReceiver extends BroadcastReceiver {
         onAlarmReceiverServiceIntent.putExtras(intent.getExtras());
         context.startService(onAlarmReceiverServiceIntent);*/
         Log.d(TAG, "onReceive: ");
+        if (intent != null && AndroidWakeupBackend.ACTION_ALARM_WAKEUP.equals(intent.getAction())) {
+            SmartScheduler.getInstance(context.getApplicationContext()).onAlarmWakeup();
+            return;
+        }
+
         if (intent != null && intent.getExtras() != null) {
             Bundle bundle = intent.getExtras();
             final Integer jobID = bundle.getInt(SmartScheduler.ALARM_JOB_ID_KEY, -1);
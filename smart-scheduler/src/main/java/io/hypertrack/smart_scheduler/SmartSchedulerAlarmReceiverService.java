@@ -14,6 +14,11 @@ public class SmartSchedulerAlarmReceiverService extends JobIntentService {
 
     @Override
     protected void onHandleWork(@NonNull Intent intent) {
+        if (AndroidWakeupBackend.ACTION_ALARM_WAKEUP.equals(intent.getAction())) {
+            SmartScheduler.getInstance(getApplicationContext()).onAlarmWakeup();
+            return;
+        }
+
         if (intent != null && intent.getExtras() != null) {
             Bundle bundle = intent.getExtras();
             final Integer jobID = bundle.getInt(SmartScheduler.ALARM_JOB_ID_KEY, -1);
@@ -0,0 +1,26 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+/**
+ * Restores all stored jobs once the device has booted or the app has been updated, since the
+ * system clears all alarms of the app in both cases.
+ */
+public class SmartSchedulerBootReceiver extends BroadcastReceiver {
+    private static final String TAG = SmartSchedulerBootReceiver.class.getSimpleName();
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        Log.d(TAG, "onReceive: " + (intent != null ? intent.getAction() : null));
+        if (intent == null)
+            return;
+
+        if (Intent.ACTION_BOOT_COMPLETED.equals(intent.getAction())
+                || Intent.ACTION_MY_PACKAGE_REPLACED.equals(intent.getAction())) {
+            SmartScheduler.getInstance(context.getApplicationContext()).onBootCompleted();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package io.hypertrack.smart_scheduler;
+
+/**
+ * Hashed timing wheel used to schedule all Handler type jobs from a single timer thread.
+ * Adding and cancelling a {@link Timeout} are O(1), and every scheduled job costs exactly one
+ * slot entry in the wheel. The next non-empty slot is tracked in a bitmap of the slots, so that
+ * finding the next tick costs one word per 64 slots at most.
+ */
+final class TimingWheel {
+
+    /**
+     * Implement this listener to receive expired timeouts. Called without holding the wheel lock.
+     */
+    interface Listener {
+        void onExpired(Timeout timeout);
+    }
+
+    /**
+     * Slot entry for a scheduled timeout. Subclass this to attach job specific data to the entry.
+     */
+    static class Timeout {
+        private long deadlineTick;
+        private int slot = -1;
+        private Timeout prev;
+        private Timeout next;
+        private Timeout nextExpired;
+    }
+
+    private final long tickMillis;
+    private final long startTime;
+    private final Timeout[] slots;
+    private final int mask;
+
+    // One bit per slot, set while the slot holds any timeout, so that the next non-empty slot is
+    // found a word of 64 slots at a time
+    private final long[] occupiedSlots;
+
+    // Next tick to be processed by expire()
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis Duration (in millis) of a single tick of the wheel
+     * @param wheelSize  Number of slots in the wheel, has to be a power of two
+     * @param startTime  Time (in millis) from which ticks are counted
+     */
+    TimingWheel(long tickMillis, int wheelSize, long startTime) {
+        if (tickMillis <= 0)
+            throw new IllegalArgumentException("tickMillis must be greater than 0: " + tickMillis);
+        if (wheelSize <= 0 || (wheelSize & (wheelSize - 1)) != 0)
+            throw new IllegalArgumentException("wheelSize must be a power of 2: " + wheelSize);
+
+        this.tickMillis = tickMillis;
+        this.startTime = startTime;
+        this.slots = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+        this.occupiedSlots = new long[(wheelSize + 63) / 64];
+    }
+
+    /**
+     * Method to schedule a timeout at the given deadline. A timeout which is already scheduled is
+     * moved to the new deadline.
+     *
+     * @param timeout  Timeout which needs to be scheduled
+     * @param deadline Time (in millis) at which the timeout should expire
+     */
+    synchronized void schedule(Timeout timeout, long deadline) {
+        if (timeout.slot >= 0) {
+            unlink(timeout);
+        }
+
+        // Round up so that a timeout never expires before its deadline
+        long tick = (deadline - startTime + tickMillis - 1) / tickMillis;
+        if (tick < currentTick) {
+            tick = currentTick;
+        }
+
+        int slot = (int) (tick & mask);
+        timeout.deadlineTick = tick;
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = slots[slot];
+        if (slots[slot] != null) {
+            slots[slot].prev = timeout;
+        } else {
+            occupiedSlots[slot >>> 6] |= 1L << slot;
+        }
+        slots[slot] = timeout;
+        size++;
+    }
+
+    /**
+     * Method to cancel a scheduled timeout
+     *
+     * @param timeout Timeout which needs to be cancelled
+     * @return Returns true in case the timeout was scheduled and is now cancelled, false otherwise
+     */
+    synchronized boolean cancel(Timeout timeout) {
+        if (timeout.slot < 0)
+            return false;
+
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Method to expire all timeouts whose deadline has passed. The listener is called on the
+     * current thread for each expired timeout, in no particular order.
+     *
+     * @param now      Current time (in millis)
+     * @param listener Listener to be notified of expired timeouts
+     */
+    void expire(long now, Listener listener) {
+        Timeout expired = null;
+
+        synchronized (this) {
+            long targetTick = (now - startTime) / tickMillis;
+            if (targetTick < currentTick)
+                return;
+
+            // Visit each slot at most once, even if the wheel fell behind by more than a rotation
+            long ticks = Math.min(targetTick - currentTick + 1, slots.length);
+            for (long i = 0; i < ticks; i++) {
+                Timeout timeout = slots[(int) ((currentTick + i) & mask)];
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    if (timeout.deadlineTick <= targetTick) {
+                        unlink(timeout);
+                        timeout.nextExpired = expired;
+                        expired = timeout;
+                    }
+                    timeout = next;
+                }
+            }
+
+            currentTick = targetTick + 1;
+        }
+
+        while (expired != null) {
+            Timeout next = expired.nextExpired;
+            expired.nextExpired = null;
+            listener.onExpired(expired);
+            expired = next;
+        }
+    }
+
+    /**
+     * Method to get the time at which the wheel needs to be advanced next
+     *
+     * @return Returns the time (in millis) of the next non-empty tick, -1 if the wheel is empty
+     */
+    synchronized long nextTickTime() {
+        if (size == 0)
+            return -1;
+
+        // Search from the current slot to the end of the wheel, then wrap around
+        int currentSlot = (int) (currentTick & mask);
+        int slot = nextOccupiedSlot(currentSlot);
+        if (slot < 0) {
+            slot = nextOccupiedSlot(0);
+        }
+
+        return startTime + (currentTick + ((slot - currentSlot) & mask)) * tickMillis;
+    }
+
+    /**
+     * @return Returns the first occupied slot at or after the given slot, -1 if there is none
+     */
+    private int nextOccupiedSlot(int fromSlot) {
+        int word = fromSlot >>> 6;
+        long bits = occupiedSlots[word] & (-1L << fromSlot);
+        while (bits == 0) {
+            if (++word == occupiedSlots.length)
+                return -1;
+
+            bits = occupiedSlots[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * @return Returns the number of timeouts currently scheduled
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.slot] = timeout.next;
+            if (timeout.next == null) {
+                occupiedSlots[timeout.slot >>> 6] &= ~(1L << timeout.slot);
+            }
+        }
+
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.slot = -1;
+        size--;
+    }
+}
@@ -0,0 +1,41 @@
+package io.hypertrack.smart_scheduler;
+
+/**
+ * Wakes the device up at an elapsed realtime, even from deep sleep. The SmartScheduler only ever
+ * has a single wakeup set, on which it calls {@link SmartScheduler#onAlarmWakeup()}. The device is
+ * only kept awake while that call runs, unless the wake lock is held.
+ */
+interface WakeupBackend {
+
+    /**
+     * Method to set the wakeup, replacing the one set before
+     *
+     * @param triggerAtMillis Elapsed realtime (in millis) at which the device should be woken up
+     */
+    void setWakeup(long triggerAtMillis);
+
+    /**
+     * Method to cancel the wakeup, in case one is set
+     */
+    void cancelWakeup();
+
+    /**
+     * Method to cancel the per-job wakeup set by older versions for the given job, in case one is set
+     *
+     * @param jobId JobID for which the wakeup needs to be cancelled
+     */
+    void cancelLegacyWakeup(int jobId);
+
+    /**
+     * Method to keep the device awake till {@link #releaseWakeLock()} is called, but no longer than
+     * the given timeout. Acquiring the wake lock while it is held only restarts the timeout.
+     *
+     * @param timeoutMillis Time (in millis) after which the wake lock is released in any case
+     */
+    void acquireWakeLock(long timeoutMillis);
+
+    /**
+     * Method to let the device sleep again, in case the wake lock is held
+     */
+    void releaseWakeLock();
+}
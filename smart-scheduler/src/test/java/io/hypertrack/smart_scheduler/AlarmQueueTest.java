@@ -0,0 +1,81 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class AlarmQueueTest {
+
+    @Test
+    public void testPollDueInDeadlineOrder() throws Exception {
+        AlarmQueue queue = new AlarmQueue();
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            queue.add(new AlarmQueue.Entry(), random.nextInt(10000));
+        }
+
+        long previousDeadline = -1;
+        AlarmQueue.Entry entry;
+        while ((entry = queue.pollDue(Long.MAX_VALUE)) != null) {
+            assertThat(entry.getDeadline() >= previousDeadline, is(true));
+            previousDeadline = entry.getDeadline();
+        }
+        assertThat(queue.size(), is(0));
+    }
+
+    @Test
+    public void testPollDueStopsAtFirstFutureDeadline() throws Exception {
+        AlarmQueue queue = new AlarmQueue();
+        queue.add(new AlarmQueue.Entry(), 100);
+        queue.add(new AlarmQueue.Entry(), 200);
+        queue.add(new AlarmQueue.Entry(), 300);
+
+        assertThat(queue.pollDue(200).getDeadline(), is(100L));
+        assertThat(queue.pollDue(200).getDeadline(), is(200L));
+        assertThat(queue.pollDue(200), is(nullValue()));
+        assertThat(queue.peek().getDeadline(), is(300L));
+    }
+
+    @Test
+    public void testRemoveArbitraryEntry() throws Exception {
+        AlarmQueue queue = new AlarmQueue();
+        List<AlarmQueue.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            AlarmQueue.Entry entry = new AlarmQueue.Entry();
+            queue.add(entry, (i * 37) % 100);
+            entries.add(entry);
+        }
+
+        for (int i = 0; i < 100; i += 2) {
+            assertThat(queue.remove(entries.get(i)), is(true));
+            assertThat(queue.remove(entries.get(i)), is(false));
+        }
+        assertThat(queue.size(), is(50));
+
+        long previousDeadline = -1;
+        AlarmQueue.Entry entry;
+        while ((entry = queue.pollDue(Long.MAX_VALUE)) != null) {
+            assertThat(entry.getDeadline() >= previousDeadline, is(true));
+            previousDeadline = entry.getDeadline();
+        }
+    }
+
+    @Test
+    public void testAddQueuedEntryMovesDeadline() throws Exception {
+        AlarmQueue queue = new AlarmQueue();
+        AlarmQueue.Entry first = new AlarmQueue.Entry();
+        AlarmQueue.Entry second = new AlarmQueue.Entry();
+        queue.add(first, 100);
+        queue.add(second, 200);
+
+        queue.add(first, 300);
+        assertThat(queue.size(), is(2));
+        assertThat(queue.peek(), is(second));
+    }
+}
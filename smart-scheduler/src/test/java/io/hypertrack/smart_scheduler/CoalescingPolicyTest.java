@@ -0,0 +1,173 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class CoalescingPolicyTest {
+
+    private static final String SYNC_CONTACTS = "sync-contacts";
+    private static final long DELAY_MILLIS = 1000;
+
+    private static VirtualPlatform platform;
+    private static List<String> fires;
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        fires = new ArrayList<>();
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testKeepEarliest() throws Exception {
+        addJobsInBurst(Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST);
+
+        // Burst is neither run more than once nor pushed later
+        platform.runUntil(smartScheduler, 3000);
+        assertThat(fires, is(Arrays.asList("[a]@1000")));
+        assertThat(smartScheduler.getMetrics().getCoalescedJobCount(), is(2L));
+        assertThat(smartScheduler.contains(1), is(false));
+    }
+
+    @Test
+    public void testKeepLatest() throws Exception {
+        addJobsInBurst(Job.CoalescingPolicy.COALESCING_POLICY_KEEP_LATEST);
+
+        platform.runUntil(smartScheduler, 3000);
+        assertThat(fires, is(Arrays.asList("[c]@1000")));
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+        addJobsInBurst(Job.CoalescingPolicy.COALESCING_POLICY_MERGE);
+
+        platform.runUntil(smartScheduler, 3000);
+        assertThat(fires, is(Arrays.asList("[a, b, c]@1000")));
+    }
+
+    @Test
+    public void testJobAddedAfterRunIsNotCoalesced() throws Exception {
+        smartScheduler.addJob(buildJob(1, Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST, "a"));
+        platform.runUntil(smartScheduler, 1200);
+
+        smartScheduler.addJob(buildJob(1, Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST, "b"));
+        platform.runUntil(smartScheduler, 3000);
+        assertThat(fires, is(Arrays.asList("[a]@1000", "[b]@2200")));
+        assertThat(smartScheduler.getMetrics().getCoalescedJobCount(), is(0L));
+    }
+
+    @Test
+    public void testJobsWithOtherJobIdsAreCoalesced() throws Exception {
+        smartScheduler.addJob(buildJob(1, Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST, "a"));
+        platform.runUntil(smartScheduler, 300);
+        assertThat(smartScheduler.addJob(buildJob(2, Job.CoalescingPolicy.COALESCING_POLICY_KEEP_LATEST, "b")), is(true));
+        assertThat(smartScheduler.contains(1), is(false));
+        assertThat(smartScheduler.contains(2), is(true));
+
+        platform.runUntil(smartScheduler, 3000);
+        assertThat(fires, is(Arrays.asList("[b]@1000")));
+    }
+
+    @Test
+    public void testMergedJobIsStoredUnderItsJobId() throws Exception {
+        smartScheduler.addJob(buildJob(1, Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST, "a"));
+        smartScheduler.addJob(buildJob(2, Job.CoalescingPolicy.COALESCING_POLICY_MERGE, "b"));
+
+        // Restored process runs the merged job, the pending job is gone
+        VirtualPlatform restoredPlatform = new VirtualPlatform();
+        SmartScheduler restored = new SmartScheduler(context, restoredPlatform);
+        assertThat(restored.contains(1), is(false));
+        platform = restoredPlatform;
+        platform.runUntil(restored, 3000);
+        assertThat(fires, is(Arrays.asList("[a, b]@1000")));
+    }
+
+    @Test
+    public void testCoalescedJobCanBeRemoved() throws Exception {
+        smartScheduler.addJob(buildJob(1, Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST, "a"));
+        smartScheduler.addJob(buildJob(2, Job.CoalescingPolicy.COALESCING_POLICY_KEEP_LATEST, "b"));
+        assertThat(smartScheduler.get(2).getJobId(), is(2));
+
+        assertThat(smartScheduler.removeJob(2), is(true));
+        platform.runUntil(smartScheduler, 3000);
+        assertThat(fires.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRemovedJobIsNotCoalesced() throws Exception {
+        smartScheduler.addJob(buildJob(1, Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST, "a"));
+        smartScheduler.removeJob(1);
+
+        platform.stall(500);
+        smartScheduler.addJob(buildJob(2, Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST, "b"));
+        platform.runUntil(smartScheduler, 3000);
+        assertThat(fires, is(Arrays.asList("[b]@1500")));
+    }
+
+    /**
+     * Adds the same job three times, 300ms apart
+     */
+    private void addJobsInBurst(int coalescingPolicy) {
+        String[] items = {"a", "b", "c"};
+        for (int i = 0; i < items.length; i++) {
+            platform.runUntil(smartScheduler, i * 300);
+            assertThat(smartScheduler.addJob(buildJob(1, coalescingPolicy, items[i])), is(true));
+        }
+    }
+
+    private static Job buildJob(int jobId, int coalescingPolicy, String item) {
+        return new Job.Builder(jobId, new TestCallback(item), Job.Type.JOB_TYPE_HANDLER)
+                .setIntervalMillis(DELAY_MILLIS)
+                .setCoalescingKey(SYNC_CONTACTS)
+                .setCoalescingPolicy(coalescingPolicy)
+                .build();
+    }
+
+    /**
+     * Syncs a set of items, merged sets are synced at once
+     */
+    private static class TestCallback implements SmartScheduler.MergeableJobScheduledCallback {
+        private final TreeSet<String> items = new TreeSet<>();
+
+        TestCallback(String item) {
+            items.add(item);
+        }
+
+        private TestCallback(TreeSet<String> items) {
+            this.items.addAll(items);
+        }
+
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            fires.add(items + "@" + platform.uptimeMillis());
+        }
+
+        @Override
+        public SmartScheduler.JobScheduledCallback merge(SmartScheduler.JobScheduledCallback callback) {
+            TestCallback merged = new TestCallback(items);
+            merged.items.addAll(((TestCallback) callback).items);
+            return merged;
+        }
+    }
+}
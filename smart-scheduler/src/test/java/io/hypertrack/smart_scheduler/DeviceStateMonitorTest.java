@@ -0,0 +1,78 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+import android.test.mock.MockContext;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class DeviceStateMonitorTest {
+
+    @Test
+    public void testNetworkConstraints() throws Exception {
+        Job anyJob = newJob(Job.NetworkType.NETWORK_TYPE_ANY);
+        Job connectedJob = newJob(Job.NetworkType.NETWORK_TYPE_CONNECTED);
+        Job unmeteredJob = newJob(Job.NetworkType.NETWORK_TYPE_UNMETERED);
+
+        DeviceState.Snapshot offline = new DeviceState.Snapshot(false, true, false, false);
+        assertThat(offline.meetsConstraints(anyJob), is(true));
+        assertThat(offline.meetsConstraints(connectedJob), is(false));
+        assertThat(offline.meetsConstraints(unmeteredJob), is(false));
+
+        DeviceState.Snapshot metered = new DeviceState.Snapshot(true, false, false, false);
+        assertThat(metered.meetsConstraints(connectedJob), is(true));
+        assertThat(metered.meetsConstraints(unmeteredJob), is(false));
+
+        DeviceState.Snapshot unmetered = new DeviceState.Snapshot(true, true, false, false);
+        assertThat(unmetered.meetsConstraints(connectedJob), is(true));
+        assertThat(unmetered.meetsConstraints(unmeteredJob), is(true));
+    }
+
+    @Test
+    public void testChargingConstraint() throws Exception {
+        Job chargingJob = new Job.Builder(1, new NoOpCallback())
+                .setRequiresCharging(true)
+                .build();
+
+        assertThat(new DeviceState.Snapshot(true, true, false, false).meetsConstraints(chargingJob), is(false));
+        assertThat(new DeviceState.Snapshot(false, false, true, false).meetsConstraints(chargingJob), is(true));
+    }
+
+    @Test
+    public void testConstraintsAreMetInCaseStateCantBeRead() throws Exception {
+        final DeviceState.Snapshot[] changed = new DeviceState.Snapshot[1];
+        DeviceStateMonitor monitor = new DeviceStateMonitor(new MockContext() {
+            @Override
+            public Context getApplicationContext() {
+                return this;
+            }
+
+            @Override
+            public Object getSystemService(String name) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        monitor.start(new DeviceState.Listener() {
+            @Override
+            public void onDeviceStateChanged(DeviceState.Snapshot previous, DeviceState.Snapshot current) {
+                changed[0] = current;
+            }
+        });
+
+        Job constrainedJob = new Job.Builder(1, new NoOpCallback())
+                .setRequiredNetworkType(Job.NetworkType.NETWORK_TYPE_UNMETERED)
+                .setRequiresCharging(true)
+                .build();
+        assertThat(monitor.getSnapshot().meetsConstraints(constrainedJob), is(true));
+        assertThat(monitor.getSnapshot().powerSaveMode, is(false));
+        assertThat(changed[0] == monitor.getSnapshot(), is(true));
+    }
+
+    private static Job newJob(int networkType) {
+        return new Job.Builder(1, new NoOpCallback())
+                .setRequiredNetworkType(networkType)
+                .build();
+    }
+}
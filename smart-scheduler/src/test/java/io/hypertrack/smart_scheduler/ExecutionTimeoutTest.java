@@ -0,0 +1,199 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ExecutionTimeoutTest {
+
+    private static final long INTERVAL_MILLIS = 1000;
+    private static final long TIMEOUT_MILLIS = 300;
+
+    private static VirtualPlatform platform;
+    private static SmartScheduler smartScheduler;
+    private static List<Long> fireTimes;
+    private static List<JobRun> runs;
+    private static List<Boolean> interrupts;
+
+    private TestContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        fireTimes = new ArrayList<>();
+        runs = new ArrayList<>();
+        interrupts = new ArrayList<>();
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+        smartScheduler = null;
+    }
+
+    @Test
+    public void testTimedOutRunEndsAsFailed() throws Exception {
+        smartScheduler.addJob(buildJob(new AsyncTestCallback()).setExecutionTimeout(TIMEOUT_MILLIS).build());
+
+        platform.runUntil(smartScheduler, 1200);
+        assertThat(smartScheduler.getJobRuns(1).size(), is(1));
+        assertThat(runs.get(0).isDone(), is(false));
+
+        platform.runUntil(smartScheduler, 1500);
+        JobRun run = runs.get(0);
+        assertThat(run.isTimedOut(), is(true));
+        assertThat(run.isCancelled(), is(true));
+        assertThat(smartScheduler.getJobRuns(1).isEmpty(), is(true));
+        assertThat(smartScheduler.getMetrics().getTimeoutCount(), is(1L));
+        assertThat(smartScheduler.getJobMetrics(1).getCallbackFailureCount(), is(1L));
+
+        // Next occurrence is no longer skipped for the hung run
+        platform.runUntil(smartScheduler, 2100);
+        assertThat(fireTimes, is(Arrays.asList(1000L, 2000L)));
+        assertThat(smartScheduler.getMetrics().getOverlapSkipCount(), is(0L));
+
+        // Late calls of the hung work are ignored
+        run.complete();
+        assertThat(run.isTimedOut(), is(true));
+        assertThat(smartScheduler.getJobMetrics(1).getCallbackCount(), is(1L));
+    }
+
+    @Test
+    public void testTimedOutJobIsFinishedOnJobThread() throws Exception {
+        smartScheduler.addJob(new Job.Builder(1, new AsyncTestCallback(), Job.Type.JOB_TYPE_HANDLER)
+                .setIntervalMillis(INTERVAL_MILLIS)
+                .setExecutionTimeout(TIMEOUT_MILLIS)
+                .build());
+        platform.runUntil(smartScheduler, 1100);
+
+        // Timing out on this thread, as the watchdog does on the timer thread, only ends the run
+        assertThat(runs.get(0).timeOut(), is(true));
+        assertThat(smartScheduler.getJobRuns(1).isEmpty(), is(true));
+        assertThat(smartScheduler.contains(1), is(true));
+
+        // Failed one time job is removed once the job's thread has run the follow-up
+        platform.runUntil(smartScheduler, 1200);
+        assertThat(smartScheduler.contains(1), is(false));
+    }
+
+    @Test
+    public void testCompletedRunDisarmsWatchdog() throws Exception {
+        smartScheduler.addJob(buildJob(new AsyncTestCallback()).setExecutionTimeout(TIMEOUT_MILLIS).build());
+
+        platform.runUntil(smartScheduler, 1100);
+        JobRun run = runs.get(0);
+        run.complete();
+        assertThat(run.get(), is((Void) null));
+
+        platform.runUntil(smartScheduler, 1900);
+        assertThat(run.isTimedOut(), is(false));
+        assertThat(smartScheduler.getMetrics().getTimeoutCount(), is(0L));
+        assertThat(smartScheduler.getJobMetrics(1).getCallbackFailureCount(), is(0L));
+    }
+
+    @Test
+    public void testCancelJobRuns() throws Exception {
+        smartScheduler.addJob(buildJob(new AsyncTestCallback()).build());
+        assertThat(smartScheduler.cancelJobRuns(1, false), is(false));
+
+        platform.runUntil(smartScheduler, 1100);
+        JobRun run = smartScheduler.getJobRuns(1).get(0);
+        try {
+            run.get(10, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException expected) {
+        }
+
+        assertThat(smartScheduler.cancelJobRuns(1, false), is(true));
+        assertThat(smartScheduler.cancelJobRuns(1, false), is(false));
+        assertThat(run.isCancelled(), is(true));
+        assertThat(run.isTimedOut(), is(false));
+        assertThat(smartScheduler.getJobMetrics(1).getRunCount(), is(0));
+        assertThat(smartScheduler.getJobMetrics(1).getCallbackFailureCount(), is(0L));
+        assertThat(smartScheduler.contains(1), is(true));
+
+        try {
+            run.get();
+            fail();
+        } catch (CancellationException expected) {
+        }
+    }
+
+    @Test
+    public void testFailedRunThrowsExecutionException() throws Exception {
+        smartScheduler.addJob(buildJob(new AsyncTestCallback()).build());
+        platform.runUntil(smartScheduler, 1100);
+
+        JobRun run = runs.get(0);
+        run.fail();
+        try {
+            run.get();
+            fail();
+        } catch (ExecutionException expected) {
+        }
+    }
+
+    @Test
+    public void testCancelInterruptsPoolCallback() throws Exception {
+        smartScheduler.addJob(buildJob(new CancellingTestCallback())
+                .setExecutionPolicy(Job.ExecutionPolicy.EXECUTION_POLICY_POOL)
+                .build());
+
+        platform.runUntil(smartScheduler, 1100);
+        assertThat(interrupts, is(Arrays.asList(true)));
+        assertThat(smartScheduler.getJobMetrics(1).getRunCount(), is(0));
+
+        // Interrupt doesn't outlive the run on the worker thread
+        assertThat(Thread.currentThread().isInterrupted(), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveTimeoutIsRejected() throws Exception {
+        buildJob(new AsyncTestCallback()).setExecutionTimeout(0);
+    }
+
+    private static Job.Builder buildJob(SmartScheduler.JobScheduledCallback callback) {
+        return new Job.Builder(1, callback, Job.Type.JOB_TYPE_HANDLER)
+                .setPeriodic(INTERVAL_MILLIS)
+                .setPeriodicMode(Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE);
+    }
+
+    /**
+     * Leaves every run in flight till the test or the watchdog ends it
+     */
+    private static class AsyncTestCallback extends SmartScheduler.AsyncJobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job, JobRun run) {
+            fireTimes.add(platform.uptimeMillis());
+            runs.add(run);
+        }
+    }
+
+    /**
+     * Cancels its own run, as another thread would while the callback is busy
+     */
+    private static class CancellingTestCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            smartScheduler.cancelJobRuns(job.getJobId(), true);
+            interrupts.add(Thread.currentThread().isInterrupted());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class FlexPlannerTest {
+
+    @Test
+    public void testOverlappingWindowsShareWakeup() throws Exception {
+        FlexPlanner planner = new FlexPlanner();
+
+        assertThat(planner.plan(new FlexPlanner.Reservation(), 1000, 0), is(1000L));
+        assertThat(planner.plan(new FlexPlanner.Reservation(), 1100, 200), is(1000L));
+        assertThat(planner.plan(new FlexPlanner.Reservation(), 1300, 200), is(1300L));
+        assertThat(planner.plan(new FlexPlanner.Reservation(), 1400, 500), is(1300L));
+        assertThat(planner.wakeupCount(), is(2));
+    }
+
+    @Test
+    public void testWakeupAfterDeadlineIsNotUsed() throws Exception {
+        FlexPlanner planner = new FlexPlanner();
+
+        planner.plan(new FlexPlanner.Reservation(), 2000, 0);
+        assertThat(planner.plan(new FlexPlanner.Reservation(), 1900, 1000), is(1900L));
+        assertThat(planner.wakeupCount(), is(2));
+    }
+
+    @Test
+    public void testReleaseAndReplan() throws Exception {
+        FlexPlanner planner = new FlexPlanner();
+        FlexPlanner.Reservation first = new FlexPlanner.Reservation();
+        FlexPlanner.Reservation second = new FlexPlanner.Reservation();
+
+        planner.plan(first, 1000, 0);
+        planner.plan(second, 1050, 100);
+        planner.release(first);
+        assertThat(planner.wakeupCount(), is(1));
+
+        // Planning again releases the wakeup held so far
+        assertThat(planner.plan(second, 2000, 0), is(2000L));
+        assertThat(second.getTime(), is(2000L));
+        assertThat(planner.wakeupCount(), is(1));
+
+        planner.release(second);
+        planner.release(second);
+        assertThat(planner.wakeupCount(), is(0));
+    }
+
+    @Test
+    public void testSharedWakeupExcludesOwnReservation() throws Exception {
+        FlexPlanner planner = new FlexPlanner();
+        FlexPlanner.Reservation own = new FlexPlanner.Reservation();
+
+        planner.plan(own, 1000, 0);
+        assertThat(planner.hasSharedWakeup(own, 1000, 500), is(false));
+        assertThat(planner.hasSharedWakeup(null, 1000, 0), is(true));
+
+        planner.plan(new FlexPlanner.Reservation(), 800, 0);
+        assertThat(planner.hasSharedWakeup(own, 1000, 500), is(true));
+        assertThat(planner.hasSharedWakeup(own, 1000, 100), is(false));
+        assertThat(planner.hasSharedWakeup(own, 700, 500), is(false));
+    }
+
+    @Test
+    public void testPeriodicJobsAreBatched() throws Exception {
+        FlexPlanner planner = new FlexPlanner();
+
+        // 50 jobs with deadlines spread over 10 seconds and a flex of 5 seconds each
+        for (int i = 0; i < 50; i++) {
+            planner.plan(new FlexPlanner.Reservation(), 60000 + i * 200, 5000);
+        }
+        assertThat(planner.wakeupCount(), is(2));
+    }
+}
@@ -0,0 +1,208 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class JobGraphTest {
+
+    private static final int FETCH = 1;
+    private static final int PARSE_A = 2;
+    private static final int PARSE_B = 3;
+    private static final int UPLOAD = 4;
+
+    private static final long INTERVAL_MILLIS = 1000;
+
+    private static VirtualPlatform platform;
+    private static List<String> fires;
+    private static HashSet<Integer> failingJobIds;
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        fires = new ArrayList<>();
+        failingJobIds = new HashSet<>();
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testDependentsRunOnceTheirPrerequisitesHaveCompleted() throws Exception {
+        assertThat(smartScheduler.addJobGraph(buildGraph(true)), is(true));
+        assertThat(smartScheduler.contains(UPLOAD), is(true));
+
+        // Whole pipeline runs without any further timer or alarm hop
+        platform.runUntil(smartScheduler, 1000);
+        assertThat(fires, is(Arrays.asList("1@1000", "2@1000", "3@1000", "4@1000")));
+        assertThat(smartScheduler.getMetrics().getTimerTickCount(), is(1L));
+
+        platform.runUntil(smartScheduler, 2000);
+        assertThat(fires.size(), is(8));
+        assertThat(fires.get(7), is("4@2000"));
+    }
+
+    @Test
+    public void testFailedPrerequisiteHoldsBackDependents() throws Exception {
+        failingJobIds.add(PARSE_B);
+        smartScheduler.addJobGraph(buildGraph(true));
+
+        platform.runUntil(smartScheduler, 1000);
+        assertThat(fires, is(Arrays.asList("1@1000", "2@1000", "3@1000")));
+
+        // Upload runs once parse B completes, parse A has completed already
+        failingJobIds.clear();
+        platform.runUntil(smartScheduler, 2000);
+        assertThat(fires, is(Arrays.asList("1@1000", "2@1000", "3@1000", "1@2000", "2@2000", "3@2000", "4@2000")));
+    }
+
+    @Test
+    public void testDependentsOfOneTimeJobRunOnce() throws Exception {
+        smartScheduler.addJobGraph(buildGraph(false));
+
+        platform.runUntil(smartScheduler, 5000);
+        assertThat(fires, is(Arrays.asList("1@1000", "2@1000", "3@1000", "4@1000")));
+        assertRemoved(FETCH, PARSE_A, PARSE_B, UPLOAD);
+    }
+
+    @Test
+    public void testDependentsOfFailedOneTimeJobAreRemoved() throws Exception {
+        failingJobIds.add(FETCH);
+        smartScheduler.addJobGraph(buildGraph(false));
+
+        platform.runUntil(smartScheduler, 5000);
+        assertThat(fires, is(Arrays.asList("1@1000")));
+        assertRemoved(FETCH, PARSE_A, PARSE_B, UPLOAD);
+    }
+
+    @Test
+    public void testDependentsOfRemovedJobAreRemoved() throws Exception {
+        smartScheduler.addJobGraph(buildGraph(true));
+
+        assertThat(smartScheduler.removeJob(FETCH), is(true));
+        assertRemoved(FETCH, PARSE_A, PARSE_B, UPLOAD);
+
+        platform.runUntil(smartScheduler, 2000);
+        assertThat(fires.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testDependentsOfFailedDependentAreRemoved() throws Exception {
+        failingJobIds.add(PARSE_B);
+        smartScheduler.addJobGraph(buildGraph(false));
+
+        platform.runUntil(smartScheduler, 5000);
+        assertThat(fires, is(Arrays.asList("1@1000", "2@1000", "3@1000")));
+        assertRemoved(FETCH, PARSE_A, PARSE_B, UPLOAD);
+    }
+
+    @Test
+    public void testRemoveJobGraph() throws Exception {
+        JobGraph graph = buildGraph(true);
+        smartScheduler.addJobGraph(graph);
+
+        assertThat(smartScheduler.removeJobGraph(graph), is(true));
+        assertThat(smartScheduler.contains(UPLOAD), is(false));
+        assertThat(smartScheduler.removeJobGraph(graph), is(false));
+
+        platform.runUntil(smartScheduler, 2000);
+        assertThat(fires.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testDependentsAreNotStored() throws Exception {
+        smartScheduler.addJobGraph(buildGraph(true));
+
+        SmartScheduler restored = new SmartScheduler(context, new VirtualPlatform());
+        assertThat(restored.contains(FETCH), is(true));
+        assertThat(restored.contains(PARSE_A), is(false));
+        assertThat(restored.contains(UPLOAD), is(false));
+    }
+
+    @Test
+    public void testPrerequisitesNeedToBeAddedFirst() throws Exception {
+        JobGraph.Builder builder = new JobGraph.Builder().addJob(buildJob(FETCH, true));
+        try {
+            builder.addJob(buildJob(UPLOAD, false), PARSE_A);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            builder.addJob(buildJob(FETCH, false));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        JobGraph graph = builder.addJob(buildJob(PARSE_A, false), FETCH, FETCH).build();
+        assertThat(graph.getPrerequisiteJobIds(PARSE_A).length, is(1));
+        assertThat(graph.getJobs().size(), is(2));
+    }
+
+    /**
+     * Fetch, then parse A and B in parallel, then upload
+     */
+    @Test
+    public void testDependentJobIds() throws Exception {
+        JobGraph graph = buildGraph(false);
+
+        assertThat(graph.getDependentJobIds(FETCH), is(new int[]{PARSE_A, PARSE_B}));
+        assertThat(graph.getDependentJobIds(PARSE_A), is(new int[]{UPLOAD}));
+        assertThat(graph.getDependentJobIds(PARSE_B), is(new int[]{UPLOAD}));
+        assertThat(graph.getDependentJobIds(UPLOAD), is(new int[0]));
+        assertThat(graph.getDependentJobIds(5), is(new int[0]));
+    }
+
+    private void assertRemoved(int... jobIds) {
+        for (int jobId : jobIds) {
+            assertThat("Job " + jobId, smartScheduler.contains(jobId), is(false));
+        }
+    }
+
+    private static JobGraph buildGraph(boolean periodic) {
+        return new JobGraph.Builder()
+                .addJob(buildJob(FETCH, periodic))
+                .addJob(buildJob(PARSE_A, false), FETCH)
+                .addJob(buildJob(PARSE_B, false), FETCH)
+                .addJob(buildJob(UPLOAD, false), PARSE_A, PARSE_B)
+                .build();
+    }
+
+    private static Job buildJob(int jobId, boolean periodic) {
+        Job.Builder builder = new Job.Builder(jobId, new TestCallback(), Job.Type.JOB_TYPE_HANDLER);
+        if (periodic) {
+            builder.setPeriodic(INTERVAL_MILLIS);
+        } else {
+            builder.setIntervalMillis(INTERVAL_MILLIS);
+        }
+        return builder.build();
+    }
+
+    private static class TestCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            fires.add(job.getJobId() + "@" + platform.uptimeMillis());
+            if (failingJobIds.contains(job.getJobId()))
+                throw new IllegalStateException("Job " + job.getJobId() + " has failed");
+        }
+    }
+}
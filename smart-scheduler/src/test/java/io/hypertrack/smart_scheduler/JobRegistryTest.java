@@ -0,0 +1,114 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class JobRegistryTest {
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        JobRegistry registry = new JobRegistry();
+        JobEntry first = newEntry(1);
+        JobEntry second = newEntry(1);
+
+        assertThat(registry.put(1, first), nullValue());
+        assertThat(registry.get(1), sameInstance(first));
+        assertThat(registry.put(1, second), sameInstance(first));
+        assertThat(registry.size(), is(1));
+
+        // Stale entries must not remove the current one
+        assertThat(registry.remove(1, first), nullValue());
+        assertThat(registry.remove(1, second), sameInstance(second));
+        assertThat(registry.get(1), nullValue());
+        assertThat(registry.size(), is(0));
+    }
+
+    @Test
+    public void testPutIfAbsent() throws Exception {
+        JobRegistry registry = new JobRegistry();
+        JobEntry first = newEntry(1);
+
+        assertThat(registry.putIfAbsent(1, first), nullValue());
+        assertThat(registry.putIfAbsent(1, newEntry(1)), sameInstance(first));
+        assertThat(registry.get(1), sameInstance(first));
+    }
+
+    @Test
+    public void testResize() throws Exception {
+        JobRegistry registry = new JobRegistry();
+        for (int jobId = 1; jobId <= 10000; jobId++) {
+            registry.put(jobId, newEntry(jobId));
+        }
+
+        assertThat(registry.size(), is(10000));
+        assertThat(registry.values().size(), is(10000));
+        for (int jobId = 1; jobId <= 10000; jobId++) {
+            assertThat(registry.get(jobId).job.getJobId(), is(jobId));
+        }
+    }
+
+    @Test
+    public void testConcurrentAddAndRemove() throws Exception {
+        final JobRegistry registry = new JobRegistry();
+        final int threadCount = 8;
+        final int jobsPerThread = 5000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        final AtomicInteger failures = new AtomicInteger();
+
+        for (int i = 0; i < threadCount; i++) {
+            final int offset = i * jobsPerThread;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int jobId = offset + 1; jobId <= offset + jobsPerThread; jobId++) {
+                            JobEntry entry = newEntry(jobId);
+                            registry.put(jobId, entry);
+                            if (registry.get(jobId) != entry)
+                                failures.incrementAndGet();
+
+                            // Remove every other job again
+                            if (jobId % 2 == 0 && registry.remove(jobId) != entry)
+                                failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        start.countDown();
+        done.await();
+
+        assertThat(failures.get(), is(0));
+        assertThat(registry.size(), is(threadCount * jobsPerThread / 2));
+        for (int jobId = 1; jobId <= threadCount * jobsPerThread; jobId++) {
+            assertThat(registry.get(jobId) != null, is(jobId % 2 != 0));
+        }
+    }
+
+    @Test
+    public void testEntryIsCancelledOnce() throws Exception {
+        JobEntry entry = newEntry(1);
+        assertThat(entry.compareAndSetState(JobEntry.STATE_SCHEDULED, JobEntry.STATE_FIRING), is(true));
+        assertThat(entry.cancel(), is(true));
+        assertThat(entry.cancel(), is(false));
+        assertThat(entry.compareAndSetState(JobEntry.STATE_FIRING, JobEntry.STATE_SCHEDULED), is(false));
+    }
+
+    private static JobEntry newEntry(int jobId) {
+        return new JobEntry(new Job.Builder(jobId, new NoOpCallback()).setIntervalMillis(1000).build(), null);
+    }
+}
@@ -0,0 +1,193 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class JobStoreTest {
+
+    private TestContext context;
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+        directory = context.getFilesDir();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testJobsSurviveReload() throws Exception {
+        JobStore jobStore = new JobStore(directory);
+        jobStore.load();
+
+        Job periodicJob = new Job.Builder(1, new NoOpCallback(), Job.Type.JOB_TYPE_ALARM)
+                .setRequiredNetworkType(Job.NetworkType.NETWORK_TYPE_UNMETERED)
+                .setRequiresCharging(true)
+                .setPeriodic(120000, 5000)
+                .setFlex(1000)
+                .setExecutionPolicy(Job.ExecutionPolicy.EXECUTION_POLICY_SERIAL)
+                .setPeriodicMode(Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE)
+                .setCatchUpPolicy(Job.CatchUpPolicy.CATCH_UP_POLICY_SKIP)
+                .setPriority(Job.Priority.PRIORITY_HIGH)
+                .setDeadline(500)
+                .setOverlapPolicy(Job.OverlapPolicy.OVERLAP_POLICY_QUEUE_ONE)
+                .setRetryPolicy(5, 2000, 60000)
+                .setExecutionTimeout(30000)
+                .build();
+        Job oneTimeJob = new Job.Builder(2, new NoOpCallback())
+                .setIntervalMillis(2000)
+                .setCoalescingKey("sync-contacts")
+                .setCoalescingPolicy(Job.CoalescingPolicy.COALESCING_POLICY_MERGE)
+                .build();
+        jobStore.put(periodicJob, 1000L);
+        jobStore.put(oneTimeJob, 2000L);
+
+        List<JobStore.StoredJob> storedJobs = new JobStore(directory).load();
+        assertThat(storedJobs.size(), is(2));
+
+        Job restoredJob = storedJobs.get(0).job;
+        assertThat(restoredJob.getJobId(), is(1));
+        assertThat(restoredJob.getJobType(), is(Job.Type.JOB_TYPE_ALARM));
+        assertThat(restoredJob.hasDefaultJobType(), is(false));
+        assertThat(restoredJob.getNetworkType(), is(Job.NetworkType.NETWORK_TYPE_UNMETERED));
+        assertThat(restoredJob.getRequiresCharging(), is(true));
+        assertThat(restoredJob.isPeriodic(), is(true));
+        assertThat(restoredJob.getIntervalMillis(), is(120000L));
+        assertThat(restoredJob.getInitialDelayInMillis(), is(5000L));
+        assertThat(restoredJob.getFlexInMillis(), is(1000L));
+        assertThat(restoredJob.getExecutionPolicy(), is(Job.ExecutionPolicy.EXECUTION_POLICY_SERIAL));
+        assertThat(restoredJob.getPeriodicMode(), is(Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE));
+        assertThat(restoredJob.getCatchUpPolicy(), is(Job.CatchUpPolicy.CATCH_UP_POLICY_SKIP));
+        assertThat(restoredJob.getPriority(), is(Job.Priority.PRIORITY_HIGH));
+        assertThat(restoredJob.getDeadlineInMillis(), is(500L));
+        assertThat(restoredJob.getOverlapPolicy(), is(Job.OverlapPolicy.OVERLAP_POLICY_QUEUE_ONE));
+        assertThat(restoredJob.getRetryMaxAttempts(), is(5));
+        assertThat(restoredJob.getRetryBaseDelayInMillis(), is(2000L));
+        assertThat(restoredJob.getRetryMaxDelayInMillis(), is(60000L));
+        assertThat(restoredJob.getExecutionTimeoutInMillis(), is(30000L));
+        assertThat(restoredJob.getCoalescingKey() == null, is(true));
+        assertThat(restoredJob.getCoalescingPolicy(), is(Job.CoalescingPolicy.COALESCING_POLICY_KEEP_EARLIEST));
+        assertThat(storedJobs.get(0).firstFireTime, is(1000L));
+
+        assertThat(storedJobs.get(1).job.getJobType(), is(Job.Type.JOB_TYPE_HANDLER));
+        assertThat(storedJobs.get(1).job.hasDefaultJobType(), is(true));
+        assertThat(storedJobs.get(1).job.isPeriodic(), is(false));
+        assertThat(storedJobs.get(1).job.getRequiresCharging(), is(false));
+        assertThat(storedJobs.get(1).job.getExecutionPolicy(), is(Job.ExecutionPolicy.EXECUTION_POLICY_DEFAULT));
+        assertThat(storedJobs.get(1).job.getPeriodicMode(), is(Job.PeriodicMode.PERIODIC_MODE_FIXED_DELAY));
+        assertThat(storedJobs.get(1).job.getCatchUpPolicy(), is(Job.CatchUpPolicy.CATCH_UP_POLICY_FIRE_ONCE));
+        assertThat(storedJobs.get(1).job.getPriority(), is(Job.Priority.PRIORITY_DEFAULT));
+        assertThat(storedJobs.get(1).job.getDeadlineInMillis() == null, is(true));
+        assertThat(storedJobs.get(1).job.getOverlapPolicy(), is(Job.OverlapPolicy.OVERLAP_POLICY_SKIP));
+        assertThat(storedJobs.get(1).job.getRetryMaxAttempts(), is(1));
+        assertThat(storedJobs.get(1).job.getExecutionTimeoutInMillis() == null, is(true));
+        assertThat(storedJobs.get(1).job.getCoalescingKey(), is("sync-contacts"));
+        assertThat(storedJobs.get(1).job.getCoalescingPolicy(), is(Job.CoalescingPolicy.COALESCING_POLICY_MERGE));
+    }
+
+    @Test
+    public void testRemoveAndReplace() throws Exception {
+        JobStore jobStore = new JobStore(directory);
+        jobStore.load();
+
+        jobStore.put(new Job.Builder(1, new NoOpCallback()).setIntervalMillis(1000).build(), 1L);
+        jobStore.put(new Job.Builder(2, new NoOpCallback()).setIntervalMillis(1000).build(), 2L);
+        jobStore.put(new Job.Builder(1, new NoOpCallback()).setIntervalMillis(3000).build(), 3L);
+        jobStore.remove(2);
+
+        List<JobStore.StoredJob> storedJobs = new JobStore(directory).load();
+        assertThat(storedJobs.size(), is(1));
+        assertThat(storedJobs.get(0).job.getIntervalMillis(), is(3000L));
+        assertThat(storedJobs.get(0).firstFireTime, is(3L));
+    }
+
+    @Test
+    public void testLogIsCompacted() throws Exception {
+        JobStore jobStore = new JobStore(directory);
+        jobStore.load();
+
+        Job job = new Job.Builder(1, new NoOpCallback()).setIntervalMillis(1000).build();
+        jobStore.put(job, 0L);
+        long singleJobLength = new File(directory, JobStore.FILE_NAME).length();
+
+        for (int i = 0; i < 1000; i++) {
+            jobStore.put(job, i);
+        }
+
+        assertThat(new File(directory, JobStore.FILE_NAME).length() < 100 * singleJobLength, is(true));
+        assertThat(new JobStore(directory).load().size(), is(1));
+    }
+
+    @Test
+    public void testTornRecordIsDropped() throws Exception {
+        JobStore jobStore = new JobStore(directory);
+        jobStore.load();
+        jobStore.put(new Job.Builder(1, new NoOpCallback()).setIntervalMillis(1000).build(), 0L);
+        jobStore.put(new Job.Builder(2, new NoOpCallback()).setIntervalMillis(1000).build(), 0L);
+
+        File file = new File(directory, JobStore.FILE_NAME);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.setLength(file.length() - 3);
+        randomAccessFile.close();
+
+        List<JobStore.StoredJob> storedJobs = new JobStore(directory).load();
+        assertThat(storedJobs.size(), is(1));
+        assertThat(storedJobs.get(0).job.getJobId(), is(1));
+
+        // Log has been rewritten without the torn record
+        assertThat(new JobStore(directory).load().size(), is(1));
+    }
+
+    @Test
+    public void testBatchIsWrittenOnEnd() throws Exception {
+        JobStore jobStore = new JobStore(directory);
+        jobStore.load();
+        File file = new File(directory, JobStore.FILE_NAME);
+
+        jobStore.beginBatch();
+        for (int jobId = 1; jobId <= 10; jobId++) {
+            jobStore.put(new Job.Builder(jobId, new NoOpCallback()).setIntervalMillis(1000).build(), 0L);
+        }
+        jobStore.remove(10);
+        assertThat(file.length(), is(0L));
+
+        jobStore.endBatch();
+        assertThat(new JobStore(directory).load().size(), is(9));
+    }
+
+    @Test
+    public void testLogOfUnknownVersionIsDropped() throws Exception {
+        File file = new File(directory, JobStore.FILE_NAME);
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        out.writeInt(0x53534a53);
+        out.writeByte(99);
+        out.writeByte(1);
+        out.writeInt(4);
+        out.writeInt(1);
+        out.close();
+
+        assertThat(new JobStore(directory).load().isEmpty(), is(true));
+
+        // Log has been rewritten empty in the current version, so that it can be appended to
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        in.readInt();
+        assertThat(in.readByte(), is((byte) 1));
+        in.close();
+    }
+}
@@ -0,0 +1,91 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class MetricsRecorderTest {
+
+    @Test
+    public void testBuckets() throws Exception {
+        assertThat(MetricsRecorder.bucketFor(0), is(0));
+        assertThat(MetricsRecorder.bucketFor(1), is(0));
+        assertThat(MetricsRecorder.bucketFor(2), is(1));
+        assertThat(MetricsRecorder.bucketFor(3), is(2));
+        assertThat(MetricsRecorder.bucketFor(60000), is(14));
+        assertThat(MetricsRecorder.bucketFor(Long.MAX_VALUE), is(15));
+    }
+
+    @Test
+    public void testFireDelayPerBackend() throws Exception {
+        MetricsRecorder recorder = new MetricsRecorder();
+        JobEntry entry = newEntry(1);
+
+        for (int i = 0; i < 90; i++) {
+            recorder.recordFire(entry, Job.Type.JOB_TYPE_HANDLER, 3);
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.recordFire(entry, Job.Type.JOB_TYPE_HANDLER, 150);
+        }
+        recorder.recordFire(entry, Job.Type.JOB_TYPE_ALARM, -5);
+
+        SchedulerMetrics metrics = recorder.snapshot();
+        assertThat(metrics.getHandlerFireCount(), is(100L));
+        assertThat(metrics.getAlarmFireCount(), is(1L));
+        assertThat(metrics.getHandlerFireDelay().getTotalCount(), is(100L));
+        assertThat(metrics.getHandlerFireDelay().getPercentileMillis(50), is(5L));
+        assertThat(metrics.getHandlerFireDelay().getPercentileMillis(90), is(5L));
+        assertThat(metrics.getHandlerFireDelay().getPercentileMillis(99), is(200L));
+        assertThat(metrics.getAlarmFireDelay().getCount(0), is(1L));
+
+        SchedulerMetrics.JobMetrics jobMetrics = MetricsRecorder.snapshot(entry);
+        assertThat(jobMetrics.getFireCount(), is(101L));
+        assertThat(jobMetrics.getMaxFireDelayMillis(), is(150L));
+        assertThat(jobMetrics.getAverageFireDelayMillis(), is((90 * 3 + 10 * 150) / 101L));
+    }
+
+    @Test
+    public void testCallbacksAndDeferrals() throws Exception {
+        MetricsRecorder recorder = new MetricsRecorder();
+        JobEntry entry = newEntry(1);
+
+        recorder.recordCallback(entry, 10, false);
+        recorder.recordCallback(entry, 30, true);
+        recorder.recordConstraintDeferral(entry);
+        recorder.recordOverlapSkip();
+        recorder.recordAlarmWakeup();
+        recorder.recordAlarmArm();
+        recorder.recordTimerTick();
+
+        SchedulerMetrics metrics = recorder.snapshot();
+        assertThat(metrics.getCallbackCount(), is(2L));
+        assertThat(metrics.getCallbackFailureCount(), is(1L));
+        assertThat(metrics.getConstraintDeferralCount(), is(1L));
+        assertThat(metrics.getOverlapSkipCount(), is(1L));
+        assertThat(metrics.getAlarmWakeupCount(), is(1L));
+        assertThat(metrics.getAlarmArmCount(), is(1L));
+        assertThat(metrics.getTimerTickCount(), is(1L));
+        assertThat(metrics.getCallbackDuration().getPercentileMillis(100), is(50L));
+
+        SchedulerMetrics.JobMetrics jobMetrics = MetricsRecorder.snapshot(entry);
+        assertThat(jobMetrics.getJobId(), is(1));
+        assertThat(jobMetrics.getCallbackCount(), is(2L));
+        assertThat(jobMetrics.getCallbackFailureCount(), is(1L));
+        assertThat(jobMetrics.getConstraintDeferralCount(), is(1L));
+        assertThat(jobMetrics.getAverageCallbackMillis(), is(20L));
+        assertThat(jobMetrics.getMaxCallbackMillis(), is(30L));
+    }
+
+    @Test
+    public void testEmptyHistogram() throws Exception {
+        SchedulerMetrics metrics = new MetricsRecorder().snapshot();
+        assertThat(metrics.getCallbackDuration().getPercentileMillis(99), is(0L));
+        assertThat(metrics.getCallbackDuration().getUpperBoundMillis(metrics.getCallbackDuration().getBucketCount() - 1),
+                is(Long.MAX_VALUE));
+    }
+
+    private static JobEntry newEntry(int jobId) {
+        return new JobEntry(new Job.Builder(jobId, new NoOpCallback()).setIntervalMillis(1000).build(), null);
+    }
+}
@@ -0,0 +1,13 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+/**
+ * Callback for tests which don't need to observe their jobs firing.
+ */
+class NoOpCallback implements SmartScheduler.JobScheduledCallback {
+    @Override
+    public void onJobScheduled(Context context, Job job) {
+        // do nothing
+    }
+}
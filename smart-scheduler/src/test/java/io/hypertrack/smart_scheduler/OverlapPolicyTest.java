@@ -0,0 +1,144 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class OverlapPolicyTest {
+
+    private static final long INTERVAL_MILLIS = 1000;
+
+    private static VirtualPlatform platform;
+    private static List<Long> fireTimes;
+    private static List<JobRun> runs;
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        fireTimes = new ArrayList<>();
+        runs = new ArrayList<>();
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testSkipWhileRunInFlight() throws Exception {
+        smartScheduler.addJob(buildJob(Job.OverlapPolicy.OVERLAP_POLICY_SKIP));
+
+        platform.runUntil(smartScheduler, 3500);
+        assertThat(fireTimes, is(Arrays.asList(1000L)));
+        assertThat(smartScheduler.getJobMetrics(1).getRunCount(), is(1));
+        assertThat(smartScheduler.getMetrics().getOverlapSkipCount(), is(2L));
+
+        runs.get(0).complete();
+        assertThat(smartScheduler.getJobMetrics(1).getRunCount(), is(0));
+
+        platform.runUntil(smartScheduler, 4500);
+        assertThat(fireTimes, is(Arrays.asList(1000L, 4000L)));
+    }
+
+    @Test
+    public void testQueueOneRunsOnceRunHasEnded() throws Exception {
+        smartScheduler.addJob(buildJob(Job.OverlapPolicy.OVERLAP_POLICY_QUEUE_ONE));
+
+        platform.runUntil(smartScheduler, 3500);
+        assertThat(fireTimes, is(Arrays.asList(1000L)));
+        assertThat(smartScheduler.getJobMetrics(1).getRunCount(), is(2));
+        assertThat(smartScheduler.getMetrics().getOverlapSkipCount(), is(1L));
+
+        runs.get(0).complete();
+        platform.runUntil(smartScheduler, 3600);
+        assertThat(fireTimes, is(Arrays.asList(1000L, 3500L)));
+        assertThat(smartScheduler.getJobMetrics(1).getRunCount(), is(1));
+
+        runs.get(1).complete();
+        platform.runUntil(smartScheduler, 4500);
+        assertThat(fireTimes, is(Arrays.asList(1000L, 3500L, 4000L)));
+    }
+
+    @Test
+    public void testQueuedInlineAlarmRunIsNotRunOnEndingThread() throws Exception {
+        smartScheduler.addJob(buildJob(Job.Type.JOB_TYPE_ALARM, Job.OverlapPolicy.OVERLAP_POLICY_QUEUE_ONE));
+        platform.runUntil(smartScheduler, 2500);
+
+        // Queued run is posted to the main thread instead of being run by the caller ending the run
+        runs.get(0).complete();
+        assertThat(fireTimes, is(Arrays.asList(1000L)));
+
+        platform.runUntil(smartScheduler, 2600);
+        assertThat(fireTimes, is(Arrays.asList(1000L, 2500L)));
+    }
+
+    @Test
+    public void testAllowConcurrent() throws Exception {
+        smartScheduler.addJob(buildJob(Job.OverlapPolicy.OVERLAP_POLICY_ALLOW_CONCURRENT));
+
+        platform.runUntil(smartScheduler, 3500);
+        assertThat(fireTimes, is(Arrays.asList(1000L, 2000L, 3000L)));
+        assertThat(smartScheduler.getJobMetrics(1).getRunCount(), is(3));
+
+        for (JobRun run : runs) {
+            run.complete();
+        }
+        assertThat(smartScheduler.getJobMetrics(1).getRunCount(), is(0));
+        assertThat(smartScheduler.getJobMetrics(1).getCallbackCount(), is(3L));
+        assertThat(smartScheduler.getMetrics().getOverlapSkipCount(), is(0L));
+    }
+
+    @Test
+    public void testRunEndsOnlyOnce() throws Exception {
+        smartScheduler.addJob(buildJob(Job.OverlapPolicy.OVERLAP_POLICY_SKIP));
+        platform.runUntil(smartScheduler, 1500);
+
+        JobRun run = runs.get(0);
+        assertThat(run.getJobId(), is(1));
+        assertThat(run.isDone(), is(false));
+
+        run.fail();
+        run.complete();
+        assertThat(run.isDone(), is(true));
+        assertThat(smartScheduler.getJobMetrics(1).getCallbackCount(), is(1L));
+        assertThat(smartScheduler.getJobMetrics(1).getCallbackFailureCount(), is(1L));
+    }
+
+    private static Job buildJob(int overlapPolicy) {
+        return buildJob(Job.Type.JOB_TYPE_HANDLER, overlapPolicy);
+    }
+
+    private static Job buildJob(int jobType, int overlapPolicy) {
+        return new Job.Builder(1, new TestCallback(), jobType)
+                .setPeriodic(INTERVAL_MILLIS)
+                .setPeriodicMode(Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE)
+                .setOverlapPolicy(overlapPolicy)
+                .build();
+    }
+
+    /**
+     * Leaves every run in flight till the test completes it
+     */
+    private static class TestCallback extends SmartScheduler.AsyncJobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job, JobRun run) {
+            fireTimes.add(platform.uptimeMillis());
+            runs.add(run);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PendingConstraintQueueTest {
+
+    private static final DeviceState.Snapshot OFFLINE = new DeviceState.Snapshot(false, false, false, false);
+    private static final DeviceState.Snapshot METERED = new DeviceState.Snapshot(true, false, false, false);
+    private static final DeviceState.Snapshot UNMETERED = new DeviceState.Snapshot(true, true, false, false);
+
+    @Test
+    public void testEntriesAreReleasedOnceConstraintsAreMet() throws Exception {
+        PendingConstraintQueue queue = new PendingConstraintQueue();
+        JobEntry connectedEntry = newEntry(1, Job.NetworkType.NETWORK_TYPE_CONNECTED);
+        JobEntry unmeteredEntry = newEntry(2, Job.NetworkType.NETWORK_TYPE_UNMETERED);
+        JobEntry otherConnectedEntry = newEntry(3, Job.NetworkType.NETWORK_TYPE_CONNECTED);
+        queue.park(connectedEntry);
+        queue.park(unmeteredEntry);
+        queue.park(otherConnectedEntry);
+
+        assertThat(queue.release(OFFLINE).size(), is(0));
+
+        List<JobEntry> released = queue.release(METERED);
+        assertThat(released.size(), is(2));
+        assertThat(released.get(0), sameInstance(connectedEntry));
+        assertThat(released.get(1), sameInstance(otherConnectedEntry));
+        assertThat(queue.size(), is(1));
+
+        released = queue.release(UNMETERED);
+        assertThat(released.size(), is(1));
+        assertThat(released.get(0), sameInstance(unmeteredEntry));
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testCancelledEntriesAreDropped() throws Exception {
+        PendingConstraintQueue queue = new PendingConstraintQueue();
+        JobEntry entry = newEntry(1, Job.NetworkType.NETWORK_TYPE_CONNECTED);
+        queue.park(entry);
+        entry.cancel();
+
+        assertThat(queue.release(METERED).size(), is(0));
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        PendingConstraintQueue queue = new PendingConstraintQueue();
+        JobEntry entry = newEntry(1, Job.NetworkType.NETWORK_TYPE_CONNECTED);
+        assertThat(queue.park(entry), is(true));
+        assertThat(queue.park(entry), is(false));
+
+        assertThat(queue.remove(entry), is(true));
+        assertThat(queue.remove(entry), is(false));
+    }
+
+    private static JobEntry newEntry(int jobId, int networkType) {
+        return new JobEntry(new Job.Builder(jobId, new NoOpCallback())
+                .setRequiredNetworkType(networkType)
+                .build(), null);
+    }
+}
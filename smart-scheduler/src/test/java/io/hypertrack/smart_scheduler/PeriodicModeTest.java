@@ -0,0 +1,136 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PeriodicModeTest {
+
+    private static final long INTERVAL_MILLIS = 1000;
+
+    private static VirtualPlatform platform;
+    private static List<Long> fireTimes;
+    private static long callbackMillis;
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        fireTimes = new ArrayList<>();
+        callbackMillis = 0;
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testFixedRateDoesNotDrift() throws Exception {
+        callbackMillis = 300;
+        smartScheduler.addJob(buildJob(Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE, Job.CatchUpPolicy.CATCH_UP_POLICY_FIRE_ONCE));
+
+        platform.runUntil(smartScheduler, 10 * INTERVAL_MILLIS);
+
+        assertThat(fireTimes.size(), is(10));
+        for (int i = 0; i < fireTimes.size(); i++) {
+            assertThat(fireTimes.get(i), is((i + 1) * INTERVAL_MILLIS));
+        }
+    }
+
+    @Test
+    public void testFixedDelayStartsAfterCallback() throws Exception {
+        callbackMillis = 300;
+        smartScheduler.addJob(buildJob(Job.PeriodicMode.PERIODIC_MODE_FIXED_DELAY, Job.CatchUpPolicy.CATCH_UP_POLICY_FIRE_ONCE));
+
+        platform.runUntil(smartScheduler, 10 * INTERVAL_MILLIS);
+
+        assertThat(fireTimes.size(), is(7));
+        for (int i = 1; i < fireTimes.size(); i++) {
+            long delay = fireTimes.get(i) - (fireTimes.get(i - 1) + callbackMillis);
+            assertThat(delay >= INTERVAL_MILLIS && delay <= INTERVAL_MILLIS + JobTimer.TICK_MILLIS, is(true));
+        }
+    }
+
+    @Test
+    public void testFixedDelayIsDefault() throws Exception {
+        Job job = new Job.Builder(1, new TestCallback(), Job.Type.JOB_TYPE_HANDLER)
+                .setPeriodic(INTERVAL_MILLIS)
+                .build();
+        assertThat(job.getPeriodicMode(), is(Job.PeriodicMode.PERIODIC_MODE_FIXED_DELAY));
+    }
+
+    @Test
+    public void testCatchUpFireOnce() throws Exception {
+        runStalledJob(Job.CatchUpPolicy.CATCH_UP_POLICY_FIRE_ONCE);
+        assertThat(fireTimes, is(Arrays.asList(3700L, 4000L)));
+    }
+
+    @Test
+    public void testCatchUpFireAll() throws Exception {
+        runStalledJob(Job.CatchUpPolicy.CATCH_UP_POLICY_FIRE_ALL);
+        assertThat(fireTimes.size(), is(4));
+        assertThat(fireTimes.get(0), is(3700L));
+        assertThat(fireTimes.get(3), is(4000L));
+    }
+
+    @Test
+    public void testCatchUpSkip() throws Exception {
+        runStalledJob(Job.CatchUpPolicy.CATCH_UP_POLICY_SKIP);
+        assertThat(fireTimes, is(Arrays.asList(4000L)));
+    }
+
+    @Test
+    public void testAlarmJobWaitsForInitialDelay() throws Exception {
+        Job job = new Job.Builder(1, new TestCallback(), Job.Type.JOB_TYPE_ALARM)
+                .setPeriodic(3 * Job.JOB_TYPE_HANDLER_THRESHOLD, Job.JOB_TYPE_HANDLER_THRESHOLD)
+                .build();
+        smartScheduler.addJob(job);
+
+        platform.runUntil(smartScheduler, 8 * Job.JOB_TYPE_HANDLER_THRESHOLD);
+
+        assertThat(fireTimes, is(Arrays.asList(Job.JOB_TYPE_HANDLER_THRESHOLD, 4 * Job.JOB_TYPE_HANDLER_THRESHOLD,
+                7 * Job.JOB_TYPE_HANDLER_THRESHOLD)));
+    }
+
+    /**
+     * Stalls the platform from 500ms to 3700ms, missing the occurrences due at 1000, 2000 and 3000ms
+     */
+    private void runStalledJob(int catchUpPolicy) {
+        smartScheduler.addJob(buildJob(Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE, catchUpPolicy));
+
+        platform.runUntil(smartScheduler, 500);
+        platform.stall(3200);
+        platform.runUntil(smartScheduler, 4500);
+    }
+
+    private static Job buildJob(int periodicMode, int catchUpPolicy) {
+        return new Job.Builder(1, new TestCallback(), Job.Type.JOB_TYPE_HANDLER)
+                .setPeriodic(INTERVAL_MILLIS)
+                .setPeriodicMode(periodicMode)
+                .setCatchUpPolicy(catchUpPolicy)
+                .build();
+    }
+
+    private static class TestCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            fireTimes.add(platform.uptimeMillis());
+            platform.stall(callbackMillis);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PhaseSpreadingTest {
+
+    private static final long INTERVAL_MILLIS = 10000;
+    private static final int JOB_COUNT = 100;
+
+    private static VirtualPlatform platform;
+    private static long[] firstFireTimes;
+    private static long[] lastFireTimes;
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        firstFireTimes = new long[JOB_COUNT + 1];
+        lastFireTimes = new long[JOB_COUNT + 1];
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testDelayEndsInPhase() throws Exception {
+        for (int jobId = 1; jobId <= 1000; jobId++) {
+            Job job = buildJob(jobId);
+            long offset = PhaseSpreading.getPhaseOffsetInMillis(jobId, INTERVAL_MILLIS);
+            assertThat(offset, greaterThanOrEqualTo(0L));
+            assertThat(offset, lessThan(INTERVAL_MILLIS));
+            assertThat(PhaseSpreading.getPhaseOffsetInMillis(jobId, INTERVAL_MILLIS), is(offset));
+
+            long now = 1500000000000L + jobId * 7;
+            long delay = PhaseSpreading.getDelayInMillis(job, now);
+            assertThat(delay, greaterThan(0L));
+            assertThat(delay, lessThanOrEqualTo(INTERVAL_MILLIS));
+            assertThat((now + delay - offset) % INTERVAL_MILLIS, is(0L));
+        }
+    }
+
+    @Test
+    public void testOffsetsAreSpreadEvenly() throws Exception {
+        int[] buckets = new int[10];
+        for (int jobId = 1; jobId <= 10000; jobId++) {
+            buckets[(int) (PhaseSpreading.getPhaseOffsetInMillis(jobId, INTERVAL_MILLIS) * buckets.length / INTERVAL_MILLIS)]++;
+        }
+
+        for (int count : buckets) {
+            assertThat(count, greaterThan(900));
+            assertThat(count, lessThan(1100));
+        }
+    }
+
+    @Test
+    public void testJobsAddedAtOnceFireAtOnceByDefault() throws Exception {
+        addJobs();
+        platform.runUntil(smartScheduler, 3 * INTERVAL_MILLIS);
+
+        assertThat(countDistinctFirstFireTimes(), is(1));
+    }
+
+    @Test
+    public void testJobsAddedAtOnceAreSpread() throws Exception {
+        smartScheduler.setPhaseSpreadingEnabled(true);
+        addJobs();
+        platform.runUntil(smartScheduler, 3 * INTERVAL_MILLIS);
+
+        assertThat(countDistinctFirstFireTimes(), greaterThan(JOB_COUNT * 9 / 10));
+        for (int jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            assertThat(firstFireTimes[jobId], greaterThan(0L));
+            assertThat(firstFireTimes[jobId], lessThanOrEqualTo(INTERVAL_MILLIS + JobTimer.TICK_MILLIS));
+
+            // Jobs keep their phase once spread
+            assertThat(lastFireTimes[jobId] - firstFireTimes[jobId], is(2 * INTERVAL_MILLIS));
+        }
+    }
+
+    @Test
+    public void testExplicitInitialDelayIsKept() throws Exception {
+        smartScheduler.setPhaseSpreadingEnabled(true);
+        smartScheduler.addJob(new Job.Builder(1, new TestCallback(), Job.Type.JOB_TYPE_ALARM)
+                .setPeriodic(INTERVAL_MILLIS, 1000)
+                .build());
+        platform.runUntil(smartScheduler, INTERVAL_MILLIS);
+
+        assertThat(firstFireTimes[1], is(1000L));
+    }
+
+    private void addJobs() {
+        for (int jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            smartScheduler.addJob(buildJob(jobId));
+        }
+    }
+
+    private static int countDistinctFirstFireTimes() {
+        HashSet<Long> fireTimes = new HashSet<>();
+        for (int jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            fireTimes.add(firstFireTimes[jobId]);
+        }
+        return fireTimes.size();
+    }
+
+    private static Job buildJob(int jobId) {
+        return new Job.Builder(jobId, new TestCallback(), Job.Type.JOB_TYPE_ALARM)
+                .setPeriodic(INTERVAL_MILLIS)
+                .build();
+    }
+
+    private static class TestCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            if (firstFireTimes[job.getJobId()] == 0) {
+                firstFireTimes[job.getJobId()] = platform.uptimeMillis();
+            }
+            lastFireTimes[job.getJobId()] = platform.uptimeMillis();
+        }
+    }
+}
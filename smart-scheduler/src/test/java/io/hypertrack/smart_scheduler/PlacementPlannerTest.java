@@ -0,0 +1,121 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PlacementPlannerTest {
+
+    private static final long START_TIME = 1000;
+    private static final long INTERVAL_MILLIS = 5 * 60 * 1000;
+    private static final long HOUR = 60 * 60 * 1000;
+
+    private static VirtualPlatform platform;
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testJobsOfNewProcessArePlacedAsPerThreshold() throws Exception {
+        PlacementPlanner planner = new PlacementPlanner(START_TIME);
+
+        for (long intervalMillis = 1000; intervalMillis <= 5 * Job.JOB_TYPE_HANDLER_THRESHOLD; intervalMillis += 1000) {
+            Job job = buildJob(1, intervalMillis);
+            assertThat(planner.place(job, START_TIME, false, false), is(job.getJobType()));
+        }
+    }
+
+    @Test
+    public void testJobsOfLongLivedProcessPreferHandlers() throws Exception {
+        PlacementPlanner planner = new PlacementPlanner(START_TIME);
+        Job job = buildJob(1, INTERVAL_MILLIS);
+
+        assertThat(planner.place(job, START_TIME, false, false), is(Job.Type.JOB_TYPE_ALARM));
+        assertThat(planner.place(job, START_TIME + HOUR, false, false), is(Job.Type.JOB_TYPE_HANDLER));
+
+        // Joining a wakeup held by another job is cheap enough to stay on alarms
+        assertThat(planner.place(job, START_TIME + HOUR, true, false), is(Job.Type.JOB_TYPE_ALARM));
+    }
+
+    @Test
+    public void testPowerSaveModeMakesWakeupsCostlier() throws Exception {
+        PlacementPlanner planner = new PlacementPlanner(START_TIME);
+        Job job = buildJob(1, 2 * Job.JOB_TYPE_HANDLER_THRESHOLD);
+
+        assertThat(planner.place(job, START_TIME, false, false), is(Job.Type.JOB_TYPE_ALARM));
+        assertThat(planner.place(job, START_TIME, false, true), is(Job.Type.JOB_TYPE_HANDLER));
+    }
+
+    @Test
+    public void testLateAlarmsMoveJobsWithDeadlineToHandlers() throws Exception {
+        PlacementPlanner planner = new PlacementPlanner(START_TIME);
+        Job job = new Job.Builder(1, new NoOpCallback())
+                .setPeriodic(10 * 60 * 1000)
+                .setDeadline(60 * 1000)
+                .build();
+        assertThat(planner.place(job, START_TIME, false, false), is(Job.Type.JOB_TYPE_ALARM));
+
+        for (int i = 0; i < 50; i++) {
+            planner.recordFire(Job.Type.JOB_TYPE_ALARM, 20 * 60 * 1000);
+        }
+        assertThat(planner.place(job, START_TIME, false, false), is(Job.Type.JOB_TYPE_HANDLER));
+
+        // Jobs without a deadline tolerate a delay of up to their interval
+        assertThat(planner.place(buildJob(2, 30 * 60 * 1000), START_TIME, false, false), is(Job.Type.JOB_TYPE_ALARM));
+    }
+
+    @Test
+    public void testJobMovesToHandlerOnceProcessHasLivedLong() throws Exception {
+        smartScheduler.setAdaptivePlacementEnabled(true);
+        smartScheduler.addJob(buildJob(1, INTERVAL_MILLIS));
+        platform.runUntil(smartScheduler, HOUR);
+
+        // Next occurrence is placed on handlers once the process has lived longer than an interval
+        SchedulerMetrics metrics = smartScheduler.getMetrics();
+        assertThat(metrics.getAlarmFireCount(), is(2L));
+        assertThat(metrics.getHandlerFireCount(), is(HOUR / INTERVAL_MILLIS - 2));
+    }
+
+    @Test
+    public void testJobsAreNotPlacedByDefault() throws Exception {
+        smartScheduler.addJob(buildJob(1, INTERVAL_MILLIS));
+        platform.runUntil(smartScheduler, HOUR);
+
+        assertThat(smartScheduler.getMetrics().getAlarmFireCount(), is(HOUR / INTERVAL_MILLIS));
+        assertThat(smartScheduler.getMetrics().getHandlerFireCount(), is(0L));
+    }
+
+    @Test
+    public void testJobsWithTypeAreNotPlaced() throws Exception {
+        smartScheduler.setAdaptivePlacementEnabled(true);
+        smartScheduler.addJob(new Job.Builder(1, new NoOpCallback(), Job.Type.JOB_TYPE_ALARM)
+                .setPeriodic(INTERVAL_MILLIS)
+                .build());
+        platform.runUntil(smartScheduler, HOUR);
+
+        assertThat(smartScheduler.getMetrics().getAlarmFireCount(), is(HOUR / INTERVAL_MILLIS));
+        assertThat(smartScheduler.getMetrics().getHandlerFireCount(), is(0L));
+    }
+
+    private static Job buildJob(int jobId, long intervalMillis) {
+        return new Job.Builder(jobId, new NoOpCallback())
+                .setPeriodic(intervalMillis)
+                .build();
+    }
+}
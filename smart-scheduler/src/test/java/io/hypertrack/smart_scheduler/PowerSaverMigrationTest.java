@@ -0,0 +1,68 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class PowerSaverMigrationTest {
+
+    private static final int JOB_COUNT = 100;
+    private static final long HANDLER_INTERVAL_MILLIS = Job.JOB_TYPE_HANDLER_THRESHOLD * 2;
+    private static final long ALARM_INTERVAL_MILLIS = Job.JOB_TYPE_HANDLER_THRESHOLD / 2;
+    private static final long PERIOD_MILLIS = Job.JOB_TYPE_HANDLER_THRESHOLD * 10;
+
+    private TestContext context;
+    private VirtualPlatform platform;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testJobsMoveBetweenBackends() throws Exception {
+        // Half of the jobs change their backend in power saver mode
+        for (int jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            Job.Builder builder;
+            if (jobId % 2 == 0) {
+                builder = new Job.Builder(jobId, new NoOpCallback(), Job.Type.JOB_TYPE_HANDLER)
+                        .setPeriodic(HANDLER_INTERVAL_MILLIS);
+            } else {
+                builder = new Job.Builder(jobId, new NoOpCallback(), Job.Type.JOB_TYPE_ALARM)
+                        .setPeriodic(ALARM_INTERVAL_MILLIS);
+            }
+            assertThat(smartScheduler.addJob(builder.build()), is(true));
+        }
+
+        long handlerFires = JOB_COUNT / 2 * (PERIOD_MILLIS / HANDLER_INTERVAL_MILLIS);
+        long alarmFires = JOB_COUNT / 2 * (PERIOD_MILLIS / ALARM_INTERVAL_MILLIS);
+
+        smartScheduler.onPowerSaverModeChanged(true);
+        platform.runUntil(smartScheduler, PERIOD_MILLIS);
+        SchedulerMetrics metrics = smartScheduler.getMetrics();
+        assertThat(metrics.getAlarmFireCount(), is(handlerFires));
+        assertThat(metrics.getHandlerFireCount(), is(alarmFires));
+
+        smartScheduler.onPowerSaverModeChanged(false);
+        platform.runUntil(smartScheduler, 2 * PERIOD_MILLIS);
+        metrics = smartScheduler.getMetrics();
+        assertThat(metrics.getAlarmFireCount(), is(handlerFires + alarmFires));
+        assertThat(metrics.getHandlerFireCount(), is(alarmFires + handlerFires));
+
+        for (int jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            assertThat(smartScheduler.contains(jobId), is(true));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class ReadyOrderTest {
+
+    private static final long INTERVAL_MILLIS = 2 * Job.JOB_TYPE_HANDLER_THRESHOLD;
+
+    private static VirtualPlatform platform;
+    private static List<Integer> firedJobIds;
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        firedJobIds = new ArrayList<>();
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testReadyTasksAreOrderedByDeadlineThenPriority() throws Exception {
+        Job noDeadline = new Job.Builder(1, new TestCallback()).setPriority(Job.Priority.PRIORITY_HIGH).build();
+        Job lateDeadline = new Job.Builder(2, new TestCallback()).setDeadline(1000).build();
+        Job earlyDeadline = new Job.Builder(3, new TestCallback()).setDeadline(100).build();
+        Job earlyDeadlineHigh = new Job.Builder(4, new TestCallback())
+                .setDeadline(100)
+                .setPriority(Job.Priority.PRIORITY_HIGH)
+                .build();
+
+        List<ReadyTask> tasks = new ArrayList<>(Arrays.asList(newTask(noDeadline, 0), newTask(lateDeadline, 0),
+                newTask(earlyDeadline, 0), newTask(earlyDeadlineHigh, 0), newTask(earlyDeadline, 900)));
+        List<ReadyTask> expected = Arrays.asList(tasks.get(3), tasks.get(2), tasks.get(1), tasks.get(4), tasks.get(0));
+        Collections.shuffle(tasks);
+        Collections.sort(tasks);
+
+        assertThat(tasks, is(expected));
+    }
+
+    @Test
+    public void testAlarmBurstRunsEarliestDeadlineFirst() throws Exception {
+        addJobs(Job.Type.JOB_TYPE_ALARM);
+
+        platform.runUntil(smartScheduler, INTERVAL_MILLIS);
+
+        assertThat(firedJobIds, is(Arrays.asList(4, 3, 2, 1, 5)));
+    }
+
+    @Test
+    public void testHandlerBurstRunsEarliestDeadlineFirst() throws Exception {
+        addJobs(Job.Type.JOB_TYPE_HANDLER);
+
+        platform.runUntil(smartScheduler, INTERVAL_MILLIS);
+
+        assertThat(firedJobIds, is(Arrays.asList(4, 3, 2, 1, 5)));
+    }
+
+    @Test
+    public void testReleasedJobsRunEarliestDeadlineFirst() throws Exception {
+        platform.setSnapshot(new DeviceState.Snapshot(false, false, true, false));
+        smartScheduler.addJobs(Arrays.asList(
+                buildJob(1, Job.Type.JOB_TYPE_ALARM, INTERVAL_MILLIS)
+                        .setRequiredNetworkType(Job.NetworkType.NETWORK_TYPE_CONNECTED).build(),
+                buildJob(2, Job.Type.JOB_TYPE_ALARM, 2 * INTERVAL_MILLIS).setDeadline(1000)
+                        .setRequiredNetworkType(Job.NetworkType.NETWORK_TYPE_CONNECTED).build(),
+                buildJob(3, Job.Type.JOB_TYPE_ALARM, 3 * INTERVAL_MILLIS).setDeadline(100)
+                        .setRequiredNetworkType(Job.NetworkType.NETWORK_TYPE_CONNECTED).build()));
+
+        platform.runUntil(smartScheduler, 3 * INTERVAL_MILLIS);
+        assertThat(firedJobIds.isEmpty(), is(true));
+
+        // Released inline Alarm type jobs are posted to the main thread in order
+        platform.setSnapshot(new DeviceState.Snapshot(true, true, true, false));
+        platform.runUntil(smartScheduler, 3 * INTERVAL_MILLIS);
+        assertThat(firedJobIds, is(Arrays.asList(2, 3, 1)));
+    }
+
+    /**
+     * Adds five jobs due at the same time, in the reverse of the order they are expected to run
+     */
+    private void addJobs(int jobType) {
+        smartScheduler.addJobs(Arrays.asList(
+                buildJob(5, jobType, INTERVAL_MILLIS).setPriority(Job.Priority.PRIORITY_LOW).build(),
+                buildJob(1, jobType, INTERVAL_MILLIS).build(),
+                buildJob(2, jobType, INTERVAL_MILLIS).setDeadline(1000).build(),
+                buildJob(3, jobType, INTERVAL_MILLIS).setDeadline(100).build(),
+                buildJob(4, jobType, INTERVAL_MILLIS).setDeadline(100).setPriority(Job.Priority.PRIORITY_HIGH).build()));
+    }
+
+    private static Job.Builder buildJob(int jobId, int jobType, long intervalMillis) {
+        return new Job.Builder(jobId, new TestCallback(), jobType)
+                .setIntervalMillis(intervalMillis)
+                .setExecutionPolicy(Job.ExecutionPolicy.EXECUTION_POLICY_INLINE);
+    }
+
+    private static ReadyTask newTask(Job job, long dueTimeUptime) {
+        return new ReadyTask(ReadyTask.getReadyDeadline(job, dueTimeUptime), job.getPriority()) {
+            @Override
+            public void run() {
+            }
+        };
+    }
+
+    private static class TestCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            firedJobIds.add(job.getJobId());
+        }
+    }
+}
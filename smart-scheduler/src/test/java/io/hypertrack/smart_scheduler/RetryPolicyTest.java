@@ -0,0 +1,199 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class RetryPolicyTest {
+
+    private static final long INTERVAL_MILLIS = 1000;
+    private static final long BASE_DELAY_MILLIS = 100;
+    private static final long MAX_DELAY_MILLIS = 300;
+
+    private static VirtualPlatform platform;
+    private static List<Long> fireTimes;
+    private static int failuresLeft;
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        fireTimes = new ArrayList<>();
+        failuresLeft = 0;
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testMaxDelayDoublesUpToCap() throws Exception {
+        Job job = buildJob(Job.Type.JOB_TYPE_HANDLER, 10).setIntervalMillis(INTERVAL_MILLIS).build();
+
+        assertThat(RetryBackoff.getMaxDelayInMillis(job, 1), is(100L));
+        assertThat(RetryBackoff.getMaxDelayInMillis(job, 2), is(200L));
+        assertThat(RetryBackoff.getMaxDelayInMillis(job, 3), is(300L));
+        assertThat(RetryBackoff.getMaxDelayInMillis(job, Integer.MAX_VALUE), is(300L));
+    }
+
+    @Test
+    public void testDelayIsJittered() throws Exception {
+        Job job = buildJob(Job.Type.JOB_TYPE_HANDLER, 10).setIntervalMillis(INTERVAL_MILLIS).build();
+        RetryBackoff retryBackoff = new RetryBackoff(new Random(42));
+
+        long minDelay = Long.MAX_VALUE;
+        long maxDelay = 0;
+        for (int i = 0; i < 1000; i++) {
+            long delay = retryBackoff.getDelayInMillis(job, 3);
+            minDelay = Math.min(minDelay, delay);
+            maxDelay = Math.max(maxDelay, delay);
+        }
+
+        assertThat(minDelay, greaterThanOrEqualTo(0L));
+        assertThat(minDelay < 30, is(true));
+        assertThat(maxDelay, lessThanOrEqualTo(MAX_DELAY_MILLIS));
+        assertThat(maxDelay > 270, is(true));
+    }
+
+    @Test
+    public void testOneTimeJobIsRetriedTillItSucceeds() throws Exception {
+        failuresLeft = 2;
+        smartScheduler.addJob(buildJob(Job.Type.JOB_TYPE_HANDLER, 3).setIntervalMillis(INTERVAL_MILLIS).build());
+
+        platform.runUntil(smartScheduler, 5 * INTERVAL_MILLIS);
+
+        assertThat(fireTimes.size(), is(3));
+        assertThat(fireTimes.get(0), is(INTERVAL_MILLIS));
+        assertRetryDelays(2);
+        assertThat(smartScheduler.contains(1), is(false));
+        assertThat(smartScheduler.getMetrics().getRetryCount(), is(2L));
+    }
+
+    @Test
+    public void testOneTimeJobIsRemovedOnceAllAttemptsFailed() throws Exception {
+        failuresLeft = 5;
+        smartScheduler.addJob(buildJob(Job.Type.JOB_TYPE_ALARM, 3).setIntervalMillis(INTERVAL_MILLIS).build());
+
+        platform.runUntil(smartScheduler, 5 * INTERVAL_MILLIS);
+
+        assertThat(fireTimes.size(), is(3));
+        assertRetryDelays(2);
+        assertThat(smartScheduler.contains(1), is(false));
+    }
+
+    @Test
+    public void testFixedRateJobResumesAtNextOccurrence() throws Exception {
+        failuresLeft = 1;
+        smartScheduler.addJob(buildJob(Job.Type.JOB_TYPE_HANDLER, 3)
+                .setPeriodic(INTERVAL_MILLIS)
+                .setPeriodicMode(Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE)
+                .build());
+
+        platform.runUntil(smartScheduler, 3 * INTERVAL_MILLIS + 500);
+
+        assertThat(fireTimes.size(), is(4));
+        assertThat(fireTimes.get(0), is(INTERVAL_MILLIS));
+        assertRetryDelays(1);
+        assertThat(fireTimes.subList(2, 4), is(Arrays.asList(2 * INTERVAL_MILLIS, 3 * INTERVAL_MILLIS)));
+    }
+
+    @Test
+    public void testFailedJobRunIsRetried() throws Exception {
+        failuresLeft = 1;
+        smartScheduler.addJob(new Job.Builder(1, new AsyncTestCallback(), Job.Type.JOB_TYPE_HANDLER)
+                .setIntervalMillis(INTERVAL_MILLIS)
+                .setRetryPolicy(2, BASE_DELAY_MILLIS, MAX_DELAY_MILLIS)
+                .build());
+
+        platform.runUntil(smartScheduler, 5 * INTERVAL_MILLIS);
+
+        assertThat(fireTimes.size(), is(2));
+        assertRetryDelays(1);
+        assertThat(smartScheduler.contains(1), is(false));
+    }
+
+    @Test
+    public void testNoRetryByDefault() throws Exception {
+        failuresLeft = 1;
+        smartScheduler.addJob(new Job.Builder(1, new TestCallback(), Job.Type.JOB_TYPE_HANDLER)
+                .setIntervalMillis(INTERVAL_MILLIS)
+                .build());
+
+        platform.runUntil(smartScheduler, 5 * INTERVAL_MILLIS);
+
+        assertThat(fireTimes.size(), is(1));
+        assertThat(smartScheduler.contains(1), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroMaxAttemptsIsRejected() throws Exception {
+        buildJob(Job.Type.JOB_TYPE_HANDLER, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDelayIsRejected() throws Exception {
+        new Job.Builder(1, new TestCallback(), Job.Type.JOB_TYPE_HANDLER)
+                .setRetryPolicy(2, -1, MAX_DELAY_MILLIS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxDelayBelowBaseDelayIsRejected() throws Exception {
+        new Job.Builder(1, new TestCallback(), Job.Type.JOB_TYPE_HANDLER)
+                .setRetryPolicy(2, BASE_DELAY_MILLIS, BASE_DELAY_MILLIS - 1);
+    }
+
+    /**
+     * Checks that the n-th retry was fired within its jittered delay after the previous run
+     */
+    private static void assertRetryDelays(int retryCount) {
+        for (int attempt = 1; attempt <= retryCount; attempt++) {
+            long delay = fireTimes.get(attempt) - fireTimes.get(attempt - 1);
+            assertThat(delay, greaterThanOrEqualTo(0L));
+            assertThat(delay, lessThanOrEqualTo((BASE_DELAY_MILLIS << (attempt - 1)) + JobTimer.TICK_MILLIS));
+        }
+    }
+
+    private static Job.Builder buildJob(int jobType, int maxAttempts) {
+        return new Job.Builder(1, new TestCallback(), jobType)
+                .setRetryPolicy(maxAttempts, BASE_DELAY_MILLIS, MAX_DELAY_MILLIS);
+    }
+
+    private static class TestCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            fireTimes.add(platform.uptimeMillis());
+            if (failuresLeft-- > 0)
+                throw new IllegalStateException("Backend unavailable");
+        }
+    }
+
+    private static class AsyncTestCallback extends SmartScheduler.AsyncJobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job, JobRun run) {
+            fireTimes.add(platform.uptimeMillis());
+            if (failuresLeft-- > 0) {
+                run.fail();
+            } else {
+                run.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class SerialExecutorTest {
+
+    @Test
+    public void testTasksRunInOrderOneAtATime() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        SerialExecutor serialExecutor = new SerialExecutor(pool);
+
+        final int taskCount = 1000;
+        final List<Integer> order = new ArrayList<>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(taskCount);
+
+        for (int i = 0; i < taskCount; i++) {
+            final int task = i;
+            serialExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (running.incrementAndGet() > 1)
+                        overlaps.incrementAndGet();
+
+                    synchronized (order) {
+                        order.add(task);
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS), is(true));
+        pool.shutdown();
+
+        assertThat(overlaps.get(), is(0));
+        for (int i = 0; i < taskCount; i++) {
+            assertThat(order.get(i), is(i));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class SmartSchedulerBatchTest {
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+        smartScheduler = new SmartScheduler(context, new VirtualPlatform());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testAddJobsReturnsPerJobResults() throws Exception {
+        Job first = buildAlarmJob(1, 10000);
+        Job replaced = buildAlarmJob(2, 10000);
+        Job replacement = buildAlarmJob(2, 20000);
+        Job invalid = new Job.Builder(0, new NoOpCallback(), Job.Type.JOB_TYPE_ALARM).setIntervalMillis(10000).build();
+
+        boolean[] results = smartScheduler.addJobs(Arrays.asList(first, replaced, null, invalid, replacement));
+
+        assertThat(results, is(new boolean[]{true, false, false, false, true}));
+        assertThat(smartScheduler.contains(first), is(true));
+        assertThat(smartScheduler.contains(replacement), is(true));
+        assertThat(smartScheduler.contains(replaced), is(false));
+    }
+
+    @Test
+    public void testBatchArmsWakeupOnce() throws Exception {
+        // Every job is due before the previous one, so each would re-arm the wakeup on its own
+        List<Job> jobs = new ArrayList<>();
+        int[] jobIds = new int[100];
+        for (int jobId = 1; jobId <= 100; jobId++) {
+            jobs.add(buildAlarmJob(jobId, 1000000 - jobId * 1000));
+            jobIds[jobId - 1] = jobId;
+        }
+
+        smartScheduler.addJobs(jobs);
+        assertThat(smartScheduler.getMetrics().getAlarmArmCount(), is(1L));
+
+        boolean[] results = smartScheduler.removeJobs(jobIds);
+        for (boolean result : results) {
+            assertThat(result, is(true));
+        }
+        assertThat(smartScheduler.getMetrics().getAlarmArmCount(), is(1L));
+    }
+
+    @Test
+    public void testRemoveJobsReturnsPerJobResults() throws Exception {
+        smartScheduler.addJob(buildAlarmJob(1, 10000));
+
+        boolean[] results = smartScheduler.removeJobs(new int[]{1, 2, 1});
+
+        assertThat(results, is(new boolean[]{true, false, false}));
+        assertThat(smartScheduler.contains(1), is(false));
+    }
+
+    private static Job buildAlarmJob(int jobId, long intervalMillis) {
+        return new Job.Builder(jobId, new NoOpCallback(), Job.Type.JOB_TYPE_ALARM)
+                .setIntervalMillis(intervalMillis)
+                .build();
+    }
+}
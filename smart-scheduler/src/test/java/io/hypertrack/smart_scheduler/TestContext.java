@@ -0,0 +1,44 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+import android.test.mock.MockContext;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Application context for tests, with its files directory in a fresh temporary directory.
+ */
+class TestContext extends MockContext {
+
+    private final File filesDir;
+
+    TestContext() throws IOException {
+        filesDir = File.createTempFile("smart-scheduler", "");
+        if (!filesDir.delete() || !filesDir.mkdirs())
+            throw new IOException("Unable to create files directory: " + filesDir);
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public File getFilesDir() {
+        return filesDir;
+    }
+
+    /**
+     * Method to delete the files directory along with all files written to it
+     */
+    void deleteFiles() {
+        File[] files = filesDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        filesDir.delete();
+    }
+}
@@ -0,0 +1,118 @@
+package io.hypertrack.smart_scheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class TimingWheelTest {
+
+    private static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SIZE = 8;
+
+    private final List<TimingWheel.Timeout> expired = new ArrayList<>();
+    private final TimingWheel.Listener listener = new TimingWheel.Listener() {
+        @Override
+        public void onExpired(TimingWheel.Timeout timeout) {
+            expired.add(timeout);
+        }
+    };
+
+    @Test
+    public void testTimeoutNeverExpiresBeforeDeadline() throws Exception {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, WHEEL_SIZE, 0);
+        TimingWheel.Timeout timeout = new TimingWheel.Timeout();
+        wheel.schedule(timeout, 25);
+
+        wheel.expire(29, listener);
+        assertThat(expired.isEmpty(), is(true));
+
+        wheel.expire(30, listener);
+        assertThat(expired.size(), is(1));
+        assertThat(wheel.size(), is(0));
+    }
+
+    @Test
+    public void testTimeoutAcrossRotations() throws Exception {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, WHEEL_SIZE, 0);
+        TimingWheel.Timeout timeout = new TimingWheel.Timeout();
+
+        // Same slot as tick 1, but three rotations later
+        wheel.schedule(timeout, (1 + 3 * WHEEL_SIZE) * TICK_MILLIS);
+
+        for (long now = 0; now < (1 + 3 * WHEEL_SIZE) * TICK_MILLIS; now += TICK_MILLIS) {
+            wheel.expire(now, listener);
+        }
+        assertThat(expired.isEmpty(), is(true));
+
+        wheel.expire((1 + 3 * WHEEL_SIZE) * TICK_MILLIS, listener);
+        assertThat(expired.size(), is(1));
+    }
+
+    @Test
+    public void testExpireAfterFallingBehind() throws Exception {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, WHEEL_SIZE, 0);
+        for (int i = 1; i <= 20; i++) {
+            wheel.schedule(new TimingWheel.Timeout(), i * TICK_MILLIS);
+        }
+
+        wheel.expire(10 * WHEEL_SIZE * TICK_MILLIS, listener);
+        assertThat(expired.size(), is(20));
+        assertThat(wheel.nextTickTime(), is(-1L));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, WHEEL_SIZE, 0);
+        TimingWheel.Timeout timeout = new TimingWheel.Timeout();
+        wheel.schedule(timeout, 50);
+
+        assertThat(wheel.cancel(timeout), is(true));
+        assertThat(wheel.cancel(timeout), is(false));
+
+        wheel.expire(100, listener);
+        assertThat(expired.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testRescheduleMovesTimeout() throws Exception {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, WHEEL_SIZE, 0);
+        TimingWheel.Timeout timeout = new TimingWheel.Timeout();
+        wheel.schedule(timeout, 20);
+        wheel.schedule(timeout, 60);
+
+        assertThat(wheel.size(), is(1));
+        assertThat(wheel.nextTickTime(), is(60L));
+
+        wheel.expire(50, listener);
+        assertThat(expired.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testNextTickTimeWrapsAround() throws Exception {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, 128, 0);
+        TimingWheel.Timeout early = new TimingWheel.Timeout();
+        TimingWheel.Timeout late = new TimingWheel.Timeout();
+
+        // Move the wheel past the first word of the bitmap
+        wheel.expire(100 * TICK_MILLIS, listener);
+        wheel.schedule(late, 150 * TICK_MILLIS);
+        wheel.schedule(early, 120 * TICK_MILLIS);
+        assertThat(wheel.nextTickTime(), is(120 * TICK_MILLIS));
+
+        wheel.cancel(early);
+        assertThat(wheel.nextTickTime(), is(150 * TICK_MILLIS));
+
+        wheel.expire(150 * TICK_MILLIS, listener);
+        assertThat(wheel.nextTickTime(), is(-1L));
+        assertThat(expired.size(), is(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWheelSizeMustBePowerOfTwo() throws Exception {
+        new TimingWheel(TICK_MILLIS, 10, 0);
+    }
+}
@@ -0,0 +1,229 @@
+package io.hypertrack.smart_scheduler;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Deterministic platform for running the SmartScheduler in virtual time. All dispatchers and the
+ * worker pool run their tasks on the thread calling {@link #runUntil(SmartScheduler, long)}, in
+ * order of their due time and then of their dispatch order. Time only moves on between tasks,
+ * unless a task calls {@link #stall(long)}. The device never sleeps, so uptime and elapsed realtime
+ * are the same.
+ */
+final class VirtualPlatform implements Platform, Clock, WakeupBackend, DeviceState, Dispatcher, Executor {
+
+    // Wall clock time at uptime 0
+    private static final long EPOCH_MILLIS = 1500000000000L;
+
+    private static final class Task implements Comparable<Task> {
+        private final Runnable runnable;
+        private final long time;
+        private final long sequence;
+
+        private Task(Runnable runnable, long time, long sequence) {
+            this.runnable = runnable;
+            this.time = time;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (time != other.time)
+                return time < other.time ? -1 : 1;
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+    private long nextSequence;
+    private long uptime;
+
+    // Elapsed realtime (in millis) of the wakeup, -1 if none is set
+    private long wakeupTime = -1;
+    private long wakeupCount;
+    private boolean wakeLockHeld;
+    private long wakeLockCount;
+
+    private Listener listener;
+    private Snapshot snapshot = new Snapshot(true, true, true, false);
+
+    @Override
+    public Clock getClock() {
+        return this;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return EPOCH_MILLIS + uptime;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return uptime;
+    }
+
+    @Override
+    public long elapsedRealtime() {
+        return uptime;
+    }
+
+    @Override
+    public WakeupBackend getWakeupBackend() {
+        return this;
+    }
+
+    @Override
+    public void setWakeup(long triggerAtMillis) {
+        wakeupTime = triggerAtMillis;
+    }
+
+    @Override
+    public void cancelWakeup() {
+        wakeupTime = -1;
+    }
+
+    @Override
+    public void cancelLegacyWakeup(int jobId) {
+        // no legacy wakeups in virtual time
+    }
+
+    @Override
+    public void acquireWakeLock(long timeoutMillis) {
+        wakeLockHeld = true;
+        wakeLockCount++;
+    }
+
+    @Override
+    public void releaseWakeLock() {
+        wakeLockHeld = false;
+    }
+
+    @Override
+    public DeviceState getDeviceState() {
+        return this;
+    }
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Method to change the device state, notifying the SmartScheduler right away
+     */
+    void setSnapshot(Snapshot snapshot) {
+        Snapshot previous = this.snapshot;
+        this.snapshot = snapshot;
+        if (listener != null) {
+            listener.onDeviceStateChanged(previous, snapshot);
+        }
+    }
+
+    @Override
+    public Dispatcher getTimerDispatcher() {
+        return this;
+    }
+
+    @Override
+    public Dispatcher getCallerDispatcher() {
+        return this;
+    }
+
+    @Override
+    public Dispatcher getMainDispatcher() {
+        return this;
+    }
+
+    @Override
+    public Executor getWorkerPool() {
+        return this;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        dispatch(task);
+    }
+
+    @Override
+    public void dispatch(Runnable task) {
+        dispatchAt(task, uptime);
+    }
+
+    @Override
+    public void dispatchAt(Runnable task, long uptimeMillis) {
+        tasks.add(new Task(task, Math.max(uptime, uptimeMillis), nextSequence++));
+    }
+
+    @Override
+    public void cancel(Runnable task) {
+        Iterator<Task> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().runnable == task) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Method to run all tasks and wakeups due till the given time, then move the time there
+     *
+     * @param smartScheduler SmartScheduler to be woken up when its wakeup is due
+     * @param uptimeMillis   Uptime (in millis) till which the platform needs to be run
+     */
+    void runUntil(SmartScheduler smartScheduler, long uptimeMillis) {
+        while (true) {
+            Task task = tasks.peek();
+
+            if (task != null && task.time <= uptimeMillis && (wakeupTime < 0 || task.time <= wakeupTime)) {
+                tasks.poll();
+                uptime = Math.max(uptime, task.time);
+                task.runnable.run();
+
+            } else if (wakeupTime >= 0 && wakeupTime <= uptimeMillis) {
+                uptime = Math.max(uptime, wakeupTime);
+                wakeupTime = -1;
+                wakeupCount++;
+                smartScheduler.onAlarmWakeup();
+
+            } else {
+                break;
+            }
+        }
+
+        uptime = Math.max(uptime, uptimeMillis);
+    }
+
+    /**
+     * Method to move the time on without running anything, as if the thread was busy or the
+     * process was frozen
+     *
+     * @param millis Time (in millis) by which the time needs to be moved on
+     */
+    void stall(long millis) {
+        uptime += millis;
+    }
+
+    /**
+     * @return Returns the number of times the wakeup has fired
+     */
+    long getWakeupCount() {
+        return wakeupCount;
+    }
+
+    boolean isWakeLockHeld() {
+        return wakeLockHeld;
+    }
+
+    /**
+     * @return Returns the number of times the wake lock has been acquired
+     */
+    long getWakeLockCount() {
+        return wakeLockCount;
+    }
+}
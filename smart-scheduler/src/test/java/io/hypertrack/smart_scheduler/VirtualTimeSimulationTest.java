@@ -0,0 +1,126 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Simulates a week of 100k periodic jobs on a {@link VirtualPlatform} and checks the number of
+ * fires and wakeups as well as the drift of the jobs from their due times.
+ */
+public class VirtualTimeSimulationTest {
+
+    private static final int JOB_COUNT = 100000;
+
+    // Every 100th job is a Handler type job, all others are Alarm type jobs
+    private static final int HANDLER_JOB_EVERY = 100;
+
+    private static final long MINUTE = 60 * 1000;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long WEEK = 7 * 24 * HOUR;
+
+    private static VirtualPlatform platform;
+    private static long[] fireCounts;
+    private static long maxLateMillis;
+    private static long maxEarlyMillis;
+
+    private TestContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        fireCounts = new long[JOB_COUNT + 1];
+        maxLateMillis = 0;
+        maxEarlyMillis = 0;
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+        platform = null;
+        fireCounts = null;
+    }
+
+    @Test
+    public void testWeekOf100kPeriodicJobs() throws Exception {
+        SmartScheduler smartScheduler = new SmartScheduler(context, platform);
+        for (int jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            assertThat(smartScheduler.addJob(buildJob(jobId)), is(true));
+        }
+
+        platform.runUntil(smartScheduler, WEEK);
+
+        long alarmFireCount = 0;
+        long handlerFireCount = 0;
+        for (int jobId = 1; jobId <= JOB_COUNT; jobId++) {
+            Job job = smartScheduler.get(jobId);
+            long occurrences = WEEK / job.getIntervalMillis();
+
+            // Any job may fire its next occurrence early within its flex
+            assertThat(fireCounts[jobId], greaterThanOrEqualTo(occurrences));
+            assertThat(fireCounts[jobId], lessThanOrEqualTo(occurrences + 1));
+
+            if (job.getJobType() == Job.Type.JOB_TYPE_HANDLER) {
+                handlerFireCount += fireCounts[jobId];
+            } else {
+                alarmFireCount += fireCounts[jobId];
+            }
+        }
+
+        // Every fire is recorded against the backend of the job
+        SchedulerMetrics metrics = smartScheduler.getMetrics();
+        assertThat(metrics.getAlarmFireCount(), is(alarmFireCount));
+        assertThat(metrics.getHandlerFireCount(), is(handlerFireCount));
+
+        // Jobs never fire later than one timer tick, nor earlier than their flex
+        assertThat(maxLateMillis, lessThanOrEqualTo(JobTimer.TICK_MILLIS));
+        assertThat(maxEarlyMillis, lessThanOrEqualTo(24 * HOUR / 4));
+
+        // Alarm type jobs with overlapping flex windows share their wakeups
+        assertThat(platform.getWakeupCount(), lessThan(metrics.getAlarmFireCount()));
+    }
+
+    /**
+     * Alarm type jobs run every 1 to 24 hours, every second one with a flex of a quarter of its
+     * interval. Handler type jobs run every 5 to 14 minutes. All of them are fixed rate jobs.
+     */
+    private static Job buildJob(int jobId) {
+        if (jobId % HANDLER_JOB_EVERY == 0) {
+            return new Job.Builder(jobId, new TestCallback(), Job.Type.JOB_TYPE_HANDLER)
+                    .setPeriodic((5 + jobId % 10) * MINUTE)
+                    .setPeriodicMode(Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE)
+                    .build();
+        }
+
+        long intervalMillis = (1 + jobId % 24) * HOUR;
+        Job.Builder builder = new Job.Builder(jobId, new TestCallback(), Job.Type.JOB_TYPE_ALARM)
+                .setPeriodic(intervalMillis)
+                .setPeriodicMode(Job.PeriodicMode.PERIODIC_MODE_FIXED_RATE);
+        if (jobId % 2 == 0) {
+            builder.setFlex(intervalMillis / 4);
+        }
+        return builder.build();
+    }
+
+    private static class TestCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            long dueTime = job.getInitialDelayInMillis() + fireCounts[job.getJobId()] * job.getIntervalMillis();
+            long drift = platform.uptimeMillis() - dueTime;
+
+            maxLateMillis = Math.max(maxLateMillis, drift);
+            maxEarlyMillis = Math.max(maxEarlyMillis, -drift);
+            fireCounts[job.getJobId()]++;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.hypertrack.smart_scheduler;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class WakeLockTest {
+
+    private static final long DELAY_MILLIS = 1000;
+
+    private static VirtualPlatform platform;
+    private static List<Boolean> wakeLockHeldOnRun;
+
+    private TestContext context;
+    private SmartScheduler smartScheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        context = new TestContext();
+
+        platform = new VirtualPlatform();
+        wakeLockHeldOnRun = new ArrayList<>();
+        smartScheduler = new SmartScheduler(context, platform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        context.deleteFiles();
+    }
+
+    @Test
+    public void testWakeLockIsHeldTillPoolRunHasStarted() throws Exception {
+        smartScheduler.addJob(buildJob(1, Job.ExecutionPolicy.EXECUTION_POLICY_POOL));
+        smartScheduler.addJob(buildJob(2, Job.ExecutionPolicy.EXECUTION_POLICY_SERIAL));
+
+        // Wakeup only queues the runs, the device has to stay awake once it has returned
+        platform.stall(DELAY_MILLIS);
+        smartScheduler.onAlarmWakeup();
+        assertThat(platform.isWakeLockHeld(), is(true));
+
+        platform.runUntil(smartScheduler, DELAY_MILLIS);
+        assertThat(wakeLockHeldOnRun, is(Arrays.asList(true, false)));
+        assertThat(platform.isWakeLockHeld(), is(false));
+    }
+
+    @Test
+    public void testInlineRunNeedsNoWakeLock() throws Exception {
+        smartScheduler.addJob(buildJob(1, Job.ExecutionPolicy.EXECUTION_POLICY_INLINE));
+
+        platform.runUntil(smartScheduler, DELAY_MILLIS);
+        assertThat(wakeLockHeldOnRun, is(Arrays.asList(false)));
+        assertThat(platform.getWakeLockCount(), is(0L));
+    }
+
+    private static Job buildJob(int jobId, int executionPolicy) {
+        return new Job.Builder(jobId, new TestCallback(), Job.Type.JOB_TYPE_ALARM)
+                .setIntervalMillis(DELAY_MILLIS)
+                .setExecutionPolicy(executionPolicy)
+                .build();
+    }
+
+    private static class TestCallback implements SmartScheduler.JobScheduledCallback {
+        @Override
+        public void onJobScheduled(Context context, Job job) {
+            wakeLockHeldOnRun.add(platform.isWakeLockHeld());
+        }
+    }
+}